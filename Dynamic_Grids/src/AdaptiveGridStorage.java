@@ -0,0 +1,233 @@
+/**
+ * Grid storage engine that picks its layout from the way the grid is being changed. It starts
+ * row-major (a FlatGridStorage) and counts the row and column additions and removals; at the end of
+ * every window of WINDOW such operations, if column operations outnumber row operations by more than
+ * SWITCH_RATIO it moves the grid to a column-major layout, and back to row-major in the opposite case.
+ * Each switch costs one O(RC) copy, which is paid for by the O(RC) column (or row) moves it saves.
+ *
+ * @author Sergio Delgado
+ *
+ * @param <T>  Type of the elements inside the grid cells.
+ */
+public class AdaptiveGridStorage<T> implements GridStorage<T>
+{
+	/**
+	 * number of row and column additions and removals observed before deciding the layout again
+	 */
+	private static final int WINDOW = 64;
+	/**
+	 * how many times more operations of one kind are needed to switch to the layout that favors them
+	 */
+	private static final int SWITCH_RATIO = 2;
+
+	/**
+	 * Engine that currently holds the grid
+	 */
+	private GridStorage<T> storage;
+	/**
+	 * True if the grid is currently column-major
+	 */
+	private boolean columnMajor;
+	/**
+	 * row additions and removals in the current window
+	 */
+	private int rowOps;
+	/**
+	 * column additions and removals in the current window
+	 */
+	private int colOps;
+
+
+	/**
+	 * Constructor, which creates an empty row-major grid of 0 rows and 0 cols
+	 */
+	public AdaptiveGridStorage()
+	{
+		storage = new FlatGridStorage<T>();
+		columnMajor = false;
+	}
+
+
+	/**
+	 * Returns True if the grid is currently kept in column-major order. O(1).
+	 * @return True only if the current layout is column-major.
+	 */
+	public boolean isColumnMajor()
+	{
+		return columnMajor;
+	}
+
+
+	/**
+	 * Returns the number of rows in the grid. O(1).
+	 * @return int value. Number of rows in the grid.
+	 */
+	public int getNumRow()
+	{
+		return storage.getNumRow();
+	}
+
+
+	/**
+	 * Returns the number of columns in the grid. O(1).
+	 * @return int value. Number of columns in the grid.
+	 */
+	public int getNumCol()
+	{
+		return storage.getNumCol();
+	}
+
+
+	/**
+	 * Returns the value of the element of the grid at indexRow and indexCol. O(1).
+	 * @param indexRow int value. Row index on the grid.
+	 * @param indexCol int value. Column index on the grid.
+	 * @return Generic type element at the cell pointed.
+	 */
+	public T get(int indexRow, int indexCol)
+	{
+		return storage.get(indexRow, indexCol);
+	}
+
+
+	/**
+	 * Changes value at a cell of the grid located at a specific indexRow and indexCol. O(1).
+	 * @param indexRow Row position in the grid.
+	 * @param indexCol Column position in the grid.
+	 * @param value Generic type value of the new element in the grid.
+	 * @return Generic type value of the old element that got replaced.
+	 */
+	public T set(int indexRow, int indexCol, T value)
+	{
+		return storage.set(indexRow, indexCol, value);
+	}
+
+
+	/**
+	 * Copy values from newRow to add a row at the row index specified, in the current layout.
+	 * @param index Position of the row of the grid where we are adding the new row.
+	 * @param newRow Dynamic array that holds the element values of the new row.
+	 * @return True only if the addition of the row happened.
+	 */
+	public boolean addRow(int index, DynamicArray<T> newRow)
+	{
+		boolean success = storage.addRow(index, newRow);
+		countOp(true);
+		return success;
+	}
+
+
+	/**
+	 * Copies values from newCol to add a column at the column index specified, in the current layout.
+	 * @param index Column of the grid in which to add the new column (newCol)
+	 * @param newCol Array of values of the column that will be added to the grid
+	 * @return True only if the addition of the column happened.
+	 */
+	public boolean addCol(int index, DynamicArray<T> newCol)
+	{
+		boolean success = storage.addCol(index, newCol);
+		countOp(false);
+		return success;
+	}
+
+
+	/**
+	 * Removes and returns the row at index, in the current layout.
+	 * @param index Row position to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed row.
+	 */
+	public DynamicArray<T> removeRow(int index)
+	{
+		DynamicArray<T> removedRow = storage.removeRow(index);
+		countOp(true);
+		return removedRow;
+	}
+
+
+	/**
+	 * Removes and returns the column at index, in the current layout.
+	 * @param index Position of the column to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed column.
+	 */
+	public DynamicArray<T> removeCol(int index)
+	{
+		DynamicArray<T> removedColumn = storage.removeCol(index);
+		countOp(false);
+		return removedColumn;
+	}
+
+
+	/**
+	 * Reorganizes the memory of the engine that currently holds the grid.
+	 */
+	public void compact()
+	{
+		storage.compact();
+	}
+
+
+	/**
+	 * Returns True if the engine that currently holds the grid can set different cells from several
+	 * threads at once (set never switches the layout).
+	 * @return True only if concurrent calls to set on different cells are safe.
+	 */
+	public boolean supportsConcurrentSet()
+	{
+		return storage.supportsConcurrentSet();
+	}
+
+
+	/**
+	 * Gets the engine that currently holds the grid ready to be set from several threads at once.
+	 * @param rowFrom first row that will be set.
+	 * @param rowTo row after the last row that will be set.
+	 */
+	public void prepareConcurrentSet(int rowFrom, int rowTo)
+	{
+		storage.prepareConcurrentSet(rowFrom, rowTo);
+	}
+
+
+	/**
+	 * Counts one row or column operation, and decides the layout again at the end of the window.
+	 * @param rowOp True for a row operation, false for a column operation.
+	 */
+	private void countOp(boolean rowOp)
+	{
+		if (rowOp)
+			rowOps++;
+		else
+			colOps++;
+
+		if (rowOps + colOps < WINDOW)
+			return;
+
+		if (!columnMajor && colOps > SWITCH_RATIO * rowOps)
+			switchLayout();
+		else if (columnMajor && rowOps > SWITCH_RATIO * colOps)
+			switchLayout();
+
+		rowOps = 0;
+		colOps = 0;
+	}
+
+
+	/**
+	 * Moves the grid to the other layout (row-major to column-major or back). O(RC).
+	 */
+	private void switchLayout()
+	{
+		GridStorage<T> newStorage;
+		if (columnMajor)
+			newStorage = new FlatGridStorage<T>();
+		else
+			newStorage = new TransposedGridStorage<T>(new FlatGridStorage<T>());
+
+		// a grid with rows but no columns is copied as that many empty rows
+		GridStorage.copy(storage, newStorage);
+
+		storage = newStorage;
+		columnMajor = !columnMajor;
+	}
+
+}
@@ -0,0 +1,501 @@
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+
+/**
+ * Class that implements the interface Combiner by remembering the results of another combiner.
+ * Combining a pair of operands that was combined before returns the remembered result instead of
+ * combining them again, which only makes sense for combiners that always return the same result
+ * for the same operands (like every combiner of this project). The number of remembered results is
+ * bounded by a number of entries and/or by their estimated size in bytes; when a bound is exceeded,
+ * results are evicted following the least-recently-used or the least-frequently-used policy.
+ * Combining from several threads at once is safe.
+ *
+ * @author Sergio Delgado
+ * @version 1.0
+ *
+ * @param <A> type of the first operand that the combiner takes
+ * @param <B> type of the second operand that the combiner takes
+ * @param <C> type of the result that the combiner generates
+ */
+public class CachingCombiner<A,B,C> implements Combiner<A,B,C>
+{
+	/**
+	 * Policies that decide which result is evicted when the cache is full.
+	 */
+	public enum Policy
+	{
+		/**
+		 * Evicts the result that was used the longest time ago.
+		 */
+		LRU,
+		/**
+		 * Evicts the result that was used the fewest times (the oldest one among those).
+		 */
+		LFU
+	}
+
+	/**
+	 * Estimates the memory, in bytes, taken by one remembered result.
+	 *
+	 * @param <A> type of the first operand
+	 * @param <B> type of the second operand
+	 * @param <C> type of the result
+	 */
+	@FunctionalInterface
+	public interface Weigher<A,B,C>
+	{
+		/**
+		 * Returns the estimated memory taken by the operands and the result of one combination.
+		 * @param operand1 first operand of the combination.
+		 * @param operand2 second operand of the combination.
+		 * @param result result of the combination.
+		 * @return long value. Estimated number of bytes.
+		 */
+		public long weigh(A operand1, B operand2, C result);
+	}
+
+	private Combiner<A,B,C> combiner;				// combiner whose results are remembered
+	private Policy policy;							// eviction policy
+	private int maxEntries;							// max number of remembered results
+	private long maxBytes;							// max estimated size of the remembered results
+	private Weigher<A,B,C> weigher;					// estimates the size of each remembered result
+
+	private LinkedHashMap<Key<A,B>, Entry<C>> entries;	// remembered results (in LRU order for LRU policy)
+	private HashMap<Integer, LinkedHashSet<Key<A,B>>> buckets;	// LFU policy: keys by number of uses
+	private int minFrequency;						// LFU policy: fewest number of uses of any key
+	private long bytes;								// estimated size of the remembered results
+
+	private long hits;								// combinations answered with a remembered result
+	private long misses;							// combinations that had to call the combiner
+	private long evictions;							// results evicted to respect the bounds
+
+
+	/**
+	 * Constructor that remembers at most maxEntries results of combiner, evicting the least recently used.
+	 * @param combiner Combiner whose results will be remembered.
+	 * @param maxEntries int value. Max number of remembered results.
+	 * @throws IllegalArgumentException if maxEntries is not positive.
+	 */
+	public CachingCombiner(Combiner<A,B,C> combiner, int maxEntries)
+	{
+		this(combiner, Policy.LRU, maxEntries);
+	}
+
+
+	/**
+	 * Constructor that remembers at most maxEntries results of combiner, evicting them by the policy received.
+	 * @param combiner Combiner whose results will be remembered.
+	 * @param policy Policy that decides which result is evicted.
+	 * @param maxEntries int value. Max number of remembered results.
+	 * @throws IllegalArgumentException if maxEntries is not positive.
+	 */
+	public CachingCombiner(Combiner<A,B,C> combiner, Policy policy, int maxEntries)
+	{
+		this(combiner, policy, maxEntries, Long.MAX_VALUE, CachingCombiner::estimateBytes);
+	}
+
+
+	/**
+	 * Constructor that remembers results of combiner while their estimated size stays within maxBytes,
+	 * evicting them by the policy received. Sizes are estimated with estimateBytes.
+	 * @param combiner Combiner whose results will be remembered.
+	 * @param policy Policy that decides which result is evicted.
+	 * @param maxBytes long value. Max estimated size, in bytes, of the remembered results.
+	 * @throws IllegalArgumentException if maxBytes is not positive.
+	 */
+	public CachingCombiner(Combiner<A,B,C> combiner, Policy policy, long maxBytes)
+	{
+		this(combiner, policy, Integer.MAX_VALUE, maxBytes, CachingCombiner::estimateBytes);
+	}
+
+
+	/**
+	 * Constructor with every bound of the cache. Results are evicted by the policy received as soon as
+	 * there are more than maxEntries of them or their estimated size goes over maxBytes.
+	 * @param combiner Combiner whose results will be remembered.
+	 * @param policy Policy that decides which result is evicted.
+	 * @param maxEntries int value. Max number of remembered results.
+	 * @param maxBytes long value. Max estimated size, in bytes, of the remembered results.
+	 * @param weigher Object that estimates the size of each remembered result.
+	 * @throws IllegalArgumentException if any of the bounds is not positive.
+	 */
+	public CachingCombiner(Combiner<A,B,C> combiner, Policy policy, int maxEntries, long maxBytes,
+			Weigher<A,B,C> weigher)
+	{
+		if (maxEntries <= 0 || maxBytes <= 0)
+			throw new IllegalArgumentException("Cache bound is too small.");
+
+		this.combiner = combiner;
+		this.policy = policy;
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.weigher = weigher;
+
+		entries = new LinkedHashMap<Key<A,B>, Entry<C>>(16, 0.75f, policy == Policy.LRU);
+		buckets = new HashMap<Integer, LinkedHashSet<Key<A,B>>>();
+	}
+
+
+	/**
+	 * Returns the result of combining operand1 and operand2 with the wrapped combiner. The result is
+	 * remembered, or taken from the remembered results if the same operands were combined before.
+	 * O(1) for remembered results.
+	 * @param operand1 first operand, must be of type A
+	 * @param operand2 second operand, must be of type B
+	 * @return result based on the combination of operand1 and operand2, must be of type C
+	 */
+	public C combine(A operand1, B operand2)
+	{
+		Key<A,B> key = new Key<A,B>(operand1, operand2);
+
+		synchronized (this)
+		{
+			Entry<C> entry = entries.get(key);	// (moves the key to the end of the LRU order)
+			if (entry != null)
+			{
+				hits++;
+				if (policy == Policy.LFU)
+					touch(key, entry);
+				return entry.value;
+			}
+			misses++;
+		}
+
+		// combining outside of the lock, so other threads are not blocked by an expensive combiner
+		C result = combiner.combine(operand1, operand2);
+
+		synchronized (this)
+		{
+			if (!entries.containsKey(key))
+				insert(key, new Entry<C>(result, weigher.weigh(operand1, operand2, result)));
+		}
+		return result;
+	}
+
+
+	/**
+	 * Evicts results until the new one fits within the bounds of the cache, and then remembers it,
+	 * so the new result is never the one evicted (with LFU it would always have the fewest uses).
+	 * O(1) amortized. A result that is bigger than maxBytes by itself is not remembered.
+	 * @param key operands of the new result.
+	 * @param entry new result.
+	 */
+	private void insert(Key<A,B> key, Entry<C> entry)
+	{
+		if (entry.weight > maxBytes)
+			return;
+
+		while (!entries.isEmpty() && (entries.size() >= maxEntries || bytes + entry.weight > maxBytes))
+			evict();
+
+		entries.put(key, entry);
+		bytes += entry.weight;
+		if (policy == Policy.LFU)
+		{
+			bucket(1).add(key);
+			minFrequency = 1;
+		}
+	}
+
+
+	/**
+	 * Evicts one result, chosen by the policy. O(1).
+	 */
+	private void evict()
+	{
+		Key<A,B> victim;
+
+		if (policy == Policy.LRU)	// least recently used key is at the start of the map
+			victim = entries.keySet().iterator().next();
+
+		else						// oldest key among the ones with fewest uses
+		{
+			LinkedHashSet<Key<A,B>> bucket = buckets.get(minFrequency);
+			victim = bucket.iterator().next();
+			bucket.remove(victim);
+			if (bucket.isEmpty())
+				buckets.remove(minFrequency);
+		}
+
+		Entry<C> entry = entries.remove(victim);
+		bytes -= entry.weight;
+		evictions++;
+
+		if (policy == Policy.LFU && !entries.isEmpty() && !buckets.containsKey(minFrequency))
+			minFrequency = nextFrequency();
+	}
+
+
+	/**
+	 * LFU policy: counts one more use of a remembered result. O(1).
+	 * @param key operands of the result.
+	 * @param entry remembered result.
+	 */
+	private void touch(Key<A,B> key, Entry<C> entry)
+	{
+		LinkedHashSet<Key<A,B>> bucket = buckets.get(entry.frequency);
+		bucket.remove(key);
+		if (bucket.isEmpty())
+		{
+			buckets.remove(entry.frequency);
+			if (minFrequency == entry.frequency)
+				minFrequency++;
+		}
+
+		if (entry.frequency < Integer.MAX_VALUE)
+			entry.frequency++;
+		bucket(entry.frequency).add(key);
+	}
+
+
+	/**
+	 * LFU policy: returns the bucket of the keys used (frequency) times, creating it if needed. O(1).
+	 * @param frequency int value. Number of uses.
+	 * @return set of the keys used (frequency) times, in insertion order.
+	 */
+	private LinkedHashSet<Key<A,B>> bucket(int frequency)
+	{
+		LinkedHashSet<Key<A,B>> bucket = buckets.get(frequency);
+		if (bucket == null)
+		{
+			bucket = new LinkedHashSet<Key<A,B>>();
+			buckets.put(frequency, bucket);
+		}
+		return bucket;
+	}
+
+
+	/**
+	 * LFU policy: returns the fewest number of uses among the buckets left. O(F) where F is the
+	 * number of buckets (only needed after an eviction empties the last bucket of minFrequency).
+	 * @return int value. Fewest number of uses of any remembered result.
+	 */
+	private int nextFrequency()
+	{
+		int min = Integer.MAX_VALUE;
+		for (int frequency : buckets.keySet())
+			if (frequency < min)
+				min = frequency;
+		return min;
+	}
+
+
+	/**
+	 * Forgets every remembered result. The counters are not reset. O(N).
+	 */
+	public synchronized void clear()
+	{
+		entries.clear();
+		buckets.clear();
+		minFrequency = 0;
+		bytes = 0;
+	}
+
+
+	/**
+	 * Returns the number of remembered results. O(1).
+	 * @return int value. Number of remembered results.
+	 */
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+
+	/**
+	 * Returns the estimated size of the remembered results. O(1).
+	 * @return long value. Estimated number of bytes.
+	 */
+	public synchronized long getBytes()
+	{
+		return bytes;
+	}
+
+
+	/**
+	 * Returns the number of combinations answered with a remembered result. O(1).
+	 * @return long value. Number of hits.
+	 */
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+
+	/**
+	 * Returns the number of combinations that called the wrapped combiner. O(1).
+	 * @return long value. Number of misses.
+	 */
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+
+
+	/**
+	 * Returns the number of results evicted to keep the cache within its bounds. O(1).
+	 * @return long value. Number of evictions.
+	 */
+	public synchronized long getEvictions()
+	{
+		return evictions;
+	}
+
+
+	/**
+	 * Returns the combiner whose results are remembered. O(1).
+	 * @return wrapped combiner.
+	 */
+	public Combiner<A,B,C> getCombiner()
+	{
+		return combiner;
+	}
+
+
+	/**
+	 * Estimates the memory taken by the operands and result of one combination, counting strings by
+	 * their characters and every other value as a small object, plus the overhead of the cache entry.
+	 * @param operand1 first operand of the combination.
+	 * @param operand2 second operand of the combination.
+	 * @param result result of the combination.
+	 * @return long value. Estimated number of bytes.
+	 */
+	public static long estimateBytes(Object operand1, Object operand2, Object result)
+	{
+		return 64 + estimateBytes(operand1) + estimateBytes(operand2) + estimateBytes(result);
+	}
+
+
+	/**
+	 * Estimates the memory taken by one value.
+	 * @param value value to estimate.
+	 * @return long value. Estimated number of bytes.
+	 */
+	private static long estimateBytes(Object value)
+	{
+		if (value == null)
+			return 0;
+		if (value instanceof CharSequence)
+			return 40 + 2L * ((CharSequence) value).length();
+		return 16;
+	}
+
+
+	@Override
+	public synchronized String toString(){
+		return "CachingCombiner ("+policy+") with "+entries.size()+" entries, "+hits+" hits, "
+			+misses+" misses, "+evictions+" evictions";
+	}
+
+
+	/**
+	 * Pair of operands used as the key of a remembered result.
+	 *
+	 * @param <A> type of the first operand
+	 * @param <B> type of the second operand
+	 */
+	private static final class Key<A,B>
+	{
+		private final A operand1;
+		private final B operand2;
+		private final int hash;
+
+		Key(A operand1, B operand2)
+		{
+			this.operand1 = operand1;
+			this.operand2 = operand2;
+			hash = 31 * Objects.hashCode(operand1) + Objects.hashCode(operand2);
+		}
+
+		@Override
+		public boolean equals(Object other)
+		{
+			if (!(other instanceof Key))
+				return false;
+			Key<?,?> key = (Key<?,?>) other;
+			return hash == key.hash && Objects.equals(operand1, key.operand1)
+				&& Objects.equals(operand2, key.operand2);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+	}
+
+
+	/**
+	 * Remembered result with its estimated size and number of uses.
+	 *
+	 * @param <C> type of the result
+	 */
+	private static final class Entry<C>
+	{
+		private final C value;
+		private final long weight;
+		private int frequency = 1;
+
+		Entry(C value, long weight)
+		{
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+
+	/**
+	 * Main method that executes a test on the performance of the class CachingCombiner.
+	 * @param args Command line arguments, which are not necessary for this class.
+	 */
+	public static void main(String[] args){
+		CachingCombiner<String,Integer,String> lru = new CachingCombiner<>(new StringTimer(), 2);
+		lru.combine("ab", 3);
+		lru.combine("ab", 3);
+		lru.combine("c", 2);
+		lru.combine("ab", 3);
+		lru.combine("d", 1);	// evicts ("c", 2)
+		if (lru.combine("ab",3).equals("ababab") && lru.getHits() == 3 && lru.getMisses() == 3
+			&& lru.getEvictions() == 1 && lru.size() == 2) {
+			System.out.println("Yay 1");
+		}
+
+		CachingCombiner<String,String,Integer> lfu =
+			new CachingCombiner<>(new SubstringCounter(), Policy.LFU, 2);
+		lfu.combine("abab", "ab");
+		lfu.combine("abab", "ab");
+		lfu.combine("aaa", "a");
+		lfu.combine("bbb", "b");	// evicts ("aaa", "a"), used once
+		lfu.combine("abab", "ab");
+		if (lfu.getHits() == 2 && lfu.getEvictions() == 1 && lfu.combine("bbb", "b") == 3
+			&& lfu.getHits() == 3 && lfu.combine("aaa", "a") == 3 && lfu.getMisses() == 4) {
+			System.out.println("Yay 2");
+		}
+
+		CachingCombiner<String,Integer,String> sized =
+			new CachingCombiner<>(new StringTimer(), Policy.LRU, 400L);
+		Table<String,Integer,String,CachingCombiner<String,Integer,String>> table = new Table<>(sized);
+		for (int i=0; i<4; i++){
+			table.addRow(i, "ab");
+			table.addCol(i, 2);
+		}
+		if (table.getCell(3, 3).equals("abab") && sized.getMisses() == 1 && sized.getBytes() <= 400) {
+			System.out.println("Yay 3");
+		}
+
+		// a new result is remembered even when every older one was used more often
+		CachingCombiner<String,Integer,String> frequent = new CachingCombiner<>(new StringTimer(), Policy.LFU, 2);
+		for (int i=0; i<2; i++){
+			frequent.combine("a", 1);
+			frequent.combine("b", 1);
+		}
+		for (int i=0; i<7; i++)
+			frequent.combine("c", 1);	// evicts ("a", 1) once, then hits
+		if (frequent.getMisses() == 3 && frequent.getHits() == 8 && frequent.getEvictions() == 1
+			&& frequent.size() == 2 && frequent.combine("b", 1).equals("b")) {
+			System.out.println("Yay 4");
+		}
+	}
+}
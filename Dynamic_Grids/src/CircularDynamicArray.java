@@ -0,0 +1,469 @@
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Dynamic array kept in a circular buffer: the first element can be anywhere in the underlying array
+ * and the elements wrap around its end. Adding or removing at index only shifts the elements on the
+ * shorter side of index, so adding or removing at either end is O(1) and in the middle is O(N/2).
+ *
+ * @version 1.0
+ * @author Sergio Delgado.
+ *
+ * @param <T> type of the array's element
+ */
+public class CircularDynamicArray<T> extends DynamicArray<T>
+{
+	/**
+	 * default capacity of array (which is 2)
+	 */
+	private static final int INITCAP = 2;
+	/**
+	 * Underlying circular array (holds the values of the array's elements)
+	 */
+	private T[] buffer;
+	/**
+	 * position of the underlying array where the first element is
+	 */
+	private int head;
+	/**
+	 * number of existing elements in the array
+	 */
+	private int size;
+
+
+
+	/**
+	 * Constructor with initial capacity of 2
+	 */
+	public CircularDynamicArray()
+	{
+		this(INITCAP);
+	}
+
+
+	/**
+	 * Constructor that receives int parameter for desired capacity.
+	 *
+	 * @param initCapacity int desired capacity for the new dynamic array
+	 * @throws  IllegalArgumentException if capacity desired for new array is too small.
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	public CircularDynamicArray(int initCapacity)
+	{
+		super(1);	// the storage of the superclass is not used: every public method that reads it is
+					// overridden (checked by the trials of main), only its growth policy and metrics are
+
+		if (initCapacity > 0) // if desired capacity greater than 0
+		{
+			buffer = (T[]) new Object[initCapacity];
+			head = 0;
+			size = 0;
+		}
+
+		else
+			throw new IllegalArgumentException("Capacity is too small.");
+	}
+
+
+	/**
+	 * Constructor that copies the elements of another dynamic array, in order. O(N).
+	 * @param values dynamic array with the elements of the new dynamic array.
+	 */
+	public CircularDynamicArray(DynamicArray<T> values)
+	{
+		this(Math.max(values.size(), INITCAP));
+		for (int i=0; i<values.size(); i++)
+			buffer[i] = values.get(i);
+		size = values.size();
+	}
+
+
+	/**
+	 * Returns the position of the underlying array where the element at index is. O(1).
+	 * @param index int value. Position in the array (from 0 to capacity).
+	 * @return int value. Position in the underlying array.
+	 */
+	private int physical(int index)
+	{
+		int position = head + index;
+		return (position >= buffer.length) ? position - buffer.length : position;
+	}
+
+
+	/**
+	 * Returns the number of elements in the list. O(1).
+     * @return Returns int number of elements in array.
+	 */
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+
+	/**
+	 * Returns the max number of elements before the next expansion. O(1).
+	 * @return int value.  Returns max number of elements in array.
+	 */
+	@Override
+	public int capacity()
+	{
+		return buffer.length;
+	}
+
+
+	/**
+	 * Changes item x at index i to be value. O(1).
+	 * @param index int value. Position on the array.
+	 * @param value Generic type value of element at index
+	 * @return Returns Generic type value of old array element at index.
+	 */
+	@Override
+	public T set(int index, T value)
+	{
+		if (index>=0 && index<size)  // if index is within range, set new value at index
+		{
+			int position = physical(index);
+			T oldValue = buffer[position];
+			buffer[position] = value;
+			return oldValue;
+		}
+
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+
+	/**
+	 * Return the item at index. O(1).
+	 * @param index int value. Position on the array.
+	 * @return Generic type value of array element at index.
+	 */
+	@Override
+	public T get(int index)
+	{
+		if (index>=0 && index<size)  // if index is within range, return element.
+			return buffer[physical(index)];
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+
+	/**
+	 * Adds element to end of the array (append). Grows if no space available. O(1) amortized.
+	 * @param value Generic type value of element to be added to array.
+	 * @return Returns True.
+	 */
+	@Override
+	public boolean add(T value)
+	{
+		add(size, value);
+		return true;
+	}
+
+
+	/**
+	 * Adds element at position (index) in the array. Grows if no space available.
+	 * O(min(index, N-index)): the elements on the shorter side of index are shifted.
+	 * @param index int value. Position where to add new element in the array.
+	 * @param value Generic type value of element to be added to array.
+	 */
+	@Override
+	public void add(int index, T value)
+	{
+		if (index>=0 && index<=size)
+		{
+			if (size == buffer.length)
+				resize(getGrowthPolicy().grow(buffer.length, size+1));
+
+			openGap(index, 1);
+			buffer[physical(index)] = value;
+			return;
+		}
+
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+
+	/**
+	 * Removes element of the array at index. Shrinks as the growth policy says.
+	 * O(min(index, N-index)): the elements on the shorter side of index are shifted.
+	 * @param index int value. Position of the element to be removed.
+	 * @return Generic type element that was removed from array at index.
+	 */
+	@Override
+	public T remove(int index)
+	{
+		if (index>=0 && index<size)
+		{
+			T removedValue = buffer[physical(index)];
+			closeGap(index, 1);
+			checkEmptiness();
+			return removedValue;
+		}
+
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+
+	/**
+	 * Adds every element of values, in order, to the end of the array. O(M) amortized where M is
+	 * the number of elements added.
+	 * @param values dynamic array with the elements to be added.
+	 * @return Returns True.
+	 */
+	@Override
+	public boolean addAll(DynamicArray<T> values)
+	{
+		addAll(size, values);
+		return true;
+	}
+
+
+	/**
+	 * Inserts every element of values, in order, starting at position (index) of the array. The
+	 * elements on the shorter side of index are shifted only once, and the array grows at most once.
+	 * O(min(index, N-index) + M) where M is the number of elements added.
+	 * @param index int value. Position where to add the first new element in the array.
+	 * @param values dynamic array with the elements to be added.
+	 */
+	@Override
+	public void addAll(int index, DynamicArray<T> values)
+	{
+		if (index>=0 && index<=size)
+		{
+			int count = values.size();
+			DynamicArray<T> source = (values == this) ? new DynamicArray<T>(values) : values;
+
+			ensureCapacity(size + count);
+			openGap(index, count);
+			for (int i=0; i<count; i++)
+				buffer[physical(index+i)] = source.get(i);
+			return;
+		}
+
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+
+	/**
+	 * Removes the elements of the array from position fromIndex (included) to toIndex (excluded).
+	 * The elements on the shorter side are shifted only once, and the array shrinks at most once.
+	 * O(min(fromIndex, N-toIndex) + K) where K is the number of elements removed.
+	 * @param fromIndex int value. Position of the first element to remove.
+	 * @param toIndex int value. Position after the last element to remove.
+	 */
+	@Override
+	public void removeRange(int fromIndex, int toIndex)
+	{
+		if (fromIndex >= 0 && fromIndex <= toIndex && toIndex <= size)
+		{
+			closeGap(fromIndex, toIndex-fromIndex);
+
+			int newCapacity = buffer.length;
+			int next = getGrowthPolicy().shrink(newCapacity, size);
+			while (next != newCapacity)
+			{
+				newCapacity = next;
+				next = getGrowthPolicy().shrink(newCapacity, size);
+			}
+			if (newCapacity != buffer.length)
+				resize(newCapacity);
+			return;
+		}
+
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+
+	/**
+	 * Makes sure the array can hold minCapacity elements without growing again. Grows at most once,
+	 * as the growth policy says. O(N) if it grows, O(1) otherwise.
+	 * @param minCapacity int value. Number of elements the array has to be able to hold.
+	 */
+	@Override
+	public void ensureCapacity(int minCapacity)
+	{
+		if (minCapacity > buffer.length)
+			resize(getGrowthPolicy().grow(buffer.length, minCapacity));
+	}
+
+
+	/**
+	 * Shrinks the capacity of the array to its size (but not less than 1). O(N).
+	 */
+	@Override
+	public void trimToSize()
+	{
+		if (buffer.length > Math.max(size, 1))
+			resize(Math.max(size, 1));
+	}
+
+
+	/**
+	 * Makes room for count new elements starting at index, shifting the elements on the shorter side:
+	 * the ones before index move count places back (the head moves back), or the ones after index
+	 * move count places forward. The size grows by count. There must be capacity for them.
+	 * @param index int value. Position of the first new element.
+	 * @param count int value. Number of new elements.
+	 */
+	private void openGap(int index, int count)
+	{
+		Metrics metrics = getMetrics();
+		if (metrics != null)
+			metrics.add(Metrics.Counter.ELEMENTS_SHIFTED, Math.min(index, size - index));
+
+		if (index < size - index)	// moving the elements before index back
+		{
+			head = physical(buffer.length - count);
+			for (int i=0; i<index; i++)
+				buffer[physical(i)] = buffer[physical(i+count)];
+		}
+		else						// moving the elements after index forward
+		{
+			for (int i=size-1; i>=index; i--)
+				buffer[physical(i+count)] = buffer[physical(i)];
+		}
+		size += count;
+	}
+
+
+	/**
+	 * Removes the count elements starting at index, shifting the elements on the shorter side:
+	 * the ones before index move count places forward (the head moves forward), or the ones after
+	 * index+count move count places back. The places left are cleared. The size drops by count.
+	 * @param index int value. Position of the first element removed.
+	 * @param count int value. Number of elements removed.
+	 */
+	private void closeGap(int index, int count)
+	{
+		Metrics metrics = getMetrics();
+		if (metrics != null)
+			metrics.add(Metrics.Counter.ELEMENTS_SHIFTED, Math.min(index, size - index - count));
+
+		if (index < size - index - count)	// moving the elements before index forward
+		{
+			for (int i=index-1; i>=0; i--)
+				buffer[physical(i+count)] = buffer[physical(i)];
+			for (int i=0; i<count; i++)
+				buffer[physical(i)] = null;
+			head = physical(count);
+		}
+		else								// moving the elements after index+count back
+		{
+			for (int i=index+count; i<size; i++)
+				buffer[physical(i-count)] = buffer[physical(i)];
+			for (int i=size-count; i<size; i++)
+				buffer[physical(i)] = null;
+		}
+		size -= count;
+	}
+
+
+	/**
+	 * Verifies that the size of the array is not below the shrinking point of the growth policy.
+	 * If so, it shrinks the array as the policy says.
+	 */
+	private void checkEmptiness()
+	{
+		int newCapacity = getGrowthPolicy().shrink(buffer.length, size);
+		if (newCapacity != buffer.length)
+			resize(newCapacity);
+	}
+
+
+	/**
+	 * Moves the elements into a new underlying array of the capacity received, starting at position 0.
+	 * O(N).
+	 * @param newCapacity int value. New capacity of the array (not less than size).
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	private void resize(int newCapacity)
+	{
+		T[] newBuffer = (T[]) new Object[newCapacity];
+		Metrics metrics = getMetrics();
+		if (metrics != null)
+		{
+			metrics.add(Metrics.Counter.RESIZES, 1);
+			metrics.add(Metrics.Counter.ELEMENTS_COPIED, size);
+		}
+
+		// copying the two pieces of the circular array: from head to the end, then from the start
+		int firstPiece = Math.min(size, buffer.length - head);
+		System.arraycopy(buffer, head, newBuffer, 0, firstPiece);
+		System.arraycopy(buffer, 0, newBuffer, firstPiece, size - firstPiece);
+
+		buffer = newBuffer;
+		head = 0;
+	}
+
+
+	@Override
+	public String toString(){
+		// return string representation of CircularDynamicArray
+		return "CircularDynamicArray with size "+size+", capacity "+buffer.length;
+	}
+
+
+	/**
+	 * This main method is used to run a trial that tests the performance of the class CircularDynamicArray.
+	 * @param args Command line parameters for the, which are not necessary for this particular class.
+	 */
+	public static void main (String args[]){
+
+		CircularDynamicArray<String> cda = new CircularDynamicArray<String>();
+		cda.add("b");
+		cda.add(0, "a");
+		cda.add("c");
+		cda.add(0, "z");
+		if (cda.size() == 4 && cda.get(0) == "z" && cda.get(3) == "c" && cda.capacity() == 4){
+			System.out.println("Yay 1");
+		}
+
+		if (cda.remove(0) == "z" && cda.remove(2) == "c" && cda.set(1, "x") == "b"
+			&& cda.get(0) == "a" && cda.size() == 2){
+			System.out.println("Yay 2");
+		}
+
+		cda.addAll(1, new DynamicArray<String>(new String[] {"1", "2", "3"}));
+		cda.removeRange(0, 2);
+		if (cda.size() == 3 && cda.get(0) == "2" && cda.get(2) == "x"){
+			System.out.println("Yay 3");
+		}
+
+		// every public method of DynamicArray is overridden, but those of the growth policy and metrics
+		boolean overridden = true;
+		for (Method method : DynamicArray.class.getDeclaredMethods()){
+			String name = method.getName();
+			if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())
+				|| name.equals("getGrowthPolicy") || name.equals("setGrowthPolicy")
+				|| name.equals("getMetrics") || name.equals("setMetrics"))
+				continue;
+			try {
+				CircularDynamicArray.class.getDeclaredMethod(name, method.getParameterTypes());
+			}
+			catch (NoSuchMethodException e){
+				overridden = false;
+			}
+		}
+
+		// and those follow the policy and count in the metrics of the circular array
+		GrowthPolicy keep = GrowthPolicy.DEFAULT.withoutShrinking();
+		Metrics metrics = new Metrics();
+		CircularDynamicArray<Integer> pda = new CircularDynamicArray<Integer>();
+		pda.setGrowthPolicy(keep);
+		pda.setMetrics(metrics);
+		for (int i=0; i<10; i++)
+			pda.add(0, i);
+		pda.removeRange(0, 9);
+		if (overridden && pda.getGrowthPolicy() == keep && pda.getMetrics() == metrics && pda.capacity() == 16
+			&& pda.get(0) == 0 && metrics.snapshot().get(Metrics.Counter.RESIZES) == 3){
+			System.out.println("Yay 4");
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Represents the way the values of a type are turned into bytes and back, so they can be saved in a
+ * table file (see TableFile). Decoding reads straight from the buffer of the file, so a value is only
+ * decoded when it is read.
+ *
+ * @author Sergio Delgado
+ *
+ * @param <T> Type of the values encoded.
+ */
+public interface Codec<T>
+{
+	/**
+	 * Codec of Integer values (4 bytes, big-endian).
+	 */
+	public static final Codec<Integer> INTEGER = new Codec<Integer>()
+	{
+		public byte[] encode(Integer value)
+		{
+			return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+		}
+
+		public Integer decode(ByteBuffer buffer, int offset, int length)
+		{
+			return buffer.getInt(offset);
+		}
+	};
+
+	/**
+	 * Codec of String values (UTF-8).
+	 */
+	public static final Codec<String> STRING = new Codec<String>()
+	{
+		public byte[] encode(String value)
+		{
+			return value.getBytes(StandardCharsets.UTF_8);
+		}
+
+		public String decode(ByteBuffer buffer, int offset, int length)
+		{
+			byte[] bytes = new byte[length];
+			buffer.get(offset, bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	};
+
+	/**
+	 * Returns the bytes of a value (which is not null).
+	 * @param value Generic type value to be encoded.
+	 * @return array with the bytes of value.
+	 */
+	public byte[] encode(T value);
+
+	/**
+	 * Returns the value whose bytes are in buffer, from offset, without changing the position of buffer.
+	 * @param buffer Buffer that holds the bytes.
+	 * @param offset int value. Position of the first byte of the value in buffer.
+	 * @param length int value. Number of bytes of the value.
+	 * @return Generic type value decoded.
+	 */
+	public T decode(ByteBuffer buffer, int offset, int length);
+
+}
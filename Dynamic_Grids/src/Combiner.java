@@ -22,4 +22,61 @@ public interface Combiner<A,B,C>{
 	 */
 	public C combine(A operand1, B operand2);
 
+	/**
+	 * Combine operand1 with every operand of operands2, in order, and append the results to results.
+	 * Table uses it to build a whole new row at once; combiners that can share work among the
+	 * combinations of a row may override it.
+	 * @param operand1 first operand of every combination, must be of type A
+	 * @param operands2 second operands, must be of type B
+	 * @param results list where the results are appended, must be of type C
+	 */
+	public default void combineRow(A operand1, DynamicArray<B> operands2, DynamicArray<C> results)
+	{
+		for (int i=0; i<operands2.size(); i++)
+			results.add(combine(operand1, operands2.get(i)));
+	}
+
+	/**
+	 * Combine every operand of operands1, in order, with operand2, and append the results to results.
+	 * Table uses it to build a whole new column at once; combiners that can combine a batch of operands
+	 * faster than one by one may override it.
+	 * @param operands1 first operands, must be of type A
+	 * @param operand2 second operand of every combination, must be of type B
+	 * @param results list where the results are appended, must be of type C
+	 */
+	public default void combineColumn(DynamicArray<A> operands1, B operand2, DynamicArray<C> results)
+	{
+		for (int i=0; i<operands1.size(); i++)
+			results.add(combine(operands1.get(i), operand2));
+	}
+
+	/**
+	 * Combine every operand of operands1 in [from1, to1) with every operand of operands2 in [from2, to2),
+	 * and append the results to results row by row: first operand1 number from1 with every operand2,
+	 * then the next one. Table uses it to recalculate a block of cells at once. By default every row of
+	 * the block is combined with combineRow, so combiners that override combineRow share their work
+	 * among the rows of the block too.
+	 * @param operands1 first operands, must be of type A
+	 * @param from1 index of the first operand of operands1 combined
+	 * @param to1 index after the last operand of operands1 combined
+	 * @param operands2 second operands, must be of type B
+	 * @param from2 index of the first operand of operands2 combined
+	 * @param to2 index after the last operand of operands2 combined
+	 * @param results list where the results are appended, must be of type C
+	 */
+	public default void combineBlock(DynamicArray<A> operands1, int from1, int to1,
+		DynamicArray<B> operands2, int from2, int to2, DynamicArray<C> results)
+	{
+		DynamicArray<B> band = operands2;
+		if (from2 != 0 || to2 != operands2.size())
+		{
+			band = new DynamicArray<B>(Math.max(to2 - from2, 1));
+			for (int i=from2; i<to2; i++)
+				band.add(operands2.get(i));
+		}
+
+		for (int i=from1; i<to1; i++)
+			combineRow(operands1.get(i), band, results);
+	}
+
 }
\ No newline at end of file
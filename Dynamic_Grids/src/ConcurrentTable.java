@@ -0,0 +1,627 @@
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Table that can be read and changed from several threads at once. Every row of the table belongs to
+ * one of a fixed number of stripes (row index modulo the number of stripes), and every stripe has a
+ * read-write lock: any number of threads can read cells at once, and threads that change rows of
+ * different stripes (setRow) do not wait for each other. The operations that change the shape of the
+ * table or more than one row (addRow, addCol, removeRow, removeCol, setCol, setOp) take a structure lock
+ * exclusively, so they wait for every reader and writer of rows and run alone.
+ * The cells are calculated eagerly and kept in the NESTED layout, where changing a row does not touch
+ * the cells of other rows. The operator has to be safe to call from several threads at once.
+ * The widths of the columns are not kept: they are measured every time the table is rendered.
+ * An edit (see beginEdit) is shared by every thread, and while it is open setRow also takes the
+ * structure lock exclusively, since the rows changed are kept together until the edit is committed.
+ *
+ * @author Sergio Delgado
+ *
+ * @param <RowType> Type of elements of row heads.
+ * @param <ColType> Type of elements of columns heads.
+ * @param <CellType> Type of elements of grid (board).
+ * @param <OpType> Type of the operator that will combine row-column values to get a result.
+ */
+public class ConcurrentTable<RowType, ColType, CellType, OpType extends Combiner<RowType,ColType,CellType>>
+	extends Table<RowType, ColType, CellType, OpType>
+{
+	/**
+	 * default number of stripes of rows
+	 */
+	public static final int DEFAULT_STRIPES = 64;
+
+	private final ReentrantReadWriteLock structure;	// shared by row operations, exclusive for the others
+	private final ReentrantReadWriteLock[] stripes;	// lock of every stripe of rows
+	private final int mask;							// number of stripes - 1 (a power of two)
+
+
+	/**
+	 * Constructor with the operator object as parameter, with DEFAULT_STRIPES stripes of rows.
+	 * @param oper Generic type, object that executes the basic operation between two operands.
+	 */
+	public ConcurrentTable(OpType oper)
+	{
+		this(oper, DEFAULT_STRIPES);
+	}
+
+
+	/**
+	 * Constructor with the operator object and the number of stripes of rows as parameters. The number
+	 * of stripes is rounded up to a power of two; more stripes let more rows be changed at once.
+	 * @param oper Generic type, object that executes the basic operation between two operands.
+	 * @param numStripes int value. Number of stripes of rows.
+	 * @throws IllegalArgumentException if numStripes is not positive or too large.
+	 */
+	public ConcurrentTable(OpType oper, int numStripes)
+	{
+		super(oper, DynamicGrid.Layout.NESTED, false);
+		if (numStripes <= 0 || numStripes > (1 << 30))
+			throw new IllegalArgumentException("Number of stripes out of range.");
+
+		int size = 1;
+		while (size < numStripes)
+			size <<= 1;
+
+		structure = new ReentrantReadWriteLock();
+		stripes = new ReentrantReadWriteLock[size];
+		for (int i=0; i<size; i++)
+			stripes[i] = new ReentrantReadWriteLock();
+		mask = size - 1;
+
+		stopKeepingTextWidths();	// shared by every row
+	}
+
+
+	/**
+	 * Returns the number of stripes of rows. O(1).
+	 * @return int value. Number of locks the rows are spread over.
+	 */
+	public int getNumStripes()
+	{
+		return stripes.length;
+	}
+
+
+	/**
+	 * Returns the lock of the stripe of the row r (any int is a valid row: bad indexes are reported
+	 * by the table once the lock is held). O(1).
+	 * @param r int value. Row index.
+	 * @return Read-write lock of the stripe of r.
+	 */
+	private ReentrantReadWriteLock stripe(int r)
+	{
+		return stripes[r & mask];
+	}
+
+
+	/**
+	 * Returns the operator of the table. O(1).
+	 * @return Generic type operator that combines row heads and column heads.
+	 */
+	@Override
+	public OpType getOp()
+	{
+		structure.readLock().lock();
+		try
+		{
+			return super.getOp();
+		}
+		finally
+		{
+			structure.readLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Returns the number of rows in the grid. O(1).
+	 * @return int value. Number of elements in rowHead.
+	 */
+	@Override
+	public int getSizeRow()
+	{
+		structure.readLock().lock();
+		try
+		{
+			return super.getSizeRow();
+		}
+		finally
+		{
+			structure.readLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Returns the number of columns in the grid. O(1).
+	 * @return int value. Number of elements in colHead
+	 */
+	@Override
+	public int getSizeCol()
+	{
+		structure.readLock().lock();
+		try
+		{
+			return super.getSizeCol();
+		}
+		finally
+		{
+			structure.readLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Returns the item at index r from rowHead, waiting if row r is being changed. O(1).
+	 * Throws IndexOutOfBoundsException for invalid index.
+	 * @param r Position of the row in the grid whose value we are retrieving from rowHead.
+	 * @return Generic type Value of the element at position r from rowHead.
+	 */
+	@Override
+	public RowType getRowHead(int r)
+	{
+		structure.readLock().lock();
+		stripe(r).readLock().lock();
+		try
+		{
+			return super.getRowHead(r);
+		}
+		finally
+		{
+			stripe(r).readLock().unlock();
+			structure.readLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Return the item at index c from colHead. O(1).
+	 * Throws IndexOutOfBoundsException for invalid index.
+	 * @param c Position of the column in the grid whose value we are retrieving from colCHead.
+	 * @return Generic type Value of the element at position c from colHead.
+	 */
+	@Override
+	public ColType getColHead(int c)
+	{
+		structure.readLock().lock();
+		try
+		{
+			return super.getColHead(c);
+		}
+		finally
+		{
+			structure.readLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Returns the item at index (r,c) from board, waiting if row r is being changed. O(1).
+	 * Throws IndexOutOfBoundsException for invalid index.
+	 * @param r Position of the row in the grid whose value we are retrieving from board.
+	 * @param c Position of the column in the grid whose value we are retrieving from board.
+	 * @return Generic type Value of the element at position (r,c) from board.
+	 */
+	@Override
+	public CellType getCell(int r, int c)
+	{
+		structure.readLock().lock();
+		stripe(r).readLock().lock();
+		try
+		{
+			return super.getCell(r, c);
+		}
+		finally
+		{
+			stripe(r).readLock().unlock();
+			structure.readLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Returns the number of cells from which setOp, setRow and setCol recompute the board in parallel. O(1).
+	 * @return int value. Parallelism threshold, in cells.
+	 */
+	@Override
+	public int getParallelThreshold()
+	{
+		structure.readLock().lock();
+		try
+		{
+			return super.getParallelThreshold();
+		}
+		finally
+		{
+			structure.readLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Changes the number of cells from which setOp, setRow and setCol recompute the board in parallel,
+	 * once no other thread uses the table. O(1).
+	 * @param threshold int value. Number of cells from which recomputations run in parallel.
+	 * @throws IllegalArgumentException if threshold is not positive.
+	 */
+	@Override
+	public void setParallelThreshold(int threshold)
+	{
+		structure.writeLock().lock();
+		try
+		{
+			super.setParallelThreshold(threshold);
+		}
+		finally
+		{
+			structure.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Starts measuring the table, its heads and its board in metrics (null stops measuring), once no
+	 * other thread uses the table. Threads that use the table afterwards share the metrics. O(1).
+	 * @param metrics Metrics where the table is measured, or null.
+	 */
+	@Override
+	public void setMetrics(Metrics metrics)
+	{
+		structure.writeLock().lock();
+		try
+		{
+			super.setMetrics(metrics);
+		}
+		finally
+		{
+			structure.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Opens an edit (see Table.beginEdit), once no other thread uses the table. O(1).
+	 */
+	@Override
+	public void beginEdit()
+	{
+		structure.writeLock().lock();
+		try
+		{
+			super.beginEdit();
+		}
+		finally
+		{
+			structure.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Returns True if an edit is open. O(1).
+	 * @return True only if beginEdit was called more times than commitEdit.
+	 */
+	@Override
+	public boolean isEditing()
+	{
+		structure.readLock().lock();
+		try
+		{
+			return super.isEditing();
+		}
+		finally
+		{
+			structure.readLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Commits the edit opened last (see Table.commitEdit), once no other thread uses the table. O(K)
+	 * where K is the number of cells affected by the edit.
+	 * @throws IllegalStateException if no edit is open.
+	 */
+	@Override
+	public void commitEdit()
+	{
+		structure.writeLock().lock();
+		try
+		{
+			super.commitEdit();
+		}
+		finally
+		{
+			structure.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Recalculates every cell with the operator of the table, once no other thread uses the table. O(CR).
+	 */
+	@Override
+	public void refresh()
+	{
+		structure.writeLock().lock();
+		try
+		{
+			super.refresh();
+		}
+		finally
+		{
+			structure.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Changes the operation and recalculates every cell, once no other thread uses the table. O(CR).
+	 * @param oper operator type object that is in charge or combining two operands and return a result.
+	 */
+	@Override
+	public void setOp(OpType oper)
+	{
+		structure.writeLock().lock();
+		try
+		{
+			super.setOp(oper);
+		}
+		finally
+		{
+			structure.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Inserts v to rowHead at index i and a new row to the grid, once no other thread uses the table. O(C+R).
+	 * @param i Position on the rowHead where to add a new element.
+	 * @param v Generic type value of the element to be added at position i.
+	 * @return Returns True only if addition of elment was successful.
+	 */
+	@Override
+	public boolean addRow(int i, RowType v)
+	{
+		structure.writeLock().lock();
+		try
+		{
+			return super.addRow(i, v);
+		}
+		finally
+		{
+			structure.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Inserts v to colHead at index i and a new column to the grid, once no other thread uses the table. O(CR).
+	 * @param i Position on colHead where to add a new element.
+	 * @param v Generic type value of element to be added at position i.
+	 * @return Returns True only if the addition of new element was successful.
+	 */
+	@Override
+	public boolean addCol(int i, ColType v)
+	{
+		structure.writeLock().lock();
+		try
+		{
+			return super.addCol(i, v);
+		}
+		finally
+		{
+			structure.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Removes and return value from rowHead at index i and row i from the grid, once no other thread
+	 * uses the table. O(R). Throws IndexOutOfBoundsException for invalid index.
+	 * @param i Position on the grid where to remove a row from.
+	 * @return Generic type value of the element from rowHead at position i.
+	 */
+	@Override
+	public RowType removeRow(int i)
+	{
+		structure.writeLock().lock();
+		try
+		{
+			return super.removeRow(i);
+		}
+		finally
+		{
+			structure.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Removes and return value from colHead at index i and column i from the grid, once no other thread
+	 * uses the table. O(CR). Throws IndexOutOfBoundsException for invalid index.
+	 * @param i Position on the grid where to remove a column from.
+	 * @return Generic type value of the element removed from colHead.
+	 */
+	@Override
+	public ColType removeCol(int i)
+	{
+		structure.writeLock().lock();
+		try
+		{
+			return super.removeCol(i);
+		}
+		finally
+		{
+			structure.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Changes value of rowHead at index i to be v and recalculates row i, waiting only for the threads
+	 * that use rows of the same stripe (or for every thread, while an edit is open, when row i is only
+	 * marked to be recalculated). O(C). Throws IndexOutOfBoundsException for invalid index.
+	 * @param i Position on rowHead where to change the value and of the board where to change row values.
+	 * @param v Generic type value to be added to rowHead.
+	 * @return Generic type value of the old element from rowHead.
+	 */
+	@Override
+	public RowType setRow(int i, RowType v)
+	{
+		structure.readLock().lock();
+		try
+		{
+			if (!super.isEditing())
+			{
+				stripe(i).writeLock().lock();
+				try
+				{
+					return super.setRow(i, v);
+				}
+				finally
+				{
+					stripe(i).writeLock().unlock();
+				}
+			}
+		}
+		finally
+		{
+			structure.readLock().unlock();
+		}
+
+		// the open edit keeps the rows changed by every thread together
+		structure.writeLock().lock();
+		try
+		{
+			return super.setRow(i, v);
+		}
+		finally
+		{
+			structure.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Changes value of colHead at index i to be v and recalculates column i, once no other thread uses
+	 * the table (every row changes). O(R). Throws IndexOutOfBoundsException for invalid index.
+	 * @param i Position on colHead where to change the value and of the board where to change column values.
+	 * @param v Generic type value to be added to colHead.
+	 * @return Generic type value of the old element from colHead.
+	 */
+	@Override
+	public ColType setCol(int i, ColType v)
+	{
+		structure.writeLock().lock();
+		try
+		{
+			return super.setCol(i, v);
+		}
+		finally
+		{
+			structure.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Returns a table with the heads and the cells this table has now, which never changes and can be
+	 * read without locks (see Table.snapshot). It waits for every reader and writer, since the rows of
+	 * this table become shared with the snapshot. O(R+C).
+	 * @return Immutable table with the same heads, cells and operator.
+	 */
+	@Override
+	public Table<RowType, ColType, CellType, OpType> snapshot()
+	{
+		structure.writeLock().lock();
+		try
+		{
+			return super.snapshot();
+		}
+		finally
+		{
+			structure.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Returns the width used to print the column colIndex, measured while its rows do not change. O(R).
+	 * @param colIndex column index to specify which column of the grid to check width
+	 * @return an integer to be used for the printing of the column
+	 */
+	@Override
+	int getColTextWidth(int colIndex)
+	{
+		lockAllRows();
+		try
+		{
+			return super.getColTextWidth(colIndex);
+		}
+		finally
+		{
+			unlockAllRows();
+		}
+	}
+
+
+	/**
+	 * Returns the width used to print the row heads, measured while the rows do not change. O(R).
+	 * @return an integer to be used for the printing of the row heads
+	 */
+	@Override
+	int getRowHeadTextWidth()
+	{
+		lockAllRows();
+		try
+		{
+			return super.getRowHeadTextWidth();
+		}
+		finally
+		{
+			unlockAllRows();
+		}
+	}
+
+
+	/**
+	 * Construct a string representation of the table as it is at one moment: rows can still be read
+	 * by other threads meanwhile, but not changed. O(CR).
+	 * @return a string representation of the table
+	 */
+	@Override
+	public String toString()
+	{
+		lockAllRows();
+		try
+		{
+			return super.toString();
+		}
+		finally
+		{
+			unlockAllRows();
+		}
+	}
+
+
+	/**
+	 * Takes the structure lock and the lock of every stripe for reading, in order (so two threads
+	 * taking them all never wait for each other). O(number of stripes).
+	 */
+	private void lockAllRows()
+	{
+		structure.readLock().lock();
+		for (int i=0; i<stripes.length; i++)
+			stripes[i].readLock().lock();
+	}
+
+
+	/**
+	 * Releases the locks taken by lockAllRows. O(number of stripes).
+	 */
+	private void unlockAllRows()
+	{
+		for (int i=stripes.length-1; i>=0; i--)
+			stripes[i].readLock().unlock();
+		structure.readLock().unlock();
+	}
+
+}
@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 /**
  * This is a class that manages all basic dynamic array operations.
 
@@ -23,6 +25,14 @@ public class DynamicArray<T>{
 	 * number of existing elements in the array
 	 */
 	private int size; 
+	/**
+	 * policy that decides how the capacity grows and shrinks
+	 */
+	private GrowthPolicy policy = GrowthPolicy.DEFAULT;
+	/**
+	 * metrics where resizes and shifts are counted (null if the array is not measured)
+	 */
+	private Metrics metrics;
 	
 		
 	
@@ -60,6 +70,49 @@ public class DynamicArray<T>{
 			throw new IllegalArgumentException("Capacity is too small.");
 	}
 
+
+	/**
+	 * Constructor that receives the desired capacity and the policy that decides how the capacity
+	 * grows and shrinks.
+	 * 
+	 * @param initCapacity int desired capacity for the new dynamic array
+	 * @param policy GrowthPolicy of the new dynamic array
+	 * @throws  IllegalArgumentException if capacity desired for new array is too small.
+	 */
+	public DynamicArray(int initCapacity, GrowthPolicy policy){
+		this(initCapacity);
+		this.policy = policy;
+	}
+
+	/**
+	 * Constructor that copies the elements of an array, in order. The capacity is the number of
+	 * elements (but not less than 2). O(N).
+	 * @param values array with the elements of the new dynamic array.
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	public DynamicArray(T[] values)
+	{
+		capacity = Math.max(values.length, INITCAP);
+		size = values.length;
+		storage = (T[]) new Object[capacity];
+		System.arraycopy(values, 0, storage, 0, size);
+	}
+
+
+	/**
+	 * Constructor that copies the elements of another dynamic array, in order. The capacity is the
+	 * number of elements (but not less than 2). O(N).
+	 * @param values dynamic array with the elements of the new dynamic array.
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	public DynamicArray(DynamicArray<T> values)
+	{
+		capacity = Math.max(values.size(), INITCAP);
+		size = 0;
+		storage = (T[]) new Object[capacity];
+		addAll(0, values);
+	}
+
 	/**
 	 * Returns True if the index is within the range of the array size.
 	 * @param index int value of index to be checked on.
@@ -130,52 +183,115 @@ public class DynamicArray<T>{
 			throw new IndexOutOfBoundsException("Index out of Bounds.");
 	}
 
+	/**
+	 * Returns the policy that decides how the capacity grows and shrinks. O(1).
+	 * @return GrowthPolicy of the array.
+	 */
+	public GrowthPolicy getGrowthPolicy()
+	{
+		return policy;
+	}
+	
+	/**
+	 * Changes the policy that decides how the capacity grows and shrinks. The capacity is not changed
+	 * until the next addition or removal. O(1).
+	 * @param policy new GrowthPolicy of the array.
+	 */
+	public void setGrowthPolicy(GrowthPolicy policy)
+	{
+		this.policy = policy;
+	}
+
+	/**
+	 * Returns the metrics where the resizes and shifts of the array are counted. O(1).
+	 * @return Metrics of the array, or null if it is not measured.
+	 */
+	public Metrics getMetrics()
+	{
+		return metrics;
+	}
+	
+	/**
+	 * Starts counting the resizes of the array and the elements they copy, and the elements shifted
+	 * by additions and removals, in metrics (null stops counting). O(1).
+	 * @param metrics Metrics where the array is measured, or null.
+	 */
+	public void setMetrics(Metrics metrics)
+	{
+		this.metrics = metrics;
+	}
+
 	/**
 	 * Verifies that there is capacity for a new value on array. If not enough space, it grows 
-	 * the array to twice its size.
+	 * the array as the growth policy says (twice its size by default).
 	 */
-	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
 	private void checkCapacity()
 	{
 		if (size == capacity)   // if current capacity of array is maxed out, 
-		{	// create new array (twice as big).
-			T[] newStorage = (T[]) new Object[capacity * 2];
-			
-			// copy contents of the old data array (storage) onto (newStorage)
-			for (int i=0; i<capacity; i++)
-				newStorage[i] = storage[i];
-			
-			storage = newStorage;
-			capacity = capacity*2;
-		}
+			resize(policy.grow(capacity, capacity+1));	// move it to a new (bigger) array.
 		
 		return;
 	}
 
 	/**
-	 * Verifies that the size array is not below one third of its capacity . If so , it shrinks 
-	 * the array to half its size. 
+	 * Verifies that the size array is not below the shrinking point of the growth policy (one third of
+	 * its capacity by default). If so, it shrinks the array as the policy says (to half its size by default).
 	 */
-	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
 	private void checkEmptiness()
 	{	
-		// if size is less than 1/3 of capacity and  (capacity/2) won't fall below INITCAP
-		if ((size < (float)(capacity)/3) && ( (capacity/2) >= INITCAP) )
-		{	// create new array (half its size).
-			T[] newStorage = (T[]) new Object[capacity / 2];
-			
-			// copy contents of the old data array (storage) onto (newStorage)
-			for (int i=0; i<size; i++)
-				newStorage[i] = storage[i];
-			
-			storage = newStorage;
-			capacity = capacity/2;
-			
-		}
+		int newCapacity = policy.shrink(capacity, size);
+		if (newCapacity != capacity)
+			resize(newCapacity);	// move it to a new (smaller) array.
+		
 		return;
 	}
 	
 	
+	/**
+	 * Moves the elements of the array into a new underlying array of the capacity received. O(N).
+	 * @param newCapacity int value. New capacity of the array (not less than size).
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	private void resize(int newCapacity)
+	{
+		T[] newStorage = (T[]) new Object[newCapacity];
+		if (metrics != null)
+		{
+			metrics.add(Metrics.Counter.RESIZES, 1);
+			metrics.add(Metrics.Counter.ELEMENTS_COPIED, size);
+		}
+		
+		// copy contents of the old data array (storage) onto (newStorage)
+		System.arraycopy(storage, 0, newStorage, 0, size);
+		
+		storage = newStorage;
+		capacity = newCapacity;
+	}
+	
+	
+	/**
+	 * Makes sure the array can hold minCapacity elements without growing again. Grows at most once, as
+	 * the growth policy says (by default to twice the current capacity or to minCapacity, whichever is
+	 * bigger). O(N) if it grows, O(1) otherwise.
+	 * @param minCapacity int value. Number of elements the array has to be able to hold.
+	 */
+	public void ensureCapacity(int minCapacity)
+	{
+		if (minCapacity > capacity)
+			resize(policy.grow(capacity, minCapacity));
+	}
+	
+	
+	/**
+	 * Shrinks the capacity of the array to its size (but not less than 1). O(N).
+	 */
+	public void trimToSize()
+	{
+		if (capacity > Math.max(size, 1))
+			resize(Math.max(size, 1));
+	}
+	
+	
 	/**
 	 * Adds element to end of the array (append). Doubles the capacity of no space available. O(1).
 	 * @param value Generic type value of element to be added to array.
@@ -202,8 +318,9 @@ public class DynamicArray<T>{
 			checkCapacity();
 
 			// moving all elements (after index) one position forward
-			for (int i=size; i>index; i--)
-				storage[i] = storage[i-1];
+			System.arraycopy(storage, index, storage, index+1, size-index);
+			if (metrics != null)
+				metrics.add(Metrics.Counter.ELEMENTS_SHIFTED, size-index);
 			
 			// inserting the new value
 			storage[index] = value;
@@ -220,8 +337,8 @@ public class DynamicArray<T>{
 
 		
 	/**
-	 * Removes element of the array at index. Halves capacity of array if size drops below 1/3
-	 * of current capacity. Capacity should not go below INITCAP. O(N).
+	 * Removes element of the array at index. Shrinks the array as the growth policy says (by default
+	 * halves capacity of array if size drops below 1/3 of current capacity, but not below INITCAP). O(N).
 	 * @param index Generic type element that was removed from array at index.
 	 * @return Returns True if the removal only if an element was done successfully
 	 */
@@ -233,10 +350,12 @@ public class DynamicArray<T>{
 			T removedValue = storage[index];
 			
 			// moving all elements (after index) one position backwards
-			for (int i=index; i< (size-1); i++)
-				storage[i] = storage[i+1];
+			System.arraycopy(storage, index+1, storage, index, size-index-1);
+			if (metrics != null)
+				metrics.add(Metrics.Counter.ELEMENTS_SHIFTED, size-index-1);
 			
 			size--;
+			storage[size] = null;	// so the removed element can be garbage collected
 			
 			checkEmptiness();
 						
@@ -249,6 +368,94 @@ public class DynamicArray<T>{
 	}  
 	
 	
+	/**
+	 * Adds every element of values, in order, to the end of the array. O(M) amortized where M is
+	 * the number of elements added.
+	 * @param values dynamic array with the elements to be added.
+	 * @return Returns True.
+	 */
+	public boolean addAll(DynamicArray<T> values)
+	{
+		addAll(size, values);
+		return true;
+	}
+	
+	
+	/**
+	 * Inserts every element of values, in order, starting at position (index) of the array. Elements
+	 * after index are shifted only once, and the array grows at most once. O(N+M) where N is the size
+	 * of the array and M is the number of elements added.
+	 * @param index int value. Position where to add the first new element in the array.
+	 * @param values dynamic array with the elements to be added.
+	 */
+	public void addAll(int index, DynamicArray<T> values)
+	{
+		if (isGoodIndexForAdd(index))
+		{
+			int count = values.size();
+			T[] source = values.storage;
+			if (values == this)		// adding the array to itself: copy its elements first
+				source = Arrays.copyOf(storage, size);
+			
+			ensureCapacity(size + count);
+			
+			// moving all elements (after index) count positions forward
+			System.arraycopy(storage, index, storage, index+count, size-index);
+			if (metrics != null)
+				metrics.add(Metrics.Counter.ELEMENTS_SHIFTED, size-index);
+			
+			// inserting the new values
+			if (values.getClass() == DynamicArray.class || values == this)
+				System.arraycopy(source, 0, storage, index, count);
+			else	// a subclass may not keep its elements in storage
+				for (int i=0; i<count; i++)
+					storage[index+i] = values.get(i);
+			
+			size += count;
+			return;
+		}
+		
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+	
+	
+	/**
+	 * Removes the elements of the array from position fromIndex (included) to toIndex (excluded).
+	 * Elements after toIndex are shifted only once, and the array shrinks at most once (as many steps
+	 * of the growth policy as needed). O(N).
+	 * @param fromIndex int value. Position of the first element to remove.
+	 * @param toIndex int value. Position after the last element to remove.
+	 */
+	public void removeRange(int fromIndex, int toIndex)
+	{
+		if (fromIndex >= 0 && fromIndex <= toIndex && toIndex <= size)
+		{
+			// moving all elements (after toIndex) to fromIndex, and clearing the places left
+			System.arraycopy(storage, toIndex, storage, fromIndex, size-toIndex);
+			if (metrics != null)
+				metrics.add(Metrics.Counter.ELEMENTS_SHIFTED, size-toIndex);
+			int newSize = size - (toIndex-fromIndex);
+			Arrays.fill(storage, newSize, size, null);
+			size = newSize;
+			
+			int newCapacity = capacity;
+			int next = policy.shrink(newCapacity, size);
+			while (next != newCapacity)
+			{
+				newCapacity = next;
+				next = policy.shrink(newCapacity, size);
+			}
+			if (newCapacity != capacity)
+				resize(newCapacity);
+			return;
+		}
+		
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+	
+	
 	
 	@Override
 	public String toString(){
@@ -290,6 +497,30 @@ public class DynamicArray<T>{
 			&& ida.size() == 2  && ida.capacity() == 4 ){
 			System.out.println("Yay 4");
 		}		
+		// bulk operations
+		DynamicArray<String> bulk = new DynamicArray<String>(new String[] {"a", "e"});
+		bulk.addAll(1, new DynamicArray<String>(new String[] {"b", "c", "d"}));
+		bulk.addAll(bulk);
+		if (bulk.size() == 10 && bulk.get(3) == "d" && bulk.get(9) == "e" && bulk.capacity() == 10){
+			System.out.println("Yay 5");
+		}
+		bulk.removeRange(1, 9);
+		boolean shrunk = bulk.capacity() == 5;
+		bulk.ensureCapacity(6);
+		if (shrunk && bulk.size() == 2 && bulk.get(1) == "e" && bulk.capacity() == 10){
+			bulk.trimToSize();
+			if (bulk.capacity() == 2)
+				System.out.println("Yay 6");
+		}
+		// an array that grows by steps of 3 and never shrinks
+		DynamicArray<Integer> steady = new DynamicArray<Integer>(1, new GrowthPolicy(1.5, 3, 3, 0, 1));
+		for (int i=0; i<5; i++)
+			steady.add(i);
+		for (int i=0; i<5; i++)
+			steady.remove(0);
+		if (steady.size() == 0 && steady.capacity() == 7){
+			System.out.println("Yay 7");
+		}
 		// remember to tests more things...
 	}
 
@@ -8,16 +8,111 @@
 public class DynamicGrid<T>
 {
 	/**
-	 * Dynamic array that holds all of the elements of the grid
+	 * Storage layouts that a DynamicGrid can be built with.
 	 */
-	private DynamicArray<DynamicArray<T>> storage;	
+	public enum Layout
+	{
+		/**
+		 * Every row is kept in its own dynamic array (the original layout).
+		 */
+		NESTED,
+		/**
+		 * Every cell is kept in one contiguous array in row-major order, with spare
+		 * row and column capacity.
+		 */
+		FLAT,
+		/**
+		 * Like NESTED, but the list of rows and every row are circular dynamic arrays, so adding or
+		 * removing the first row or column costs the same as the last one.
+		 */
+		CIRCULAR,
+		/**
+		 * Every cell is kept in one contiguous array in column-major order, so adding or removing
+		 * a column moves one block of memory and walking down a column is cache friendly.
+		 */
+		COLUMN_MAJOR,
+		/**
+		 * Cells are kept in square tiles of 32x32, so walking a row or a column is equally
+		 * cache friendly.
+		 */
+		TILED,
+		/**
+		 * Starts row-major and switches between row-major and column-major depending on
+		 * whether rows or columns are being added and removed the most.
+		 */
+		ADAPTIVE,
+		/**
+		 * Cells stay in fixed slots and the order of rows and columns is kept in two permutations,
+		 * so adding or removing a row or column costs O(R+C) and no other cell moves.
+		 * Call compact() to put the cells back in order.
+		 */
+		INDIRECT,
+		/**
+		 * Only the cells that are not null are stored, in a hash map per row, while they are few;
+		 * the grid moves to the FLAT layout when they fill a quarter of it, and back when they drop
+		 * below an eighth. For a default value other than null, build the grid on a HybridGridStorage.
+		 */
+		SPARSE
+	}
+
+	/**
+	 * Storage engine that holds all of the elements of the grid
+	 */
+	private GridStorage<T> storage;
+	/**
+	 * Metrics where the operations of the grid are measured (null if the grid is not measured)
+	 */
+	private Metrics metrics;
 
 	/**
 	 * Constructor, which creates an empty table of 0 rows and 0 cols
 	 */
 	public DynamicGrid()
 	{
-		storage = new DynamicArray<DynamicArray<T>>();
+		this(Layout.NESTED);
+	}
+
+
+	/**
+	 * Constructor, which creates an empty table of 0 rows and 0 cols stored with the layout received.
+	 * @param layout Layout used to store the cells of the grid.
+	 */
+	public DynamicGrid(Layout layout)
+	{
+		this(newStorage(layout));
+	}
+
+
+	/**
+	 * Constructor, which creates a grid on top of the storage engine received.
+	 * @param storage Storage engine that will hold the cells of the grid.
+	 */
+	public DynamicGrid(GridStorage<T> storage)
+	{
+		this.storage = storage;
+	}
+
+
+	/**
+	 * Creates an empty storage engine for the layout received.
+	 * @param layout Layout used to store the cells of the grid.
+	 * @param <T> Type of the elements inside the grid cells.
+	 * @return New empty storage engine.
+	 */
+	private static <T> GridStorage<T> newStorage(Layout layout)
+	{
+		switch (layout)
+		{
+			case FLAT:		return new FlatGridStorage<T>();
+			case CIRCULAR:	return new NestedGridStorage<T>(true);
+			case COLUMN_MAJOR:	return new TransposedGridStorage<T>(new FlatGridStorage<T>());
+			case TILED:		return new TiledGridStorage<T>();
+			case ADAPTIVE:	return new AdaptiveGridStorage<T>();
+			case INDIRECT:	return new IndirectGridStorage<T>();
+			case SPARSE:	return new HybridGridStorage<T>(null);
+			default:
+			case NESTED:	return new NestedGridStorage<T>();
+		}
 	}
 
 	
@@ -27,7 +122,7 @@ public class DynamicGrid<T>
 	 */
 	public int getNumRow() 
 	{
-		return storage.size();
+		return storage.getNumRow();
 	}
 	
 	
@@ -37,30 +132,28 @@ public class DynamicGrid<T>
 	 */
 	public int getNumCol() 
 	{ 
-		int numCols = 0;
-		if (storage.size() > 0)    // if there is at least one row in grid
-			numCols = storage.get(0).size();  // return size of first row (number of columns)
-			
-		return numCols;
+		return storage.getNumCol();
 	}
 	
 	
 	/**
 	 * It returns the value of the element of the grid at indexRow and indexCol. O(1).
-	 * Throws an exception if index is out of bounds (handled by DynamicArray.get(i)).
+	 * Throws an exception if index is out of bounds (handled by the storage engine).
 	 * @param indexRow int value. Row index on the grid.
 	 * @param indexCol int value. Column index on the grid.
 	 * @return Generic type element at the cell pointed.
 	 */
 	public T get(int indexRow, int indexCol)
 	{
-		return storage.get(indexRow).get(indexCol);
+		if (metrics != null)
+			metrics.add(Metrics.Counter.CELL_READS, 1);
+		return storage.get(indexRow, indexCol);
 	}
 	
 	
 	/**
 	 * Changes value at a cell of the grid located at a specific indexRow and indexCol. O(1).
-	 * Throws an exception if the index out of bounds (handled by DynamicArray.set(i)).
+	 * Throws an exception if the index out of bounds (handled by the storage engine).
 	 * @param indexRow Row position in the grid.
 	 * @param indexCol Column position in the grid.
 	 * @param value Generic type value of the new element in the grid.
@@ -68,41 +161,32 @@ public class DynamicGrid<T>
 	 */
 	public T set(int indexRow, int indexCol, T value)
 	{
-		return storage.get(indexRow).set(indexCol,value);
+		if (metrics != null)
+			metrics.add(Metrics.Counter.CELL_WRITES, 1);
+		return storage.set(indexRow, indexCol, value);
 	}
 
 	
 	/**
-	 * Copy values from newRow to add a row at the row index specified. O(C+R), where R is number of columns
+	 * Copy values from newRow to add a row at the row index specified. O(C+R), where C is number of columns
 	 * and R is the number of rows. Adds the new row, only if it matches the size of each row of the grid.
+	 * The first row of an empty grid is appended whatever index is, with every layout.
 	 * @param index Position of the Row of the logic grid where we are adding a new value.
 	 * @param newRow Dynamic array that holds the element values of the new Row to set.
 	 * @return True only if the addition of the row happened.
 	 */
 	public boolean addRow(int index, DynamicArray<T> newRow)
 	{
-		boolean success = true;
-		
-		// make a deep copy of the newRow to insert
-		DynamicArray<T> row = new DynamicArray<T>();
-		for(int i=0; i<newRow.size(); i++)
-			row.add( newRow.get(i) );
-		
-		// if there is at least one row in the grid
-		if (storage.size() > 0)
-		{
-			// if size of newRow matches the size of first row
-			if (row.size() == storage.get(0).size())
-				storage.add(index, row);
+		if (storage.getNumRow() == 0)	// as the nested layout has always done
+			index = 0;
 
-			else
-				success = false;
-		}
-		else
-		{
-			storage.add(row);
-		}
-		return success;
+		if (metrics == null)
+			return storage.addRow(index, newRow);
+
+		long start = System.nanoTime();
+		boolean result = storage.addRow(index, newRow);
+		metrics.recordSince(Metrics.Timer.GRID_ADD_ROW, start);
+		return result;
 	}
 	
 	
@@ -116,55 +200,138 @@ public class DynamicGrid<T>
 	 */
 	public boolean addCol(int index, DynamicArray<T> newCol)
 	{
-		boolean success = true;
-		
-		// if size of newCol matches the size of grid column (meaning number of rows)
-		if (newCol.size() == storage.size())
-		{	
-			for (int i=0; i<storage.size(); i++)
-			{
-				storage.get(i).add(index, newCol.get(i) );
-			}
-					
-		}
-		else
-			success = false;
-
-		return success;
+		if (metrics == null)
+			return storage.addCol(index, newCol);
 
+		long start = System.nanoTime();
+		boolean result = storage.addCol(index, newCol);
+		metrics.recordSince(Metrics.Timer.GRID_ADD_COL, start);
+		return result;
 	}
 	
 	
 	/**
 	 * Removes and returns a row at index x. It shifts rows to remove the gap.
 	 * O(R) where R is the number of rows of the grid
-	 * Throws IndexOutOfBoundsException for invalid index (handled by DynamicArray.remove(i)).
+	 * Throws IndexOutOfBoundsException for invalid index (handled by the storage engine).
 	 * @param index Row position to be removed from the grid.
 	 * @return Dinamic Array of the generic type, containing elements of removed row.
 	 */
 	public DynamicArray<T> removeRow(int index)
 	{
-		return storage.remove(index);
+		if (metrics == null)
+			return storage.removeRow(index);
+
+		long start = System.nanoTime();
+		DynamicArray<T> result = storage.removeRow(index);
+		metrics.recordSince(Metrics.Timer.GRID_REMOVE_ROW, start);
+		return result;
 	}
 
 	
 	/**
 	 * Removes and returns a col at index x. It shifts columns to remove the gap.
 	 * O(RC) where R is the number of rows and C is the number of columns.
-	 * Throws IndexOutOfBoundsException for invalid index (handled by DynamicArray.remove(i)).
+	 * Throws IndexOutOfBoundsException for invalid index (handled by the storage engine).
 	 * @param index Position of the column to be removed from the grid.
 	 * @return Dinamic Array of Generic type, containing elements of the removed column.
 	 */
 	public DynamicArray<T> removeCol(int index)
 	{
-		// removing the column (index) element from each row and add it to removedColumn
-		DynamicArray<T> removedColumn = new DynamicArray<T>();
-		for (int i=0; i<storage.size(); i++)
-		{
-			removedColumn.add(storage.get(i).remove(index));
-		}
-		
-		return removedColumn;
+		if (metrics == null)
+			return storage.removeCol(index);
+
+		long start = System.nanoTime();
+		DynamicArray<T> result = storage.removeCol(index);
+		metrics.recordSince(Metrics.Timer.GRID_REMOVE_COL, start);
+		return result;
+	}
+
+
+	/**
+	 * Rearranges the grid at once so that it has rowOrigins.size() rows and colOrigins.size() columns,
+	 * where the cell (r,c) is the old cell (rowOrigins[r], colOrigins[c]), or null if either of them is
+	 * -1 (a new row or column). The rows and columns kept have to be in their old order; the ones that
+	 * are in no origin are removed. O(RC) with the NESTED, CIRCULAR and FLAT layouts, which rebuild the
+	 * grid in one pass (O(R) with NESTED and CIRCULAR if the columns do not change); the rest add and
+	 * remove the rows and columns one by one.
+	 * @param rowOrigins Dynamic array with the old row of every new row (-1 for new rows).
+	 * @param colOrigins Dynamic array with the old column of every new column (-1 for new columns).
+	 */
+	public void remap(IntDynamicArray rowOrigins, IntDynamicArray colOrigins)
+	{
+		storage.remap(rowOrigins, colOrigins);
+	}
+
+
+	/**
+	 * Returns True if set can be called from several threads at once on different cells, while nothing
+	 * else changes the grid (and prepareConcurrentSet was called). True for the NESTED, FLAT, CIRCULAR,
+	 * COLUMN_MAJOR, ADAPTIVE and INDIRECT layouts; the rest keep state shared by several cells (tiles,
+	 * maps or counters) and have to be set by one thread at a time. O(1).
+	 * @return True only if concurrent calls to set on different cells are safe.
+	 */
+	public boolean supportsConcurrentSet()
+	{
+		return storage.supportsConcurrentSet();
+	}
+
+
+	/**
+	 * Gets the rows [rowFrom, rowTo) ready to be set from several threads at once: with the NESTED and
+	 * CIRCULAR layouts the rows shared with a snapshot are copied now, instead of by the first thread
+	 * that sets one of their cells. O(C) per shared row, O(1) otherwise.
+	 * @param rowFrom first row that will be set.
+	 * @param rowTo row after the last row that will be set.
+	 */
+	public void prepareConcurrentSet(int rowFrom, int rowTo)
+	{
+		storage.prepareConcurrentSet(rowFrom, rowTo);
+	}
+
+
+	/**
+	 * Returns the metrics where the operations of the grid are measured. O(1).
+	 * @return Metrics of the grid, or null if it is not measured.
+	 */
+	public Metrics getMetrics()
+	{
+		return metrics;
+	}
+
+
+	/**
+	 * Starts measuring the grid in metrics (null stops measuring): the cells read and written are
+	 * counted, and the latencies of adding and removing rows and columns are recorded. What the
+	 * storage engine does inside is not measured. O(1).
+	 * @param metrics Metrics where the grid is measured, or null.
+	 */
+	public void setMetrics(Metrics metrics)
+	{
+		this.metrics = metrics;
+	}
+
+
+	/**
+	 * Reorganizes the memory of the grid to its current contents, releasing the slots and spare
+	 * capacity the storage engine keeps (as in the INDIRECT layout). The grid does not change.
+	 * O(RC) for the engines that keep slots, O(1) for the rest.
+	 */
+	public void compact()
+	{
+		storage.compact();
+	}
+
+
+	/**
+	 * Returns a grid with the cells this grid has now, which does not change when this grid changes
+	 * (and the other way around). O(R) with the NESTED and CIRCULAR layouts, which share their rows
+	 * with the copy until they change, and for a grid read from a table file; O(RC) with the rest.
+	 * @return New dynamic grid with the same cells.
+	 */
+	public DynamicGrid<T> snapshot()
+	{
+		return new DynamicGrid<T>(storage.snapshot());
 	}
 
 
@@ -242,6 +409,152 @@ public class DynamicGrid<T>
 			{
 			System.out.println("Yay 7");	
 		}	
-	}	
+
+		// same operations on the flat layout
+		DynamicGrid<Integer> fgrid = new DynamicGrid<>(Layout.FLAT);
+		for (int i=0; i<3; i++){
+			DynamicArray<Integer> frow = new DynamicArray<>();
+			frow.add(i); frow.add(i*10);
+			fgrid.addRow(0, frow);
+		}
+		icol = new DynamicArray<>();
+		icol.add(-1); icol.add(-2); icol.add(-3);
+		fgrid.addCol(1, icol);
+		irow = fgrid.removeCol(0);
+		if (fgrid.getNumRow() == 3 && fgrid.getNumCol() == 2 && irow.get(0) == 2 &&
+			fgrid.get(0,0) == -1 && fgrid.get(2,1) == 0 && fgrid.removeRow(1).get(1) == 10
+			&& fgrid.get(1,0) == -3){
+			System.out.println("Yay 8");
+		}
+
+		// the same grid on every other layout, growing by columns (the adaptive one turns column-major)
+		Layout[] layouts = {Layout.COLUMN_MAJOR, Layout.TILED, Layout.ADAPTIVE};
+		boolean same = true;
+		for (Layout layout : layouts){
+			DynamicGrid<Integer> lgrid = new DynamicGrid<>(layout);
+			DynamicArray<Integer> lrow = new DynamicArray<>();
+			lrow.add(0); lrow.add(1);
+			lgrid.addRow(0, lrow);
+			lgrid.addRow(1, lrow);
+			for (int j=2; j<100; j++){
+				DynamicArray<Integer> lcol = new DynamicArray<>();
+				lcol.add(j); lcol.add(j+1000);
+				lgrid.addCol(j, lcol);
+			}
+			lgrid.set(1, 0, 1000);
+			lgrid.set(1, 1, 1001);
+			lgrid.removeCol(50);
+			same = same && lgrid.getNumRow() == 2 && lgrid.getNumCol() == 99 && lgrid.get(0,50) == 51
+				&& lgrid.get(1,98) == 1099 && lgrid.removeRow(0).get(49) == 49 && lgrid.get(0,1) == 1001;
+		}
+		if (same){
+			System.out.println("Yay 9");
+		}
+
+		// the indirect layout keeps the slots of removed rows and columns until compact()
+		IndirectGridStorage<Integer> slots = new IndirectGridStorage<>();
+		DynamicGrid<Integer> pgrid = new DynamicGrid<>(slots);
+		for (int i=0; i<4; i++){
+			DynamicArray<Integer> jrow = new DynamicArray<>();
+			jrow.add(i); jrow.add(i*10); jrow.add(i*100);
+			pgrid.addRow(i, jrow);
+		}
+		pgrid.removeRow(0);
+		pgrid.removeCol(1);
+		DynamicArray<Integer> jcol = new DynamicArray<>();
+		jcol.add(7); jcol.add(8); jcol.add(9);
+		pgrid.addCol(0, jcol);
+		boolean reused = slots.getFreeSlots() == 1;
+		pgrid.compact();
+		if (reused && slots.getFreeSlots() == 0 && pgrid.getNumCol() == 3 && pgrid.get(0,0) == 7
+			&& pgrid.get(0,1) == 1 && pgrid.get(2,2) == 300 && pgrid.removeCol(0).get(1) == 8){
+			System.out.println("Yay 10");
+		}
+
+		// a sparse grid of zeros, that becomes dense as it fills up and sparse again as it empties
+		HybridGridStorage<Integer> hybrid = new HybridGridStorage<>(0);
+		DynamicGrid<Integer> zgrid = new DynamicGrid<>(hybrid);
+		for (int i=0; i<20; i++){
+			DynamicArray<Integer> zrow = new DynamicArray<>();
+			for (int j=0; j<20; j++)
+				zrow.add(i == j ? 1 : 0);
+			zgrid.addRow(i, zrow);
+		}
+		boolean sparse = !hybrid.isDense() && zgrid.get(3,3) == 1 && zgrid.get(3,4) == 0;
+		for (int i=0; i<20; i++)
+			for (int j=0; j<10; j++)
+				zgrid.set(i, j, 2);
+		boolean dense = hybrid.isDense() && zgrid.get(5,5) == 2 && zgrid.get(5,15) == 0;
+		for (int i=0; i<20; i++)
+			for (int j=0; j<10; j++)
+				zgrid.set(i, j, 0);
+		if (sparse && dense && !hybrid.isDense() && zgrid.get(15,15) == 1 && zgrid.removeCol(15).get(15) == 1
+			&& zgrid.get(15,15) == 0){
+			System.out.println("Yay 11");
+		}
+
+		// a snapshot of a nested grid keeps its cells while both grids change
+		DynamicGrid<Integer> ngrid = new DynamicGrid<>();
+		for (int i=0; i<3; i++){
+			DynamicArray<Integer> nrow = new DynamicArray<>();
+			for (int j=0; j<3; j++)
+				nrow.add(10*i + j);
+			ngrid.addRow(i, nrow);
+		}
+		DynamicGrid<Integer> snap = ngrid.snapshot();
+		ngrid.set(1, 1, -1);
+		ngrid.removeRow(0);
+		DynamicArray<Integer> ncol = new DynamicArray<>();
+		ncol.add(7); ncol.add(8);
+		ngrid.addCol(0, ncol);
+		snap.set(2, 2, -2);
+		if (snap.getNumRow() == 3 && snap.getNumCol() == 3 && snap.get(1,1) == 11 && snap.get(0,0) == 0
+			&& snap.get(2,2) == -2 && ngrid.get(0,2) == -1 && ngrid.get(1,3) == 22 && ngrid.get(1,0) == 8){
+			System.out.println("Yay 12");
+		}
+
+		// remap gives the same grid with every layout: row 0 and column 1 removed, a row and a column added
+		IntDynamicArray rowOrigins = new IntDynamicArray();
+		rowOrigins.add(1); rowOrigins.add(-1); rowOrigins.add(2);
+		IntDynamicArray colOrigins = new IntDynamicArray();
+		colOrigins.add(-1); colOrigins.add(0); colOrigins.add(2);
+		boolean remapped = true;
+		for (Layout layout : Layout.values()){
+			DynamicGrid<Integer> rgrid = new DynamicGrid<>(layout);
+			for (int i=0; i<3; i++){
+				DynamicArray<Integer> rrow = new DynamicArray<>();
+				for (int j=0; j<3; j++)
+					rrow.add(10*i + j);
+				rgrid.addRow(i, rrow);
+			}
+			rgrid.remap(rowOrigins, colOrigins);
+			remapped = remapped && rgrid.getNumRow() == 3 && rgrid.getNumCol() == 3 && rgrid.get(0,0) == null
+				&& rgrid.get(0,1) == 10 && rgrid.get(2,2) == 22 && rgrid.get(1,1) == null && rgrid.get(2,1) == 20;
+		}
+		if (remapped){
+			System.out.println("Yay 13");
+		}
+
+		// only the layouts whose cells do not share state are written by several threads at once
+		if (new DynamicGrid<Integer>(Layout.FLAT).supportsConcurrentSet()
+			&& new DynamicGrid<Integer>(Layout.COLUMN_MAJOR).supportsConcurrentSet()
+			&& !new DynamicGrid<Integer>(Layout.SPARSE).supportsConcurrentSet()
+			&& !new DynamicGrid<Integer>(Layout.TILED).supportsConcurrentSet()){
+			System.out.println("Yay 14");
+		}
+
+		// every layout appends the first row of an empty grid, whatever its index is
+		boolean appended = true;
+		for (Layout layout : Layout.values()){
+			DynamicGrid<Integer> egrid = new DynamicGrid<>(layout);
+			DynamicArray<Integer> erow = new DynamicArray<>();
+			erow.add(1); erow.add(2);
+			appended = appended && egrid.addRow(5, erow) && egrid.getNumRow() == 1 && egrid.getNumCol() == 2
+				&& egrid.get(0,1) == 2;
+		}
+		if (appended){
+			System.out.println("Yay 15");
+		}
+	}
 
 }
\ No newline at end of file
@@ -22,9 +22,12 @@ public class GUI extends JFrame {
 	private Table<Integer,Integer,Color,ColorComb> table;
 	
 	/**
-	 *  The layout manager for the main GUI window
+	 *  The view that paints the cells of the table, and the
+	 *  ones that paint its row heads and column heads.
 	 */
-	private GridLayout grid;
+	private TableView view;
+	private HeadView rowHeads;
+	private HeadView colHeads;
 	
 	/**
 	 *  A main method to kick everything off.
@@ -38,9 +41,12 @@ public class GUI extends JFrame {
 	 *  Makes a new table with an Red-Green combiner
 	 *  0 in the first row and first column,
 	 *  and 255 in the second row and second column.
+	 *  The table is lazy: only the colors painted are
+	 *  combined, and changing a head or the combiner
+	 *  recomputes nothing until the cells are painted again.
 	 */
 	public GUI() {
-		table = new Table<>(new ColorRG());
+		table = new Table<>(new ColorRG(), true);
 		table.addRow(0,0);
 		table.addRow(1,255);
 		table.addCol(0,0);
@@ -95,202 +101,92 @@ public class GUI extends JFrame {
 			case "Red-Blue":	table.setOp(new ColorRB()); break;
 			case "Green-Blue":	table.setOp(new ColorGB()); break;
 		}
+		view.repaint();
 	}
 	
 	/**
-	 *  Displays the GUI.
+	 *  Prompts the user for a value and inserts a row (or a column)
+	 *  with it at index i, then updates the views from index i on.
+	 *  @param row true for a row, false for a column
+	 *  @param i the index of the new row or column
+	 */
+	void addHead(boolean row, int i) {
+		if(row) {
+			table.addRow(i,getColorFromPrompt(255));
+			view.rowsMoved(i);
+		}
+		else {
+			table.addCol(i,getColorFromPrompt(255));
+			view.colsMoved(i);
+		}
+		this.pack();
+	}
+	
+	/**
+	 *  Prompts the user for a new value of the row (or column)
+	 *  head i, then repaints only that row (or column).
+	 *  @param row true for a row, false for a column
+	 *  @param i the index of the row or column
+	 */
+	void changeHead(boolean row, int i) {
+		if(row) {
+			table.setRow(i,getColorFromPrompt(table.getRowHead(i)));
+			view.rowChanged(i);
+		}
+		else {
+			table.setCol(i,getColorFromPrompt(table.getColHead(i)));
+			view.colChanged(i);
+		}
+	}
+	
+	/**
+	 *  Removes the row (or column) i, unless it is the last one
+	 *  left, then updates the views from index i on.
+	 *  @param row true for a row, false for a column
+	 *  @param i the index of the row or column
+	 */
+	void removeHead(boolean row, int i) {
+		if(row && table.getSizeRow() > 1) {
+			table.removeRow(i);
+			view.rowsMoved(i);
+		}
+		else if(!row && table.getSizeCol() > 1) {
+			table.removeCol(i);
+			view.colsMoved(i);
+		}
+		this.pack();
+	}
+	
+	/**
+	 *  Displays the GUI: the cells in a scroll pane, with the
+	 *  row heads and column heads as its headers. The views are
+	 *  made once; every change of the table only repaints the
+	 *  rows and columns it affects, and only the part of them
+	 *  that is visible.
 	 */
 	public void display() {
-		//clear out anything that was there and make a new layout
-		this.getContentPane().removeAll();
-		this.grid = new GridLayout(table.getSizeRow()+2,table.getSizeCol()+2);
-		this.setLayout(grid);
-		
-		//for each header and cell, draw the appropriate thing...
-		for(int y = 0; y < this.grid.getRows(); y++) {
-			for(int x = 0; x < this.grid.getColumns(); x++) {
-				final int currentX = x-1;
-				final int currentY = y-1;
-				
-				//top corner
-				if(y == 0 && x == 0) {
-					JButton rgbButton = new JButton("RGB");
-					rgbButton.addActionListener(new ActionListener() {
-						@Override
-						public void actionPerformed(ActionEvent e) {
-							changeTableType();
-							display();
-						}
-
-					});
-					styleButton(rgbButton);
-
-					this.add(rgbButton);
-				}
-				//edges
-				else if(y == this.grid.getRows()-1 || x == this.grid.getColumns()-1) {
-					//last add button at end of top row
-					if(y == 0 && x == this.grid.getColumns()-1) {
-						if(x == this.grid.getColumns()-1) {
-							JButton addButton = new JButton("+");
-							addButton.addActionListener(new ActionListener() {
-								@Override
-								public void actionPerformed(ActionEvent e) {
-									table.addCol(currentX,getColorFromPrompt(255));
-									display();
-								}
-
-							});
-							styleButton(addButton);
-
-							this.add(addButton);
-						}
-					}
-					//last add button at end first column
-					else if (x == 0 && y == this.grid.getRows()-1) {
-						//last "add" button at end
-						JButton addButton = new JButton("+");
-						addButton.addActionListener(new ActionListener() {
-							@Override
-							public void actionPerformed(ActionEvent e) {
-								table.addRow(currentY,getColorFromPrompt(255));
-								display();
-							}
-						});
-						styleButton(addButton);
-						
-						this.add(addButton);
-					}
-					//blanks
-					else {
-						JLabel l = new JLabel(" ");
-						l.setBackground(Color.WHITE);
-						this.add(l);
-					}
-				}
-				//top row of buttons
-				else if(y == 0) {
-					//insert, change, and delete
-					JButton insertButton = new JButton("+");
-					insertButton.addActionListener(new ActionListener() {
-						@Override
-						public void actionPerformed(ActionEvent e) {
-							table.addCol(currentX,getColorFromPrompt(255));
-							display();
-						}
-					});
-					styleButton(insertButton);
-
-					JButton changeButton = new JButton(""+table.getColHead(currentX));
-					changeButton.addActionListener(new ActionListener() {
-						@Override
-						public void actionPerformed(ActionEvent e) {
-							//table.setToColHead(currentX,getColorFromPrompt(table.getColHead(currentX)));
-							table.setCol(currentX,getColorFromPrompt(table.getColHead(currentX)));
-							display();
-						}
-					});
-					styleButton(changeButton);
-
-					JButton deleteButton = new JButton("x");
-					deleteButton.addActionListener(new ActionListener() {
-						@Override
-						public void actionPerformed(ActionEvent e) {
-							table.removeCol(currentX);
-							display();
-						}
-					});
-					styleButton(deleteButton);
-
-					GridBagLayout g = new GridBagLayout();
-					GridBagConstraints c = new GridBagConstraints();
-					c.fill = GridBagConstraints.HORIZONTAL;
-					JPanel p = new JPanel(g);
-					
-					c.gridx = 0;
-					c.weightx = 0.5;
-					p.add(insertButton, c);
-					
-					c.gridx = 1;
-					p.add(deleteButton, c);
-					if(table.getSizeCol() == 1)
-						deleteButton.setEnabled(false);
-					
-					c.fill = GridBagConstraints.HORIZONTAL;
-					c.gridwidth = 3;
-					c.weightx = 1;
-					c.gridx = 0;
-					c.gridy = 1;
-					p.add(changeButton, c);
-					
-					this.add(p);
-				}
-				//first column of buttons
-				else if(x == 0) {
-					//insert, change, and delete
-					JButton insertButton = new JButton("+");
-					insertButton.addActionListener(new ActionListener() {
-						@Override
-						public void actionPerformed(ActionEvent e) {
-							table.addRow(currentY,getColorFromPrompt(255));
-							display();
-						}
-					});
-					styleButton(insertButton);
-
-					JButton changeButton = new JButton(""+table.getRowHead(currentY));
-					changeButton.addActionListener(new ActionListener() {
-						@Override
-						public void actionPerformed(ActionEvent e) {
-							//table.setToRowHead(currentY,getColorFromPrompt(table.getRowHead(currentY)));
-							table.setRow(currentY,getColorFromPrompt(table.getRowHead(currentY)));
-							display();
-						}
-					});
-					styleButton(changeButton);
-
-					JButton deleteButton = new JButton("x");
-					deleteButton.addActionListener(new ActionListener() {
-						@Override
-						public void actionPerformed(ActionEvent e) {
-							table.removeRow(currentY);
-							display();
-						}
-					});
-					styleButton(deleteButton);
-
-					GridBagLayout g = new GridBagLayout();
-					GridBagConstraints c = new GridBagConstraints();
-					c.fill = GridBagConstraints.HORIZONTAL;
-					JPanel p = new JPanel(g);
-					
-					c.gridx = 0;
-					c.weightx = 0.5;
-					p.add(insertButton, c);
-					
-					c.gridx = 1;
-					p.add(deleteButton, c);
-					if(table.getSizeRow() == 1)
-						deleteButton.setEnabled(false);
-					
-					c.fill = GridBagConstraints.HORIZONTAL;
-					c.gridwidth = 3;
-					c.weightx = 1;
-					c.gridx = 0;
-					c.gridy = 1;
-					p.add(changeButton, c);
-					
-					this.add(p);
-				}
-				//normal cell
-				else {
-					this.add(new ColorSquare(table.getCell(currentY, currentX), SIZE));
+		if(view == null) {
+			rowHeads = new HeadView(this, table, true, SIZE);
+			colHeads = new HeadView(this, table, false, SIZE);
+			view = new TableView(table, rowHeads, colHeads, SIZE);
+			
+			JButton rgbButton = new JButton("RGB");
+			rgbButton.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					changeTableType();
 				}
-			}
+			});
+			styleButton(rgbButton);
+			
+			JScrollPane scroll = new JScrollPane(view);
+			scroll.setRowHeaderView(rowHeads);
+			scroll.setColumnHeaderView(colHeads);
+			scroll.setCorner(JScrollPane.UPPER_LEFT_CORNER, rgbButton);
+			this.setContentPane(scroll);
 		}
 		
 		//display the window properly
-		this.setSize((table.getSizeRow()+1)*SIZE, (table.getSizeRow()+1)*SIZE);
 		this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		this.setResizable(false);
 		this.pack();
@@ -390,6 +286,340 @@ class ColorSquare extends JPanel {
 	}
 }
 
+/**
+ *  Paints the cells of a table as color squares, all in one
+ *  component: only the cells inside the area being painted
+ *  are read from the table, so a table of any size costs
+ *  only what is visible. Changes of the table repaint just
+ *  the rows or columns they affect.
+ *  @author Sergio Delgado
+ */
+class TableView extends JComponent implements Scrollable {
+	/**
+	 *  The number of rows and columns shown at most
+	 *  before the view has to be scrolled.
+	 */
+	private static final int VISIBLE = 12;
+	
+	/**
+	 *  The table whose cells are painted.
+	 */
+	private Table<Integer,Integer,Color,ColorComb> table;
+	
+	/**
+	 *  The views of the row heads and column heads.
+	 */
+	private HeadView rowHeads;
+	private HeadView colHeads;
+	
+	/**
+	 *  The size of a cell (in pixels).
+	 */
+	private int size;
+	
+	/**
+	 *  Creates a view of the cells of a table.
+	 *  @param table the table to paint
+	 *  @param rowHeads the view of its row heads
+	 *  @param colHeads the view of its column heads
+	 *  @param size the size of a cell (in pixels)
+	 */
+	public TableView(Table<Integer,Integer,Color,ColorComb> table, HeadView rowHeads, HeadView colHeads, int size) {
+		this.table = table;
+		this.rowHeads = rowHeads;
+		this.colHeads = colHeads;
+		this.size = size;
+		this.setOpaque(true);
+		this.setBackground(Color.WHITE);
+	}
+	
+	/**
+	 *  Repaints row r, after its head changed.
+	 *  @param r the index of the row
+	 */
+	public void rowChanged(int r) {
+		this.repaint(0, r*size, getWidth(), size);
+		rowHeads.repaint(0, r*size, size, size);
+	}
+	
+	/**
+	 *  Repaints column c, after its head changed.
+	 *  @param c the index of the column
+	 */
+	public void colChanged(int c) {
+		this.repaint(c*size, 0, size, getHeight());
+		colHeads.repaint(c*size, 0, size, size);
+	}
+	
+	/**
+	 *  Resizes the views and repaints the rows from r on,
+	 *  after a row was added or removed at index r.
+	 *  @param r the index of the row added or removed
+	 */
+	public void rowsMoved(int r) {
+		this.revalidate();
+		rowHeads.revalidate();
+		Dimension d = getPreferredSize();
+		this.repaint(0, r*size, Math.max(d.width, getWidth()), Math.max(d.height, getHeight()) - r*size);
+		rowHeads.repaint();	//the delete buttons may have been enabled or disabled
+	}
+	
+	/**
+	 *  Resizes the views and repaints the columns from c on,
+	 *  after a column was added or removed at index c.
+	 *  @param c the index of the column added or removed
+	 */
+	public void colsMoved(int c) {
+		this.revalidate();
+		colHeads.revalidate();
+		Dimension d = getPreferredSize();
+		this.repaint(c*size, 0, Math.max(d.width, getWidth()) - c*size, Math.max(d.height, getHeight()));
+		colHeads.repaint();	//the delete buttons may have been enabled or disabled
+	}
+	
+	/**
+	 *  The size of every cell, plus an empty row and column
+	 *  next to the ones that add rows and columns at the end.
+	 *  @return the size of the whole view
+	 */
+	@Override
+	public Dimension getPreferredSize() {
+		return new Dimension((table.getSizeCol()+1)*size, (table.getSizeRow()+1)*size);
+	}
+	
+	/**
+	 *  Paints the cells inside the area being painted.
+	 *  @param g the graphics reference for drawing
+	 */
+	@Override
+	public void paintComponent(Graphics g) {
+		Rectangle clip = g.getClipBounds();
+		if(clip == null) {
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		g.setColor(getBackground());
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+		
+		//only the rows and columns the area crosses
+		int firstRow = clip.y / size;
+		int lastRow = Math.min(table.getSizeRow(), (clip.y + clip.height + size - 1) / size);
+		int firstCol = clip.x / size;
+		int lastCol = Math.min(table.getSizeCol(), (clip.x + clip.width + size - 1) / size);
+		for(int r = firstRow; r < lastRow; r++) {
+			for(int c = firstCol; c < lastCol; c++) {
+				g.setColor(table.getCell(r, c));
+				g.fillRect(c*size, r*size, size, size);
+			}
+		}
+	}
+	
+	/**
+	 *  Shows up to VISIBLE rows and columns.
+	 *  @return the size of the viewport
+	 */
+	@Override
+	public Dimension getPreferredScrollableViewportSize() {
+		Dimension d = getPreferredSize();
+		return new Dimension(Math.min(d.width, VISIBLE*size), Math.min(d.height, VISIBLE*size));
+	}
+	
+	/**
+	 *  Scrolls one cell at a time.
+	 *  @param visibleRect the area visible
+	 *  @param orientation SwingConstants.VERTICAL or HORIZONTAL
+	 *  @param direction less than zero to scroll up or left
+	 *  @return the size of a cell
+	 */
+	@Override
+	public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+		return size;
+	}
+	
+	/**
+	 *  Scrolls a page at a time, keeping one cell of the last page.
+	 *  @param visibleRect the area visible
+	 *  @param orientation SwingConstants.VERTICAL or HORIZONTAL
+	 *  @param direction less than zero to scroll up or left
+	 *  @return the size of the page
+	 */
+	@Override
+	public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+		int page = (orientation == SwingConstants.VERTICAL) ? visibleRect.height : visibleRect.width;
+		return Math.max(page - size, size);
+	}
+	
+	/**
+	 *  The view is as wide as its columns, not as the viewport.
+	 *  @return false
+	 */
+	@Override
+	public boolean getScrollableTracksViewportWidth() {
+		return false;
+	}
+	
+	/**
+	 *  The view is as tall as its rows, not as the viewport.
+	 *  @return false
+	 */
+	@Override
+	public boolean getScrollableTracksViewportHeight() {
+		return false;
+	}
+}
+
+/**
+ *  Paints the row heads (or the column heads) of a table, all
+ *  in one component: every head is a square with an insert
+ *  button and a delete button on top and its value below (a
+ *  button that changes it), and one more square after the last
+ *  head adds a row (or a column) at the end. Only the heads
+ *  inside the area being painted are read from the table.
+ *  @author Sergio Delgado
+ */
+class HeadView extends JComponent {
+	/**
+	 *  The GUI that changes the table when a head is clicked.
+	 */
+	private GUI gui;
+	
+	/**
+	 *  The table whose heads are painted.
+	 */
+	private Table<Integer,Integer,Color,ColorComb> table;
+	
+	/**
+	 *  True for the row heads, false for the column heads.
+	 */
+	private boolean rows;
+	
+	/**
+	 *  The size of a head (in pixels).
+	 */
+	private int size;
+	
+	/**
+	 *  Creates a view of the row heads or column heads of a table.
+	 *  @param gui the GUI that changes the table when a head is clicked
+	 *  @param table the table to paint
+	 *  @param rows true for the row heads, false for the column heads
+	 *  @param size the size of a head (in pixels)
+	 */
+	public HeadView(GUI gui, Table<Integer,Integer,Color,ColorComb> table, boolean rows, int size) {
+		this.gui = gui;
+		this.table = table;
+		this.rows = rows;
+		this.size = size;
+		this.setOpaque(true);
+		this.setBackground(Color.WHITE);
+		this.setFont(new Font("Arial", Font.PLAIN, 10));
+		this.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				clicked(e.getX(), e.getY());
+			}
+		});
+	}
+	
+	/**
+	 *  The number of heads.
+	 *  @return the number of rows or columns of the table
+	 */
+	private int count() {
+		return rows ? table.getSizeRow() : table.getSizeCol();
+	}
+	
+	/**
+	 *  Adds, changes or removes the head clicked, depending
+	 *  on the part of its square that was clicked.
+	 *  @param x the x coordinate of the click
+	 *  @param y the y coordinate of the click
+	 */
+	private void clicked(int x, int y) {
+		int i = (rows ? y : x) / size;
+		int localX = rows ? x : x - i*size;
+		int localY = rows ? y - i*size : y;
+		
+		if(i == count()) {
+			gui.addHead(rows, i);
+		}
+		else if(i < count()) {
+			if(localY >= size/2) {
+				gui.changeHead(rows, i);
+			}
+			else if(localX < size/2) {
+				gui.addHead(rows, i);
+			}
+			else {
+				gui.removeHead(rows, i);
+			}
+		}
+	}
+	
+	/**
+	 *  One square per head, plus the one that adds a head at the end.
+	 *  @return the size of the whole view
+	 */
+	@Override
+	public Dimension getPreferredSize() {
+		return rows ? new Dimension(size, (count()+1)*size) : new Dimension((count()+1)*size, size);
+	}
+	
+	/**
+	 *  Paints the heads inside the area being painted.
+	 *  @param g the graphics reference for drawing
+	 */
+	@Override
+	public void paintComponent(Graphics g) {
+		Rectangle clip = g.getClipBounds();
+		if(clip == null) {
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		g.setColor(getBackground());
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+		g.setFont(getFont());
+		
+		int from = rows ? clip.y : clip.x;
+		int length = rows ? clip.height : clip.width;
+		int first = from / size;
+		int last = Math.min(count() + 1, (from + length + size - 1) / size);
+		for(int i = first; i < last; i++) {
+			int x = rows ? 0 : i*size;
+			int y = rows ? i*size : 0;
+			if(i == count()) {
+				paintButton(g, "+", x, y, size/2, size/2, true);
+			}
+			else {
+				paintButton(g, "+", x, y, size/2, size/2, true);
+				paintButton(g, "x", x + size/2, y, size - size/2, size/2, count() > 1);
+				Integer head = rows ? table.getRowHead(i) : table.getColHead(i);
+				paintButton(g, ""+head, x, y + size/2, size, size - size/2, true);
+			}
+		}
+	}
+	
+	/**
+	 *  Paints a button with its label centered.
+	 *  @param g the graphics reference for drawing
+	 *  @param label the text on the button
+	 *  @param x the x coordinate of the button
+	 *  @param y the y coordinate of the button
+	 *  @param width the width of the button
+	 *  @param height the height of the button
+	 *  @param enabled false to paint the label greyed out
+	 */
+	private void paintButton(Graphics g, String label, int x, int y, int width, int height, boolean enabled) {
+		g.setColor(new Color(240,240,240));
+		g.fillRect(x, y, width, height);
+		g.setColor(Color.GRAY);
+		g.drawRect(x, y, width-1, height-1);
+		
+		FontMetrics metrics = g.getFontMetrics();
+		g.setColor(enabled ? Color.BLACK : Color.LIGHT_GRAY);
+		g.drawString(label, x + (width - metrics.stringWidth(label))/2,
+				y + (height - metrics.getHeight())/2 + metrics.getAscent());
+	}
+}
+
 /**
  *  This class is not used, but kinda cool so
  *  I'm leaving it here. This makes a JButton
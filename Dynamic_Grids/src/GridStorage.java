@@ -0,0 +1,198 @@
+/**
+ * Represents the storage engine that holds the cells of a DynamicGrid. Every engine keeps
+ * the same logical grid: a grid with no rows has no columns either, any row can be added to
+ * an empty grid, and otherwise new rows and columns must match the size of the grid.
+ *
+ * @author Sergio Delgado
+ *
+ * @param <T> Type of the elements inside the grid cells.
+ */
+public interface GridStorage<T>
+{
+	/**
+	 * Returns the number of rows in the grid.
+	 * @return int value. Number of rows in the grid.
+	 */
+	public int getNumRow();
+
+	/**
+	 * Returns the number of columns in the grid (0 if the grid has no rows).
+	 * @return int value. Number of columns in the grid.
+	 */
+	public int getNumCol();
+
+	/**
+	 * Returns the value of the cell at indexRow and indexCol.
+	 * Throws IndexOutOfBoundsException for invalid indexes.
+	 * @param indexRow int value. Row index on the grid.
+	 * @param indexCol int value. Column index on the grid.
+	 * @return Generic type element at the cell pointed.
+	 */
+	public T get(int indexRow, int indexCol);
+
+	/**
+	 * Changes the value of the cell at indexRow and indexCol.
+	 * Throws IndexOutOfBoundsException for invalid indexes.
+	 * @param indexRow Row position in the grid.
+	 * @param indexCol Column position in the grid.
+	 * @param value Generic type value of the new element in the grid.
+	 * @return Generic type value of the old element that got replaced.
+	 */
+	public T set(int indexRow, int indexCol, T value);
+
+	/**
+	 * Copies the values of newRow into a new row at the row index specified.
+	 * Throws IndexOutOfBoundsException for invalid index.
+	 * @param index Position of the new row in the grid.
+	 * @param newRow Dynamic array that holds the element values of the new row.
+	 * @return True only if the addition of the row happened.
+	 */
+	public boolean addRow(int index, DynamicArray<T> newRow);
+
+	/**
+	 * Copies the values of newCol into a new column at the column index specified.
+	 * Throws IndexOutOfBoundsException for invalid index.
+	 * @param index Position of the new column in the grid.
+	 * @param newCol Dynamic array that holds the element values of the new column.
+	 * @return True only if the addition of the column happened.
+	 */
+	public boolean addCol(int index, DynamicArray<T> newCol);
+
+	/**
+	 * Removes and returns the row at index. Throws IndexOutOfBoundsException for invalid index.
+	 * @param index Row position to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed row.
+	 */
+	public DynamicArray<T> removeRow(int index);
+
+	/**
+	 * Removes and returns the column at index. Throws IndexOutOfBoundsException for invalid index.
+	 * @param index Column position to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed column.
+	 */
+	public DynamicArray<T> removeCol(int index);
+
+	/**
+	 * Reorganizes the memory of the grid to its current contents (for engines that keep removed
+	 * slots or spare capacity). It does not change the grid. Does nothing by default.
+	 */
+	public default void compact()
+	{
+	}
+
+	/**
+	 * Returns True if set can be called from several threads at once on different cells, while
+	 * nothing else changes the grid (e.g. when a table recalculates its cells in parallel). False by
+	 * default: engines whose set changes shared state (counters, maps, tiles or rows created on the
+	 * first write) are only written by one thread at a time.
+	 * @return True only if concurrent calls to set on different cells are safe.
+	 */
+	public default boolean supportsConcurrentSet()
+	{
+		return false;
+	}
+
+	/**
+	 * Gets the rows [rowFrom, rowTo) ready to be set from several threads at once: engines that share
+	 * rows with snapshots copy the shared ones now, so that concurrent calls to set only write cells
+	 * and never replace rows. Does nothing by default.
+	 * @param rowFrom first row that will be set.
+	 * @param rowTo row after the last row that will be set.
+	 */
+	public default void prepareConcurrentSet(int rowFrom, int rowTo)
+	{
+	}
+
+	/**
+	 * Rearranges the grid so that it has rowOrigins.size() rows and colOrigins.size() columns, where
+	 * the cell (r,c) is the old cell (rowOrigins[r], colOrigins[c]), or null if either of them is -1 (a
+	 * new row or column). The rows and columns kept have to be in their old order; the ones that are in
+	 * no origin are removed. By default the rows and columns are removed and added one by one with the
+	 * other operations of the engine; engines that can rebuild the grid in one pass override it.
+	 * @param rowOrigins Dynamic array with the old row of every new row (-1 for new rows).
+	 * @param colOrigins Dynamic array with the old column of every new column (-1 for new columns).
+	 */
+	public default void remap(IntDynamicArray rowOrigins, IntDynamicArray colOrigins)
+	{
+		int oldNumRow = getNumRow();
+		int oldNumCol = getNumCol();
+		boolean[] keptRows = new boolean[oldNumRow];
+		boolean[] keptCols = new boolean[oldNumCol];
+		for (int row=0; row<rowOrigins.size(); row++)
+			if (rowOrigins.get(row) >= 0)
+				keptRows[rowOrigins.get(row)] = true;
+		for (int col=0; col<colOrigins.size(); col++)
+			if (colOrigins.get(col) >= 0 && colOrigins.get(col) < oldNumCol)
+				keptCols[colOrigins.get(col)] = true;
+
+		// removing the rows that are not kept, from the last one
+		for (int row=oldNumRow-1; row>=0; row--)
+			if (!keptRows[row])
+				removeRow(row);
+
+		if (getNumRow() == 0)	// no cell is kept: every row is new
+		{
+			for (int row=0; row<rowOrigins.size(); row++)
+				addRow(row, nulls(colOrigins.size()));
+			return;
+		}
+
+		// removing the columns that are not kept, then adding the new rows and columns
+		for (int col=oldNumCol-1; col>=0; col--)
+			if (!keptCols[col])
+				removeCol(col);
+		for (int row=0; row<rowOrigins.size(); row++)
+			if (rowOrigins.get(row) < 0)
+				addRow(row, nulls(getNumCol()));
+		for (int col=0; col<colOrigins.size(); col++)
+			if (colOrigins.get(col) < 0)
+				addCol(col, nulls(getNumRow()));
+	}
+
+	/**
+	 * Returns a dynamic array of (size) nulls, for the new rows and columns of remap. O(N).
+	 * @param size int value. Number of nulls.
+	 * @param <T> Type of the elements inside the grid cells.
+	 * @return Dynamic array with (size) nulls.
+	 */
+	private static <T> DynamicArray<T> nulls(int size)
+	{
+		DynamicArray<T> values = new DynamicArray<T>(Math.max(size, 1));
+		for (int i=0; i<size; i++)
+			values.add(null);
+		return values;
+	}
+
+	/**
+	 * Returns a grid with the cells this grid has now, which does not change when this grid changes
+	 * (and the other way around). By default every cell is copied into a FlatGridStorage (O(RC));
+	 * engines that can share their cells with the copy do it in less time.
+	 * @return New storage engine with the same cells.
+	 */
+	public default GridStorage<T> snapshot()
+	{
+		GridStorage<T> flat = new FlatGridStorage<T>(Math.max(getNumRow(), 1), Math.max(getNumCol(), 1));
+		copy(this, flat);
+		return flat;
+	}
+
+	/**
+	 * Copies every row of the grid in (from) to the end of the grid in (to), which must be empty or
+	 * have the same number of columns. O(RC).
+	 * @param from Storage engine whose cells are copied.
+	 * @param to Storage engine that receives the cells.
+	 * @param <T> Type of the elements inside the grid cells.
+	 */
+	public static <T> void copy(GridStorage<T> from, GridStorage<T> to)
+	{
+		int numCol = from.getNumCol();
+		for (int row=0; row<from.getNumRow(); row++)
+		{
+			DynamicArray<T> values = new DynamicArray<T>(Math.max(numCol, 1));
+			for (int col=0; col<numCol; col++)
+				values.add(from.get(row, col));
+			to.addRow(to.getNumRow(), values);
+		}
+	}
+
+}
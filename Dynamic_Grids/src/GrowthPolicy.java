@@ -0,0 +1,114 @@
+/**
+ * This class decides how much a dynamic array grows when it runs out of capacity and how much it
+ * shrinks when most of its capacity is unused. A policy never changes once created, so the same
+ * policy can be shared by many arrays.
+ * <p>
+ * A growth multiplies the capacity by the growth factor, but adds at least minStep and at most
+ * maxSlack places (and always enough for the elements being added). A shrink divides the capacity by
+ * the growth factor, and only happens when the size drops below shrinkBelow times the capacity: the
+ * gap between "full" and shrinkBelow is the hysteresis that keeps an array whose size oscillates
+ * around a boundary from growing and shrinking over and over. A shrinkBelow of 0 disables shrinking.
+ *
+ * @version 1.0
+ * @author Sergio Delgado.
+ */
+public class GrowthPolicy
+{
+	/**
+	 * Policy of the original DynamicArray: doubles when full, halves when size drops below 1/3 of the
+	 * capacity, and never shrinks below a capacity of 2.
+	 */
+	public static final GrowthPolicy DEFAULT = new GrowthPolicy(2.0, 1, Integer.MAX_VALUE, 1.0/3, 2);
+	/**
+	 * largest capacity that can be allocated for an array
+	 */
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	private final double factor;		// capacity is multiplied by factor to grow, divided by it to shrink
+	private final int minStep;			// min number of places added by a growth
+	private final int maxSlack;			// max number of places added by a growth
+	private final double shrinkBelow;	// fraction of the capacity below which the array shrinks
+	private final int minCapacity;		// capacity never shrinks below minCapacity
+
+
+	/**
+	 * Constructor with every parameter of the policy.
+	 * @param factor double value (greater than 1). Growth factor.
+	 * @param minStep int value (positive). Min number of places added by a growth.
+	 * @param maxSlack int value (not less than minStep). Max number of places added by a growth.
+	 * @param shrinkBelow double value (from 0 to 1). Fraction of the capacity below which the array
+	 * shrinks; 0 disables shrinking.
+	 * @param minCapacity int value (positive). Capacity below which the array never shrinks.
+	 * @throws IllegalArgumentException if any of the parameters is out of its range.
+	 */
+	public GrowthPolicy(double factor, int minStep, int maxSlack, double shrinkBelow, int minCapacity)
+	{
+		if (!(factor > 1) || minStep < 1 || maxSlack < minStep || !(shrinkBelow >= 0 && shrinkBelow < 1)
+			|| minCapacity < 1)
+			throw new IllegalArgumentException("Invalid growth policy.");
+
+		this.factor = factor;
+		this.minStep = minStep;
+		this.maxSlack = maxSlack;
+		this.shrinkBelow = shrinkBelow;
+		this.minCapacity = minCapacity;
+	}
+
+
+	/**
+	 * Returns a copy of this policy that never shrinks.
+	 * @return GrowthPolicy with shrinking disabled.
+	 */
+	public GrowthPolicy withoutShrinking()
+	{
+		return new GrowthPolicy(factor, minStep, maxSlack, 0, minCapacity);
+	}
+
+
+	/**
+	 * Returns the new capacity for an array of the capacity received that has to hold (required)
+	 * elements. O(1).
+	 * @param capacity int value. Current capacity of the array.
+	 * @param required int value. Number of elements the array has to hold (more than capacity).
+	 * @return int value. New capacity, not less than required.
+	 */
+	public int grow(int capacity, int required)
+	{
+		if (required > MAX_CAPACITY || required < 0)
+			throw new OutOfMemoryError("Required capacity is too large.");
+
+		// places added: capacity*(factor-1), within [minStep, maxSlack]
+		long step = (long) Math.ceil(capacity * (factor - 1));
+		step = Math.min(Math.max(step, minStep), maxSlack);
+
+		long newCapacity = Math.max((long) capacity + step, required);
+		return (int) Math.min(newCapacity, MAX_CAPACITY);
+	}
+
+
+	/**
+	 * Returns the new capacity for an array of the capacity and size received after removing elements;
+	 * the same capacity if the array should not shrink. O(1).
+	 * @param capacity int value. Current capacity of the array.
+	 * @param size int value. Current number of elements of the array.
+	 * @return int value. New capacity, not less than size.
+	 */
+	public int shrink(int capacity, int size)
+	{
+		if (size < capacity * shrinkBelow)
+		{
+			int newCapacity = (int) (capacity / factor);
+			if (newCapacity >= minCapacity && newCapacity >= size)
+				return newCapacity;
+		}
+		return capacity;
+	}
+
+
+	@Override
+	public String toString(){
+		return "GrowthPolicy with factor "+factor+", step "+minStep+".."+maxSlack+", shrink below "
+			+shrinkBelow+", min capacity "+minCapacity;
+	}
+
+}
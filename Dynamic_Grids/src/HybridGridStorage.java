@@ -0,0 +1,272 @@
+/**
+ * Grid storage engine that keeps the grid sparse (a SparseGridStorage) while few of its cells differ
+ * from the default value, and dense (a FlatGridStorage) while many do. It counts the cells that differ
+ * from the default and, when their share of the grid (the fill ratio) goes above denseAbove, it moves
+ * the grid to the dense engine; when it drops below sparseBelow, it moves it back to the sparse one.
+ * The gap between both thresholds keeps the grid from switching back and forth, so the O(RC) cost of
+ * a switch is paid for by the changes that made the fill ratio cross the gap.
+ *
+ * @author Sergio Delgado
+ *
+ * @param <T>  Type of the elements inside the grid cells.
+ */
+public class HybridGridStorage<T> implements GridStorage<T>
+{
+	/**
+	 * default fill ratio above which the grid becomes dense (a stored cell of the sparse engine costs
+	 * about four cells of the dense one)
+	 */
+	public static final double DENSE_ABOVE = 0.25;
+	/**
+	 * default fill ratio below which the grid becomes sparse again
+	 */
+	public static final double SPARSE_BELOW = 0.125;
+	/**
+	 * number of cells under which the grid always stays in the engine it is in
+	 */
+	private static final int MIN_CELLS = 64;
+
+	/**
+	 * Value of the cells that are not stored by the sparse engine
+	 */
+	private final T defaultValue;
+	/**
+	 * fill ratio above which the grid becomes dense
+	 */
+	private final double denseAbove;
+	/**
+	 * fill ratio below which the grid becomes sparse
+	 */
+	private final double sparseBelow;
+	/**
+	 * Engine that currently holds the grid
+	 */
+	private GridStorage<T> storage;
+	/**
+	 * True if the grid is currently in the dense engine
+	 */
+	private boolean dense;
+	/**
+	 * number of cells of the grid that differ from the default value
+	 */
+	private long filled;
+
+
+	/**
+	 * Constructor, which creates an empty sparse grid whose cells hold defaultValue unless they are set
+	 * to something else, with the default thresholds.
+	 * @param defaultValue Generic type value of the cells that are not stored (it can be null).
+	 */
+	public HybridGridStorage(T defaultValue)
+	{
+		this(defaultValue, SPARSE_BELOW, DENSE_ABOVE);
+	}
+
+
+	/**
+	 * Constructor, which creates an empty sparse grid whose cells hold defaultValue unless they are set
+	 * to something else, switching engines at the fill ratios received.
+	 * @param defaultValue Generic type value of the cells that are not stored (it can be null).
+	 * @param sparseBelow double value. Fill ratio below which the grid becomes sparse.
+	 * @param denseAbove double value. Fill ratio above which the grid becomes dense.
+	 * @throws IllegalArgumentException if the thresholds are not 0 &lt;= sparseBelow &lt; denseAbove &lt;= 1.
+	 */
+	public HybridGridStorage(T defaultValue, double sparseBelow, double denseAbove)
+	{
+		if (!(sparseBelow >= 0 && sparseBelow < denseAbove && denseAbove <= 1))
+			throw new IllegalArgumentException("Thresholds must be 0 <= sparseBelow < denseAbove <= 1.");
+
+		this.defaultValue = defaultValue;
+		this.sparseBelow = sparseBelow;
+		this.denseAbove = denseAbove;
+		storage = new SparseGridStorage<T>(defaultValue);
+		dense = false;
+		filled = 0;
+	}
+
+
+	/**
+	 * Returns the value of the cells that are not stored by the sparse engine. O(1).
+	 * @return Generic type default value of the cells.
+	 */
+	public T getDefaultValue()
+	{
+		return defaultValue;
+	}
+
+
+	/**
+	 * Returns True if the grid is currently in the dense engine. O(1).
+	 * @return True only if the grid is dense.
+	 */
+	public boolean isDense()
+	{
+		return dense;
+	}
+
+
+	/**
+	 * Returns the number of rows in the grid. O(1).
+	 * @return int value. Number of rows in the grid.
+	 */
+	public int getNumRow()
+	{
+		return storage.getNumRow();
+	}
+
+
+	/**
+	 * Returns the number of columns in the grid. O(1).
+	 * @return int value. Number of columns in the grid.
+	 */
+	public int getNumCol()
+	{
+		return storage.getNumCol();
+	}
+
+
+	/**
+	 * Returns the value of the element of the grid at indexRow and indexCol. O(1) (expected, if sparse).
+	 * @param indexRow int value. Row index on the grid.
+	 * @param indexCol int value. Column index on the grid.
+	 * @return Generic type element at the cell pointed.
+	 */
+	public T get(int indexRow, int indexCol)
+	{
+		return storage.get(indexRow, indexCol);
+	}
+
+
+	/**
+	 * Changes value at a cell of the grid located at a specific indexRow and indexCol.
+	 * O(1) (expected, if sparse) unless the grid switches engines.
+	 * @param indexRow Row position in the grid.
+	 * @param indexCol Column position in the grid.
+	 * @param value Generic type value of the new element in the grid.
+	 * @return Generic type value of the old element that got replaced.
+	 */
+	public T set(int indexRow, int indexCol, T value)
+	{
+		T oldValue = storage.set(indexRow, indexCol, value);
+		filled += count(value) - count(oldValue);
+		checkFill();
+		return oldValue;
+	}
+
+
+	/**
+	 * Copy values from newRow to add a row at the row index specified, in the current engine.
+	 * @param index Position of the row of the grid where we are adding the new row.
+	 * @param newRow Dynamic array that holds the element values of the new row.
+	 * @return True only if the addition of the row happened.
+	 */
+	public boolean addRow(int index, DynamicArray<T> newRow)
+	{
+		boolean success = storage.addRow(index, newRow);
+		if (success)
+		{
+			filled += count(newRow);
+			checkFill();
+		}
+		return success;
+	}
+
+
+	/**
+	 * Copies values from newCol to add a column at the column index specified, in the current engine.
+	 * @param index Column of the grid in which to add the new column (newCol)
+	 * @param newCol Array of values of the column that will be added to the grid
+	 * @return True only if the addition of the column happened.
+	 */
+	public boolean addCol(int index, DynamicArray<T> newCol)
+	{
+		boolean success = storage.addCol(index, newCol);
+		if (success)
+		{
+			filled += count(newCol);
+			checkFill();
+		}
+		return success;
+	}
+
+
+	/**
+	 * Removes and returns the row at index, in the current engine.
+	 * @param index Row position to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed row.
+	 */
+	public DynamicArray<T> removeRow(int index)
+	{
+		DynamicArray<T> removedRow = storage.removeRow(index);
+		filled -= count(removedRow);
+		checkFill();
+		return removedRow;
+	}
+
+
+	/**
+	 * Removes and returns the column at index, in the current engine.
+	 * @param index Position of the column to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed column.
+	 */
+	public DynamicArray<T> removeCol(int index)
+	{
+		DynamicArray<T> removedColumn = storage.removeCol(index);
+		filled -= count(removedColumn);
+		checkFill();
+		return removedColumn;
+	}
+
+
+	/**
+	 * Returns 1 if value differs from the default value, 0 otherwise.
+	 * @param value Generic type value to be checked.
+	 * @return int value. 1 for a value that is not the default value.
+	 */
+	private int count(T value)
+	{
+		boolean isDefault = (value == null) ? defaultValue == null : value.equals(defaultValue);
+		return isDefault ? 0 : 1;
+	}
+
+
+	/**
+	 * Returns how many values of the array differ from the default value. O(N).
+	 * @param values dynamic array with the values to be checked.
+	 * @return int value. Number of values that are not the default value.
+	 */
+	private int count(DynamicArray<T> values)
+	{
+		int nonDefault = 0;
+		for (int i=0; i<values.size(); i++)
+			nonDefault += count(values.get(i));
+		return nonDefault;
+	}
+
+
+	/**
+	 * Moves the grid to the other engine if the fill ratio crossed the threshold of the current one.
+	 */
+	private void checkFill()
+	{
+		long cells = (long) storage.getNumRow() * storage.getNumCol();
+		if (cells < MIN_CELLS)
+			return;
+
+		if (!dense && filled > denseAbove * cells)
+		{
+			GridStorage<T> flat = new FlatGridStorage<T>(storage.getNumRow(), Math.max(storage.getNumCol(), 1));
+			GridStorage.copy(storage, flat);
+			storage = flat;
+			dense = true;
+		}
+		else if (dense && filled < sparseBelow * cells)
+		{
+			GridStorage<T> sparse = new SparseGridStorage<T>(defaultValue);
+			GridStorage.copy(storage, sparse);
+			storage = sparse;
+			dense = false;
+		}
+	}
+
+}
@@ -0,0 +1,348 @@
+/**
+ * Grid storage engine that keeps the cells in fixed physical slots and the order of the grid in two
+ * permutations: rowMap (logical row to physical row slot) and colMap (logical column to physical column
+ * slot). Adding or removing a row or column only shifts the int entries of one permutation and copies
+ * the values of that row or column, so no other cell is moved. Slots of removed rows and columns are
+ * reused by the next additions, and compact() puts the cells back in logical order.
+ * Slots outside of the grid (unused or free) are always kept null.
+ *
+ * @author Sergio Delgado
+ *
+ * @param <T>  Type of the elements inside the grid cells.
+ */
+public class IndirectGridStorage<T> implements GridStorage<T>
+{
+	/**
+	 * default row capacity and column capacity of the grid (which is 2)
+	 */
+	private static final int INITCAP = 2;
+	/**
+	 * Underlying array (holds the cells of the physical slots, one row slot after the other)
+	 */
+	private Object[] cells;
+	/**
+	 * number of row slots reserved in memory
+	 */
+	private int rowCapacity;
+	/**
+	 * number of column slots reserved in memory for each row slot (distance between two row slots)
+	 */
+	private int stride;
+	/**
+	 * number of row slots ever used (live or free)
+	 */
+	private int rowSlots;
+	/**
+	 * number of column slots ever used (live or free)
+	 */
+	private int colSlots;
+	/**
+	 * physical row slot of every logical row of the grid
+	 */
+	private IntDynamicArray rowMap;
+	/**
+	 * physical column slot of every logical column of the grid
+	 */
+	private IntDynamicArray colMap;
+	/**
+	 * row slots of removed rows, waiting to be reused
+	 */
+	private IntDynamicArray freeRows;
+	/**
+	 * column slots of removed columns, waiting to be reused
+	 */
+	private IntDynamicArray freeCols;
+
+
+	/**
+	 * Constructor, which creates an empty grid with row and column capacities of 2
+	 */
+	public IndirectGridStorage()
+	{
+		reset(INITCAP, INITCAP);
+	}
+
+
+	/**
+	 * Returns the number of rows in the grid. O(1).
+	 * @return int value. Number of rows in the grid.
+	 */
+	public int getNumRow()
+	{
+		return rowMap.size();
+	}
+
+
+	/**
+	 * Returns the number of columns in the grid. O(1).
+	 * @return int value. Number of columns in the grid.
+	 */
+	public int getNumCol()
+	{
+		return colMap.size();
+	}
+
+
+	/**
+	 * Returns the value of the element of the grid at indexRow and indexCol. O(1).
+	 * @param indexRow int value. Row index on the grid.
+	 * @param indexCol int value. Column index on the grid.
+	 * @return Generic type element at the cell pointed.
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	public T get(int indexRow, int indexCol)
+	{
+		return (T) cells[rowMap.get(indexRow)*stride + colMap.get(indexCol)];
+	}
+
+
+	/**
+	 * Changes value at a cell of the grid located at a specific indexRow and indexCol. O(1).
+	 * @param indexRow Row position in the grid.
+	 * @param indexCol Column position in the grid.
+	 * @param value Generic type value of the new element in the grid.
+	 * @return Generic type value of the old element that got replaced.
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	public T set(int indexRow, int indexCol, T value)
+	{
+		int position = rowMap.get(indexRow)*stride + colMap.get(indexCol);
+		T oldValue = (T) cells[position];
+		cells[position] = value;
+		return oldValue;
+	}
+
+
+	/**
+	 * Copy values from newRow to add a row at the row index specified. O(R+C): the new row takes a
+	 * free row slot and only the entries of rowMap after index are shifted. Adds the new row, only if
+	 * it matches the size of each row of the grid.
+	 * @param index Position of the row of the grid where we are adding the new row.
+	 * @param newRow Dynamic array that holds the element values of the new row.
+	 * @return True only if the addition of the row happened.
+	 */
+	public boolean addRow(int index, DynamicArray<T> newRow)
+	{
+		int numRow = rowMap.size();
+
+		// if there are rows in the grid, newRow has to match their size
+		if (numRow > 0 && newRow.size() != colMap.size())
+			return false;
+
+		if (index < 0 || index > numRow)
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		// the first row of the grid decides the columns (slots in order)
+		if (numRow == 0)
+			for (int col=0; col<newRow.size(); col++)
+				colMap.add(newColSlot());
+
+		int rowSlot = newRowSlot();
+		int start = rowSlot*stride;
+		for (int col=0; col<newRow.size(); col++)
+			cells[start + colMap.get(col)] = newRow.get(col);
+
+		rowMap.add(index, rowSlot);
+		return true;
+	}
+
+
+	/**
+	 * Copies values from newCol to add a column at the column index specified. Cannot add if the
+	 * length of newCol does not match the number of rows. O(R+C): the new column takes a free column
+	 * slot and only the entries of colMap after index are shifted.
+	 * @param index Column of the grid in which to add the new column (newCol)
+	 * @param newCol Array of values of the column that will be added to the grid
+	 * @return True only if the addition of the column happened.
+	 */
+	public boolean addCol(int index, DynamicArray<T> newCol)
+	{
+		int numRow = rowMap.size();
+		if (newCol.size() != numRow)
+			return false;
+
+		if (numRow == 0)   // nothing to add a column to
+			return true;
+
+		if (index < 0 || index > colMap.size())
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		int colSlot = newColSlot();
+		for (int row=0; row<numRow; row++)
+			cells[rowMap.get(row)*stride + colSlot] = newCol.get(row);
+
+		colMap.add(index, colSlot);
+		return true;
+	}
+
+
+	/**
+	 * Removes and returns the row at index. Its slot is cleared and kept for reuse. O(R+C).
+	 * @param index Row position to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed row.
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	public DynamicArray<T> removeRow(int index)
+	{
+		int numCol = colMap.size();
+		int rowSlot = rowMap.remove(index);
+		int start = rowSlot*stride;
+
+		DynamicArray<T> removedRow = new DynamicArray<T>(Math.max(numCol, 1));
+		for (int col=0; col<numCol; col++)
+		{
+			int position = start + colMap.get(col);
+			removedRow.add((T) cells[position]);
+			cells[position] = null;
+		}
+
+		if (rowMap.size() == 0)   // a grid without rows has no columns
+			reset(INITCAP, INITCAP);
+		else
+			freeRows.add(rowSlot);
+		return removedRow;
+	}
+
+
+	/**
+	 * Removes and returns the column at index. Its slot is cleared and kept for reuse. O(R+C).
+	 * @param index Position of the column to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed column.
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	public DynamicArray<T> removeCol(int index)
+	{
+		int numRow = rowMap.size();
+		DynamicArray<T> removedColumn = new DynamicArray<T>(Math.max(numRow, 1));
+		if (numRow == 0)
+			return removedColumn;
+
+		int colSlot = colMap.remove(index);
+		for (int row=0; row<numRow; row++)
+		{
+			int position = rowMap.get(row)*stride + colSlot;
+			removedColumn.add((T) cells[position]);
+			cells[position] = null;
+		}
+
+		freeCols.add(colSlot);
+		return removedColumn;
+	}
+
+
+	/**
+	 * Moves every cell to the slot of its logical position, drops the free slots and shrinks the
+	 * reserved memory to the size of the grid. O(RC).
+	 */
+	public void compact()
+	{
+		int numRow = rowMap.size();
+		int numCol = colMap.size();
+		int newStride = Math.max(numCol, INITCAP);
+		Object[] newCells = new Object[Math.max(numRow, INITCAP) * newStride];
+
+		for (int row=0; row<numRow; row++)
+		{
+			int start = rowMap.get(row)*stride;
+			for (int col=0; col<numCol; col++)
+				newCells[row*newStride + col] = cells[start + colMap.get(col)];
+		}
+
+		reset(Math.max(numRow, INITCAP), newStride);
+		cells = newCells;
+		for (int row=0; row<numRow; row++)
+			rowMap.add(newRowSlot());
+		for (int col=0; col<numCol; col++)
+			colMap.add(newColSlot());
+	}
+
+
+	/**
+	 * Returns True: every cell has a slot of its own in the array, and set does not change the maps,
+	 * so different cells can be set from several threads at once.
+	 * @return True.
+	 */
+	public boolean supportsConcurrentSet()
+	{
+		return true;
+	}
+
+
+	/**
+	 * Returns the number of row and column slots that are free, waiting to be reused. O(1).
+	 * @return int value. Number of free row slots plus free column slots.
+	 */
+	public int getFreeSlots()
+	{
+		return freeRows.size() + freeCols.size();
+	}
+
+
+	/**
+	 * Takes a free row slot, or a new one (growing the row capacity if needed). O(1) amortized.
+	 * @return int value. Physical row slot for a new row.
+	 */
+	private int newRowSlot()
+	{
+		if (freeRows.size() > 0)
+			return freeRows.remove(freeRows.size()-1);
+
+		if (rowSlots == rowCapacity)
+			reallocate(rowCapacity*2, stride);
+		return rowSlots++;
+	}
+
+
+	/**
+	 * Takes a free column slot, or a new one (growing the column capacity if needed). O(1) amortized.
+	 * @return int value. Physical column slot for a new column.
+	 */
+	private int newColSlot()
+	{
+		if (freeCols.size() > 0)
+			return freeCols.remove(freeCols.size()-1);
+
+		if (colSlots == stride)
+			reallocate(rowCapacity, stride*2);
+		return colSlots++;
+	}
+
+
+	/**
+	 * Empties the grid, reserving the row and column capacities received.
+	 * @param newRowCapacity int number of row slots to reserve in memory.
+	 * @param newStride int number of column slots to reserve in memory for each row slot.
+	 */
+	private void reset(int newRowCapacity, int newStride)
+	{
+		rowCapacity = newRowCapacity;
+		stride = newStride;
+		cells = new Object[rowCapacity * stride];
+		rowSlots = 0;
+		colSlots = 0;
+		rowMap = new IntDynamicArray();
+		colMap = new IntDynamicArray();
+		freeRows = new IntDynamicArray();
+		freeCols = new IntDynamicArray();
+	}
+
+
+	/**
+	 * Moves the used slots into a new array with the row capacity and stride received. O(RC).
+	 * @param newRowCapacity int number of row slots to reserve in memory.
+	 * @param newStride int number of column slots to reserve in memory for each row slot.
+	 */
+	private void reallocate(int newRowCapacity, int newStride)
+	{
+		Object[] newCells = new Object[newRowCapacity * newStride];
+
+		// copy every used row slot of the old array (cells) onto its place in (newCells)
+		for (int row=0; row<rowSlots; row++)
+			System.arraycopy(cells, row*stride, newCells, row*newStride, colSlots);
+
+		cells = newCells;
+		rowCapacity = newRowCapacity;
+		stride = newStride;
+	}
+
+}
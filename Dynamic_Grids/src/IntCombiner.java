@@ -0,0 +1,68 @@
+/**
+ * Represents a binary operation on two int operands that generates an int result. It is the
+ * primitive counterpart of Combiner, used by IntTable so no operand or result gets boxed.
+ *
+ * @author Sergio Delgado
+ */
+@FunctionalInterface
+public interface IntCombiner{
+
+	/**
+	 * Combine two operands and return the combination result.
+	 * @param operand1 first operand
+	 * @param operand2 second operand
+	 * @return result based on the combination of operand1 and operand2
+	 */
+	public int combine(int operand1, int operand2);
+
+	/**
+	 * Combine operand1 with the first length operands of operands2 and write the results, in order, from
+	 * the start of results. IntTable uses it to build or recalculate a row at once; combiners whose
+	 * operation is a plain arithmetic expression may override it with a loop the JIT can vectorize.
+	 * @param operand1 first operand of every combination
+	 * @param operands2 second operands
+	 * @param results array where the results are written
+	 * @param length number of combinations
+	 */
+	public default void combineRow(int operand1, int[] operands2, int[] results, int length)
+	{
+		for (int i=0; i<length; i++)
+			results[i] = combine(operand1, operands2[i]);
+	}
+
+	/**
+	 * Combine the first length operands of operands1 with operand2 and write the results, in order, from
+	 * the start of results. IntTable uses it to build or recalculate a column at once.
+	 * @param operands1 first operands
+	 * @param operand2 second operand of every combination
+	 * @param results array where the results are written
+	 * @param length number of combinations
+	 */
+	public default void combineColumn(int[] operands1, int operand2, int[] results, int length)
+	{
+		for (int i=0; i<length; i++)
+			results[i] = combine(operands1[i], operand2);
+	}
+
+	/**
+	 * Combine every operand of operands1 in [from1, to1) with the first numCol operands of operands2, and
+	 * write the results row by row from the start of results: first operand1 number from1 with every
+	 * operand2, then the next one. IntTable uses it to recalculate the board by bands of rows.
+	 * @param operands1 first operands
+	 * @param from1 index of the first operand of operands1 combined
+	 * @param to1 index after the last operand of operands1 combined
+	 * @param operands2 second operands
+	 * @param numCol number of operands of operands2 combined
+	 * @param results array where the results are written ((to1-from1)*numCol of them)
+	 */
+	public default void combineBlock(int[] operands1, int from1, int to1, int[] operands2, int numCol, int[] results)
+	{
+		int[] row = new int[numCol];
+		for (int i=from1; i<to1; i++)
+		{
+			combineRow(operands1[i], operands2, row, numCol);
+			System.arraycopy(row, 0, results, (i-from1)*numCol, numCol);
+		}
+	}
+
+}
@@ -0,0 +1,302 @@
+/**
+ * This is a class that manages all basic dynamic array operations on int elements.
+ * It is the primitive counterpart of DynamicArray: elements are stored in an int[],
+ * so no element gets boxed.
+ *
+ * @version 1.0
+ * @author Sergio Delgado.
+ */
+public class IntDynamicArray{
+	/**
+	 * default capacity of array (which is 2)
+	 */
+	private static final int INITCAP = 2;
+	/**
+	 * Underlying array (holds the values of the array's elements)
+	 */
+	private int[] storage;
+	/**
+	 * number of elements reserved in memory for the array
+	 */
+	private int capacity;
+	/**
+	 * number of existing elements in the array
+	 */
+	private int size;
+
+
+
+	/**
+	 * Constructor with initial capacity of 2
+	 */
+	public IntDynamicArray()
+	{
+		this(INITCAP);
+	}
+
+
+
+	/**
+	 * Constructor that receives int parameter for desired capacity.
+	 *
+	 * @param initCapacity int desired capacity for the new dynamic array
+	 * @throws  IllegalArgumentException if capacity desired for new array is too small.
+	 */
+	public IntDynamicArray(int initCapacity){
+
+		if (initCapacity > 0) // if desired capacity greater than 0
+		{
+				capacity = initCapacity;
+				size = 0;
+				storage = new int[capacity];
+		}
+
+		else
+			throw new IllegalArgumentException("Capacity is too small.");
+	}
+
+	/**
+	 * Constructor that copies the first length elements of an array, in order. The capacity is the
+	 * number of elements (but not less than 2). O(N).
+	 * @param values array with the elements of the new dynamic array.
+	 * @param length int value. Number of elements of values copied.
+	 */
+	public IntDynamicArray(int[] values, int length)
+	{
+		capacity = Math.max(length, INITCAP);
+		size = length;
+		storage = new int[capacity];
+		System.arraycopy(values, 0, storage, 0, length);
+	}
+
+	/**
+	 * Returns True if the index is within the range of the array size.
+	 * @param index int value of index to be checked on.
+	 * @return returns True only if (index is greater than or equal to 0) and (less or equal to size of array).
+	 */
+	private boolean isGoodIndexForAdd(int index)
+	{
+		return (index>=0 && index<=size);
+	}
+
+	/**
+	 * Returns True if the index is within the range of the array size.
+     * @param index int value of index to be checked on.
+	 * @return returns True only if (index is greater than or equal to 0) and (less than size of array).
+	 */
+	private boolean isGoodIndex(int index)
+	{
+		return (index>=0 && index<size);
+	}
+
+	/**
+	 * Returns the number of elements in the list. O(1).
+     * @return Returns int number of elements in array.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns a new array with the elements of the list, in order. O(N).
+	 * @return int array of size() elements.
+	 */
+	public int[] toArray()
+	{
+		int[] values = new int[size];
+		System.arraycopy(storage, 0, values, 0, size);
+		return values;
+	}
+
+	/**
+	 * Returns the underlying array, whose first size() values are the elements of the list, in order.
+	 * It is not a copy: it must not be changed, and it stops being used once the list is resized. O(1).
+	 * @return int array of at least size() elements.
+	 */
+	int[] elements()
+	{
+		return storage;
+	}
+
+	/**
+	 * Returns the max number of elements before the next expansion. O(1).
+	 * @return int value.  Returns max number of elements in array.
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Changes item x at index i to be value. O(1).
+	 * @param index int value. Position on the array.
+	 * @param value int value of element at index
+	 * @return Returns int value of old array element at index.
+	 */
+	public int set(int index, int value)
+	{
+		if (isGoodIndex(index))  // if index is within range, set new value at index
+		{
+			int oldValue = storage[index];
+			storage[index] = value;
+			return oldValue;
+		}
+
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+	}
+
+	/**
+	 * Return the item at index. O(1).
+	 * @param index int value. Position on the array.
+	 * @return int value of array element at index.
+	 */
+	public int get(int index)
+	{
+		if (isGoodIndex(index))  // if index is within range, return element.
+			return storage[index];
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+	/**
+	 * Verifies that there is capacity for a new value on array. If not enough space, it grows
+	 * the array to twice its size.
+	 */
+	private void checkCapacity()
+	{
+		if (size == capacity)   // if current capacity of array is maxed out,
+			resize(capacity * 2);
+	}
+
+	/**
+	 * Verifies that the size array is not below one third of its capacity . If so , it shrinks
+	 * the array to half its size.
+	 */
+	private void checkEmptiness()
+	{
+		// if size is less than 1/3 of capacity and  (capacity/2) won't fall below INITCAP
+		if ((size < (float)(capacity)/3) && ( (capacity/2) >= INITCAP) )
+			resize(capacity / 2);
+	}
+
+	/**
+	 * Moves the elements of the array into a new underlying array of the capacity received. O(N).
+	 * @param newCapacity int value. New capacity of the array.
+	 */
+	private void resize(int newCapacity)
+	{
+		int[] newStorage = new int[newCapacity];
+		System.arraycopy(storage, 0, newStorage, 0, size);
+		storage = newStorage;
+		capacity = newCapacity;
+	}
+
+
+	/**
+	 * Adds element to end of the array (append). Doubles the capacity of no space available. O(1).
+	 * @param value int value of element to be added to array.
+	 * @return Returns True.
+	 */
+	public boolean add(int value)
+	{
+		add(size,value);
+		return true;
+	}
+
+
+	/**
+	 * Adds element at position (index) in the array. Doubles the capacity if no space available. O(N).
+	 * @param index int value. Position where to add new element in the array.
+	 * @param value int value of element to be added to array.
+	 */
+	public void add(int index, int value)
+	{
+		if (isGoodIndexForAdd(index))
+		{
+			checkCapacity();
+
+			// moving all elements (after index) one position forward
+			System.arraycopy(storage, index, storage, index+1, size-index);
+
+			// inserting the new value
+			storage[index] = value;
+			size++;
+			return;
+		}
+
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+	}
+
+
+	/**
+	 * Removes element of the array at index. Halves capacity of array if size drops below 1/3
+	 * of current capacity. Capacity should not go below INITCAP. O(N).
+	 * @param index int value. Position of the element to be removed.
+	 * @return Returns the int element that was removed from array at index.
+	 */
+	public int remove(int index)
+	{
+		if (isGoodIndex(index))
+		{
+			int removedValue = storage[index];
+
+			// moving all elements (after index) one position backwards
+			System.arraycopy(storage, index+1, storage, index, size-index-1);
+
+			size--;
+
+			checkEmptiness();
+
+			return removedValue;
+		}
+
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+	}
+
+
+
+	@Override
+	public String toString(){
+		// return string representation of IntDynamicArray
+		return "IntDynamicArray with size "+size+", capacity "+capacity;
+
+  	}
+
+	/**
+	 * This main method is used to run a trial that tests the performance of the class IntDynamicArray.
+	 * @param args Command line parameters for the, which are not necessary for this particular class.
+	 */
+	public static void main (String args[]){
+
+		IntDynamicArray ida = new IntDynamicArray();
+		if ((ida.size() == 0) && (ida.capacity() == 2)){
+			System.out.println("Yay 1");
+		}
+
+		ida.add(0);
+		ida.add(5);
+		ida.add(10);
+		if (ida.size()==3 && ida.get(2) == 10 && ida.capacity() == 4 ){
+			System.out.println("Yay 2");
+		}
+
+		ida.add(1,-10);
+		ida.add(4,100);
+		if (ida.set(1,-20) == -10 && ida.get(2) == 5 && ida.size() == 5
+			&& ida.capacity() == 8 ){
+			System.out.println("Yay 3");
+		}
+
+		if (ida.remove(0) == 0 && ida.remove(0) == -20 && ida.remove(2) == 100
+			&& ida.size() == 2  && ida.capacity() == 4 ){
+			System.out.println("Yay 4");
+		}
+	}
+
+}
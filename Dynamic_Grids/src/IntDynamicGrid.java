@@ -0,0 +1,333 @@
+/**
+ * This class manages all of the basic dynamic grid operations on int cells. It is the primitive
+ * counterpart of DynamicGrid: every cell is kept in one contiguous int[] in row-major order,
+ * with a row stride and spare row and column capacity (like FlatGridStorage).
+ *
+ * @author Sergio Delgado
+ */
+public class IntDynamicGrid implements IntGrid
+{
+	/**
+	 * default row capacity and column capacity of the grid (which is 2)
+	 */
+	private static final int INITCAP = 2;
+	/**
+	 * Underlying array (holds the cells of the grid, one row after the other)
+	 */
+	private int[] cells;
+	/**
+	 * number of rows reserved in memory for the grid
+	 */
+	private int rowCapacity;
+	/**
+	 * number of columns reserved in memory for each row (distance between the start of two rows)
+	 */
+	private int stride;
+	/**
+	 * number of existing rows in the grid
+	 */
+	private int numRow;
+	/**
+	 * number of existing columns in the grid
+	 */
+	private int numCol;
+
+
+	/**
+	 * Constructor, which creates an empty grid of 0 rows and 0 cols
+	 */
+	public IntDynamicGrid()
+	{
+		rowCapacity = INITCAP;
+		stride = INITCAP;
+		numRow = 0;
+		numCol = 0;
+		cells = new int[rowCapacity * stride];
+	}
+
+
+	/**
+	 * Returns the number of rows in the grid. O(1).
+	 * @return int value. Number of rows in the grid.
+	 */
+	public int getNumRow()
+	{
+		return numRow;
+	}
+
+
+	/**
+	 * Returns the number of columns in the grid. O(1).
+	 * @return int value. Number of columns in the grid.
+	 */
+	public int getNumCol()
+	{
+		return numCol;
+	}
+
+
+	/**
+	 * It returns the value of the element of the grid at indexRow and indexCol. O(1).
+	 * Throws IndexOutOfBoundsException if index is out of bounds.
+	 * @param indexRow int value. Row index on the grid.
+	 * @param indexCol int value. Column index on the grid.
+	 * @return int element at the cell pointed.
+	 */
+	public int get(int indexRow, int indexCol)
+	{
+		if (isGoodIndex(indexRow, numRow) && isGoodIndex(indexCol, numCol))
+			return cells[indexRow*stride + indexCol];
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+
+	/**
+	 * Changes value at a cell of the grid located at a specific indexRow and indexCol. O(1).
+	 * Throws IndexOutOfBoundsException if index is out of bounds.
+	 * @param indexRow Row position in the grid.
+	 * @param indexCol Column position in the grid.
+	 * @param value int value of the new element in the grid.
+	 * @return int value of the old element that got replaced at location pointed at by the parameters.
+	 */
+	public int set(int indexRow, int indexCol, int value)
+	{
+		if (isGoodIndex(indexRow, numRow) && isGoodIndex(indexCol, numCol))
+		{
+			int position = indexRow*stride + indexCol;
+			int oldValue = cells[position];
+			cells[position] = value;
+			return oldValue;
+		}
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+
+	/**
+	 * Copy values from newRow to add a row at the row index specified. O(RC) in the worst case
+	 * (one block move of the rows after index), O(C) when appending. Adds the new row, only if
+	 * it matches the size of each row of the grid.
+	 * @param index Position of the row of the grid where we are adding the new row.
+	 * @param newRow Dynamic array that holds the element values of the new row.
+	 * @return True only if the addition of the row happened.
+	 */
+	public boolean addRow(int index, IntDynamicArray newRow)
+	{
+		// if there are rows in the grid, newRow has to match their size
+		if (numRow > 0 && newRow.size() != numCol)
+			return false;
+
+		if (!isGoodIndex(index, numRow+1))
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		// the first row of the grid decides the number of columns
+		if (numRow == 0)
+		{
+			numCol = newRow.size();
+			if (numCol > stride)
+				reallocate(rowCapacity, numCol);
+		}
+
+		if (numRow == rowCapacity)
+			reallocate(rowCapacity*2, stride);
+
+		// moving all rows (after index) one row forward
+		int start = index*stride;
+		System.arraycopy(cells, start, cells, start+stride, (numRow-index)*stride);
+
+		// copying the values of the new row
+		for (int col=0; col<numCol; col++)
+			cells[start + col] = newRow.get(col);
+
+		numRow++;
+		return true;
+	}
+
+
+	/**
+	 * Copies values from newCol to add a column at the column index specified. Cannot add if the
+	 * length of newCol does not match the number of rows. O(RC) where R is the number of rows and
+	 * C is the number of columns of the grid.
+	 * @param index Column of the grid in which to add the new column (newCol)
+	 * @param newCol Array of values of the column that will be added to the grid
+	 * @return True only if the addition of the column happened.
+	 */
+	public boolean addCol(int index, IntDynamicArray newCol)
+	{
+		if (newCol.size() != numRow)
+			return false;
+
+		if (numRow == 0)   // nothing to add a column to
+			return true;
+
+		if (!isGoodIndex(index, numCol+1))
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		if (numCol == stride)
+			reallocate(rowCapacity, stride*2);
+
+		// moving the columns (after index) one position forward in every row
+		for (int row=0; row<numRow; row++)
+		{
+			int position = row*stride + index;
+			System.arraycopy(cells, position, cells, position+1, numCol-index);
+			cells[position] = newCol.get(row);
+		}
+
+		numCol++;
+		return true;
+	}
+
+
+	/**
+	 * Removes and returns the row at index. It shifts rows to remove the gap.
+	 * O(RC) in the worst case (one block move of the rows after index).
+	 * Throws IndexOutOfBoundsException for invalid index.
+	 * @param index Row position to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed row.
+	 */
+	public IntDynamicArray removeRow(int index)
+	{
+		if (!isGoodIndex(index, numRow))
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		int start = index*stride;
+		IntDynamicArray removedRow = new IntDynamicArray(Math.max(numCol, 1));
+		for (int col=0; col<numCol; col++)
+			removedRow.add(cells[start + col]);
+
+		// moving all rows (after index) one row backwards
+		System.arraycopy(cells, start+stride, cells, start, (numRow-index-1)*stride);
+		numRow--;
+
+		if (numRow == 0)   // a grid without rows has no columns
+			numCol = 0;
+
+		checkEmptiness();
+		return removedRow;
+	}
+
+
+	/**
+	 * Removes and returns the column at index. It shifts columns to remove the gap.
+	 * O(RC) where R is the number of rows and C is the number of columns.
+	 * Throws IndexOutOfBoundsException for invalid index.
+	 * @param index Position of the column to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed column.
+	 */
+	public IntDynamicArray removeCol(int index)
+	{
+		IntDynamicArray removedColumn = new IntDynamicArray(Math.max(numRow, 1));
+		if (numRow == 0)
+			return removedColumn;
+
+		if (!isGoodIndex(index, numCol))
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		// moving the columns (after index) one position backwards in every row
+		for (int row=0; row<numRow; row++)
+		{
+			int position = row*stride + index;
+			removedColumn.add(cells[position]);
+			System.arraycopy(cells, position+1, cells, position, numCol-index-1);
+		}
+
+		numCol--;
+		checkEmptiness();
+		return removedColumn;
+	}
+
+
+	/**
+	 * Rearranges the grid in one pass, into a new array with no spare capacity, so that it has
+	 * rowOrigins.size() rows and colOrigins.size() columns, where the cell (r,c) is the old cell
+	 * (rowOrigins[r], colOrigins[c]), or 0 if either of them is -1 (a new row or column). O(RC).
+	 * @param rowOrigins Dynamic array with the old row of every new row (-1 for new rows).
+	 * @param colOrigins Dynamic array with the old column of every new column (-1 for new columns).
+	 */
+	public void remap(IntDynamicArray rowOrigins, IntDynamicArray colOrigins)
+	{
+		int newNumRow = rowOrigins.size();
+		int newNumCol = (newNumRow == 0) ? 0 : colOrigins.size();	// a grid without rows has no columns
+		int newRowCapacity = Math.max(newNumRow, INITCAP);
+		int newStride = Math.max(newNumCol, INITCAP);
+		int[] newCells = new int[newRowCapacity * newStride];
+
+		for (int row=0; row<newNumRow; row++)
+		{
+			int origin = rowOrigins.get(row);
+			if (origin >= 0)
+				for (int col=0; col<newNumCol; col++)
+				{
+					int colOrigin = colOrigins.get(col);
+					if (colOrigin >= 0)
+						newCells[row*newStride + col] = cells[origin*stride + colOrigin];
+				}
+		}
+
+		cells = newCells;
+		rowCapacity = newRowCapacity;
+		stride = newStride;
+		numRow = newNumRow;
+		numCol = newNumCol;
+	}
+
+
+	/**
+	 * Returns True if the index is within the range [0, limit).
+	 * @param index int value of index to be checked on.
+	 * @param limit int value. First index out of range.
+	 * @return True only if index is greater than or equal to 0 and less than limit.
+	 */
+	private boolean isGoodIndex(int index, int limit)
+	{
+		return (index>=0 && index<limit);
+	}
+
+
+	/**
+	 * Verifies that the rows and columns of the grid are not below one third of their capacity.
+	 * If so, it shrinks that capacity to half its size.
+	 */
+	private void checkEmptiness()
+	{
+		int newRowCapacity = rowCapacity;
+		int newStride = stride;
+
+		if ((numRow < (float)(rowCapacity)/3) && ((rowCapacity/2) >= INITCAP))
+			newRowCapacity = rowCapacity/2;
+
+		if ((numCol < (float)(stride)/3) && ((stride/2) >= INITCAP))
+			newStride = stride/2;
+
+		if (newRowCapacity != rowCapacity || newStride != stride)
+			reallocate(newRowCapacity, newStride);
+	}
+
+
+	/**
+	 * Moves the grid into a new array with the row capacity and stride received. O(RC).
+	 * @param newRowCapacity int number of rows to reserve in memory.
+	 * @param newStride int number of columns to reserve in memory for each row.
+	 */
+	private void reallocate(int newRowCapacity, int newStride)
+	{
+		int[] newCells = new int[newRowCapacity * newStride];
+
+		// copy every row of the old array (cells) onto its place in (newCells)
+		for (int row=0; row<numRow; row++)
+			System.arraycopy(cells, row*stride, newCells, row*newStride, numCol);
+
+		cells = newCells;
+		rowCapacity = newRowCapacity;
+		stride = newStride;
+	}
+
+
+	@Override
+	public String toString(){
+		return "int dynamic grid";
+	}
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Represents a grid of int cells, the primitive counterpart of GridStorage: IntDynamicGrid keeps its
+ * cells in an int array on the Java heap and OffHeapIntDynamicGrid in a direct buffer. Both keep the
+ * same logical grid: a grid with no rows has no columns either, any row can be added to an empty
+ * grid, and otherwise new rows and columns must match the size of the grid.
+ *
+ * @author Sergio Delgado
+ */
+public interface IntGrid
+{
+	/**
+	 * Returns the number of rows in the grid.
+	 * @return int value. Number of rows in the grid.
+	 */
+	public int getNumRow();
+
+	/**
+	 * Returns the number of columns in the grid (0 if the grid has no rows).
+	 * @return int value. Number of columns in the grid.
+	 */
+	public int getNumCol();
+
+	/**
+	 * Returns the value of the cell at indexRow and indexCol.
+	 * Throws IndexOutOfBoundsException for invalid indexes.
+	 * @param indexRow int value. Row index on the grid.
+	 * @param indexCol int value. Column index on the grid.
+	 * @return int element at the cell pointed.
+	 */
+	public int get(int indexRow, int indexCol);
+
+	/**
+	 * Changes the value of the cell at indexRow and indexCol.
+	 * Throws IndexOutOfBoundsException for invalid indexes.
+	 * @param indexRow Row position in the grid.
+	 * @param indexCol Column position in the grid.
+	 * @param value int value of the new element in the grid.
+	 * @return int value of the old element that got replaced.
+	 */
+	public int set(int indexRow, int indexCol, int value);
+
+	/**
+	 * Copies the values of newRow into a new row at the row index specified, from 0 to getNumRow()
+	 * (also on an empty grid). Throws IndexOutOfBoundsException for invalid index.
+	 * @param index Position of the new row in the grid.
+	 * @param newRow Dynamic array that holds the element values of the new row.
+	 * @return True only if the addition of the row happened.
+	 */
+	public boolean addRow(int index, IntDynamicArray newRow);
+
+	/**
+	 * Copies the values of newCol into a new column at the column index specified.
+	 * Throws IndexOutOfBoundsException for invalid index.
+	 * @param index Position of the new column in the grid.
+	 * @param newCol Dynamic array that holds the element values of the new column.
+	 * @return True only if the addition of the column happened.
+	 */
+	public boolean addCol(int index, IntDynamicArray newCol);
+
+	/**
+	 * Removes and returns the row at index. Throws IndexOutOfBoundsException for invalid index.
+	 * @param index Row position to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed row.
+	 */
+	public IntDynamicArray removeRow(int index);
+
+	/**
+	 * Removes and returns the column at index. Throws IndexOutOfBoundsException for invalid index.
+	 * @param index Column position to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed column.
+	 */
+	public IntDynamicArray removeCol(int index);
+
+	/**
+	 * Rearranges the grid at once so that it has rowOrigins.size() rows and colOrigins.size() columns,
+	 * where the cell (r,c) is the old cell (rowOrigins[r], colOrigins[c]), or 0 if either of them is
+	 * -1 (a new row or column). The rows and columns kept have to be in their old order.
+	 * @param rowOrigins Dynamic array with the old row of every new row (-1 for new rows).
+	 * @param colOrigins Dynamic array with the old column of every new column (-1 for new columns).
+	 */
+	public void remap(IntDynamicArray rowOrigins, IntDynamicArray colOrigins);
+
+}
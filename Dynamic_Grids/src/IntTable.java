@@ -0,0 +1,536 @@
+/**
+ * Class that uses the IntDynamicArray and IntGrid classes to create and manage the elements
+ * of a grid, whose element values are the result of combining the values of a column and a row.
+ * It is the primitive counterpart of Table&lt;Integer,Integer,Integer,IntegerComb&gt;: heads and
+ * cells are stored as ints end to end, so no value gets boxed. The cells can also be kept off the
+ * Java heap (see OffHeapIntDynamicGrid); such a table must be closed to release them.
+ *
+ * @author Sergio Delgado
+ */
+public class IntTable implements AutoCloseable{
+
+	private IntDynamicArray rowHead;	// rowHead as a list of int values
+	private IntDynamicArray colHead;	// colHead as a list of int values
+	private IntGrid board;				// a 2-D grid of int values determined by
+										//		rowHead, colHead, and op
+	private IntCombiner op;				// op that defines a function f:
+										//		f(int,int)-> int
+
+	/**
+	 * number of cells that setOp recalculates with a single call to op.combineBlock
+	 */
+	private static final int BAND_CELLS = 1 << 12;
+
+    /**
+     * Constructor with the operator object as parameter.  Instantiates two Int Dynamic Arrays
+     * to store row heads and column heads, and an Int Dynamic Grid to store values of the board.
+     * It also sets the operator to the parameter received.
+     * @param oper object that executes the basic operation between two operands.
+     */
+	public IntTable(IntCombiner oper)
+	{
+		this(oper, false);
+	}
+
+
+	/**
+	 * Constructor with the operator object as parameter, that keeps the cells of the board off the
+	 * Java heap (in an OffHeapIntDynamicGrid) if offHeap is True.
+	 * @param oper object that executes the basic operation between two operands.
+	 * @param offHeap True to keep the cells outside of the Java heap.
+	 */
+	public IntTable(IntCombiner oper, boolean offHeap)
+	{
+		rowHead = new IntDynamicArray();
+		colHead = new IntDynamicArray();
+		board = offHeap ? new OffHeapIntDynamicGrid() : new IntDynamicGrid();
+		op = oper;
+	}
+
+
+	/**
+	 * Releases the cells of the board if they are kept off the Java heap. An off-heap table cannot
+	 * be used afterwards (IllegalStateException). Does nothing for a table on the heap.
+	 */
+	@Override
+	public void close()
+	{
+		if (board instanceof OffHeapIntDynamicGrid)
+			((OffHeapIntDynamicGrid) board).close();
+	}
+
+
+	/**
+	 * Returns the number of rows in the grid. O(1).
+	 * @return int value. Number of elements in rowHead.
+	 */
+	public int getSizeRow()
+	{
+		return rowHead.size();
+	}
+
+
+	/**
+	 * Returns the number of columns in the grid. O(1).
+	 * @return int value. Number of elements in colHead
+	 */
+	public int getSizeCol()
+	{
+		return colHead.size();
+	}
+
+
+	/**
+	 * Returns the item at index r from rowHead. O(1).
+	 * Throws IndexOutOfBoundsException for invalid index (handled by IntDynamicArray.get(i)).
+	 * @param r Position of the row in the grid whose value we are retrieving from rowHead.
+	 * @return int value of the element at position r from rowHead.
+	 */
+	public int getRowHead(int r)
+	{
+		return rowHead.get(r);
+	}
+
+
+	/**
+	 * Return the item at index c from colHead. O(1).
+	 * Throws IndexOutOfBoundsException for invalid index (handled by IntDynamicArray.get(i)).
+	 * @param c Position of the column in the grid whose value we are retrieving from colHead.
+	 * @return int value of the element at position c from colHead.
+	 */
+	public int getColHead(int c)
+	{
+		return colHead.get(c);
+	}
+
+
+	/**
+	 * Returns the item at index (r,c) from board. O(1).
+	 * Throws IndexOutOfBoundsException for invalid index (handled by IntDynamicGrid.get(r,c)).
+	 * @param r Position of the row in the grid whose value we are retrieving from board.
+	 * @param c Position of the column in the grid whose value we are retrieving from board.
+	 * @return int value of the element at position (r,c) from board.
+	 */
+	public int getCell(int r, int c)
+	{
+		return board.get(r,c);
+	}
+
+
+	/**
+	 * Change the operation. Re-calculate and reset the cells of the board, with op.combineBlock on bands
+	 * of rows. O(CR) where C is the number of columns and R is the number of rows of the grid. O(1) if
+	 * oper is the operator the table already has.
+	 * @param oper operator object that is in charge or combining two operands and return a result.
+	 */
+	public void setOp(IntCombiner oper)
+	{
+		if (oper == op)		// the cells stay the same
+			return;
+		op = oper;
+
+		int numRow = rowHead.size();
+		int numCol = colHead.size();
+		if (numCol == 0)
+			return;
+		int[] rowValues = rowHead.elements();
+		int[] colValues = colHead.elements();
+		int band = Math.max(BAND_CELLS / numCol, 1);
+		int[] cells = new int[Math.min(band, numRow) * numCol];
+
+		// reseting the values of the cells of the board
+		for (int row=0; row<numRow; row+=band)
+		{
+			int bandTo = Math.min(row + band, numRow);
+			op.combineBlock(rowValues, row, bandTo, colValues, numCol, cells);
+			int cell = 0;
+			for (int r=row; r<bandTo; r++)
+				for (int col=0; col<numCol; col++)
+					board.set(r, col, cells[cell++]);
+		}
+
+	}
+
+
+	/**
+	 * Inserts v to rowHead at index i. Inserts a new row to the grid at row index i.
+	 * Calculates the new row based on v, existing colHead and op.
+	 * i may be equal to the size (indicating that you are appending a row).
+	 * O(C+R) where R is the number of rows of the grid and C is the number of columns of the grid.
+	 * @param i Position on the rowHead where to add a new element.
+	 * @param v int value of the element to be added at position i.
+	 * @return Returns True only if addition of elment was successful.
+	 */
+	public boolean addRow(int i, int v)
+	{
+		boolean success = true;
+
+		// if index (i) is not out of bounds with respect to rowHead
+		if (i <= rowHead.size())
+		{
+			rowHead.add(i,v);  // insert new row head in rowHead
+
+			// create new row to insert into the 2D board
+			int[] cells = new int[colHead.size()];
+			op.combineRow(v, colHead.elements(), cells, cells.length);
+			IntDynamicArray newRow = new IntDynamicArray(cells, cells.length);
+
+			// insert new row into the board
+			board.addRow(i, newRow);
+
+		}
+		else
+			success = false;
+
+		return success;
+	}
+
+
+	/**
+	 * Inserts v to colHead at index i. Inserts a new column to the grid at column index i.
+	 * Calculates the new column based on v, existing rowHead and op.
+	 * i may be equal to the size (indicating that you are appending a column).
+	 * O(CR) where R is the number of rows of the grid and C is the number of columns of the grid.
+	 * @param i Position on colHead where to add a new element.
+	 * @param v int value of element to be added at position i.
+	 * @return Returns True only if the addition of new element was successful.
+	 */
+	public boolean addCol(int i, int v)
+	{
+		boolean success = true;
+
+		// if index (i) is not out of bounds with respect to colHead
+		if (i <= colHead.size())
+		{
+			colHead.add(i,v);  // insert new column head in colHead
+
+			// create new column to insert into the 2D board
+			int[] cells = new int[rowHead.size()];
+			op.combineColumn(rowHead.elements(), v, cells, cells.length);
+			IntDynamicArray newCol = new IntDynamicArray(cells, cells.length);
+
+			// insert new column into the board
+			board.addCol(i, newCol);
+
+		}
+		else
+			success = false;
+
+		return success;
+	}
+
+
+	/**
+	 * Removes and return value from rowHead at index i. Removes row i from grid.
+	 * Throws IndexOutOfBoundsException for invalid index (handled by IntDynamicArray.remove(i)).
+	 * O(R) where R is the number of rows of the grid.
+	 * @param i Position on the grid where to remove a row from.
+	 * @return int value of the element from rowHead at position i.
+	 */
+	public int removeRow(int i)
+	{
+		// removing the element from rowHead.
+		int removedRow = rowHead.remove(i);
+
+		// removing the row from the board
+		board.removeRow(i);
+
+		return removedRow;
+	}
+
+
+	/**
+	 * Removes and return value from colHead at index i. Removes column i from grid.
+	 * Throws IndexOutOfBoundsException for invalid index. O(CR) where R is the number of rows
+	 * and C is the number of columns of the grid.
+	 * @param i Position on the grid where to remove a column from.
+	 * @return int value of the element removed from colHead.
+	 */
+	public int removeCol(int i)
+	{
+		// removing element from colHead
+		int removedCol = colHead.remove(i);
+
+		// removing the column from the board
+		board.removeCol(i);
+
+		return removedCol;
+	}
+
+
+	/**
+	 * Changes value of rowHead at index i to be v. Changes the ith row of grid using v, the column heads, and op.
+	 * Return old value of rowHead from index i. Throws IndexOutOfBoundsException for invalid index.
+	 * O(C) where C is the number of columns of the grid, O(1) if v is the old value.
+	 * @param i Position on rowHead where to change the value and of the board where to change row values.
+	 * @param v int value to be added to rowHead.
+	 * @return int value of the old element from rowHead.
+	 */
+	public int setRow(int i, int v)
+	{
+		// reseting position (i) in rowHead with new value (v)
+		int oldRowElem = rowHead.set(i, v);
+		if (oldRowElem == v)	// the cells of row (i) stay the same
+			return oldRowElem;
+
+		// reseting each element of the board from row (i) with the new calculated value
+		int[] cells = new int[colHead.size()];
+		op.combineRow(v, colHead.elements(), cells, cells.length);
+		for(int index=0; index<cells.length; index++)
+		{
+			board.set(i, index, cells[index]);
+		}
+
+		return oldRowElem;
+	}
+
+	/**
+	 * Changes value of colHead at index i to be v. Changes the ith column of grid using v, the row heads, and op.
+	 * Return old value of colHead from index i. Throws IndexOutOfBoundsException for invalid index.
+	 * O(R) where R is the number of rows of the grid, O(1) if v is the old value.
+	 * @param i Position on colHead where to change the value and of the board where to change column values.
+	 * @param v int value to be added to colHead.
+	 * @return int value of the old element from colHead.
+	 */
+	public int setCol(int i, int v){
+
+		// reseting position (i) in colHead with new value (v)
+		int oldColElem = colHead.set(i, v);
+		if (oldColElem == v)	// the cells of column (i) stay the same
+			return oldColElem;
+
+		// reseting each element of the board from column (i) with the new calculated value
+		int[] cells = new int[rowHead.size()];
+		op.combineColumn(rowHead.elements(), v, cells, cells.length);
+		for(int index=0; index<cells.length; index++)
+		{
+			board.set(index, i, cells[index]);
+		}
+
+		return oldColElem;
+	}
+
+
+	/**
+	 * Returns the number of characters of the decimal text of value, without building it. O(1).
+	 * @param value int value whose text is measured.
+	 * @return int value. Length of the text of value (with its minus sign).
+	 */
+	private static int textLength(int value)
+	{
+		int length = (value < 0) ? 2 : 1;
+		for (long rest = Math.abs((long) value); rest >= 10; rest /= 10)
+			length++;
+		return length;
+	}
+
+
+	/**
+	 * Appends value to sb aligned to the right in a field of width characters (a longer text is not cut).
+	 * @param sb StringBuilder where the value is appended.
+	 * @param value int value to be appended.
+	 * @param width int value. Width of the field.
+	 */
+	private static void appendPadded(StringBuilder sb, int value, int width)
+	{
+		for (int i=textLength(value); i<width; i++)
+			sb.append(' ');
+		sb.append(value);
+	}
+
+
+	/**
+	 *  Returns the width used to print the specified column: one more than its longest cell text. O(R).
+	 *  @param colIndex column index to specify which column of the grid to check width
+	 *  @return an integer to be used for the printing of the column
+	 */
+	private int getColTextWidth(int colIndex){
+		int longest = 0;
+		for (int i=0; i<getSizeRow(); i++)
+			longest = Math.max(longest, textLength(board.get(i, colIndex)));
+		return longest + 1;
+	}
+
+	/**
+	 *  Returns the width used to print the row heads: one more than the longest row head text. O(R).
+	 *  @return an integer to be used for the printing of the rowHead
+	 */
+	private int getRowHeadTextWidth(){
+		int longest = 0;
+		for (int i=0; i<getSizeRow(); i++)
+			longest = Math.max(longest, textLength(rowHead.get(i)));
+		return longest + 1;
+	}
+
+
+	/**
+	 *  Construct a string representation of the table, in a single pass over the cells once the widths
+	 *  of the columns are known. No cell gets boxed. O(CR).
+	 *  @return a string representation of the table
+	 */
+	@Override
+	public String toString(){
+
+		if(getSizeRow() == 0 && getSizeCol()==0 ){ return "Empty Table"; }
+
+		// decide how many chars to use for rowHead and for every column
+		int rowHeadWidth = getRowHeadTextWidth();
+		int totalWidth = rowHeadWidth;
+		int[] colWidths = new int[getSizeCol()];
+		for (int j=0; j<getSizeCol(); j++){
+			colWidths[j] = getColTextWidth(j);
+			totalWidth += colWidths[j]+1;
+		}
+
+		// basic info of op and size
+		StringBuilder sb = new StringBuilder(128 + (getSizeRow()+2)*(totalWidth+1));
+		sb.append("============================\nTable\n");
+		sb.append("Operation: ").append(op.getClass()).append("\n");
+		sb.append("Size: ").append(getSizeRow()).append(" rows, ").append(getSizeCol()).append(" cols\n");
+
+		// colHead
+		for (int j=0; j<rowHeadWidth; j++)
+			sb.append(' ');
+		for (int j=0; j<getSizeCol(); j++){
+			sb.append('|');
+			appendPadded(sb, colHead.get(j), colWidths[j]);
+		}
+		sb.append('\n');
+		for (int j=0; j<totalWidth; j++)
+			sb.append('-');
+		sb.append('\n');
+
+		// row by row
+		for (int i=0; i<getSizeRow(); i++){
+			appendPadded(sb, rowHead.get(i), rowHeadWidth);
+			for (int j=0; j<getSizeCol(); j++){
+				sb.append('|');
+				appendPadded(sb, board.get(i,j), colWidths[j]);
+			}
+			sb.append('\n');
+		}
+		sb.append("============================\n");
+		return sb.toString();
+
+	}
+
+
+	/**
+	 * This main method is used to run a trial that tests the performance of the class IntTable.
+	 * @param args Command line parameters for the, which are not necessary for this particular class.
+	 */
+	public static void main(String[] args){
+		IntTable itable = new IntTable(new IntegerAdder());
+		for (int i=0;i<5; i++){
+			itable.addRow(itable.getSizeRow(),i+1);
+			itable.addCol(0,(i+1)*10);
+		}
+		if (itable.getSizeRow()==5 && itable.getSizeCol()==5 && itable.getCell(0, 0)==51
+			&& itable.getCell(4, 0)==55 && itable.getCell(3, 4)==14 ){
+			System.out.println("Yay 1");
+		}
+		System.out.println(itable.toString());
+
+		itable.setOp(new IntegerTimer());
+		if (itable.getSizeRow()==5 && itable.getSizeCol()==5 && itable.getCell(0, 0)==50
+			&& itable.getCell(4, 0)==250 && itable.getCell(3, 4)==40 ){
+			System.out.println("Yay 2");
+		}
+
+		itable.removeRow(0);
+		itable.removeCol(4);
+		itable.setRow(0, 7);
+		itable.setOp((a, b) -> a - b);
+		if (itable.getSizeRow()==4 && itable.getSizeCol()==4 && itable.getCell(0, 0)==-43
+			&& itable.getCell(3, 3)==-15 ){
+			System.out.println("Yay 3");
+		}
+		System.out.println(itable.toString());
+
+		// the same table with its cells off the heap, which cannot be used once closed
+		boolean offHeap = false;
+		boolean closed = false;
+		IntTable otable = new IntTable(new IntegerAdder(), true);
+		try (otable){
+			for (int i=0;i<5; i++){
+				otable.addRow(otable.getSizeRow(),i+1);
+				otable.addCol(0,(i+1)*10);
+			}
+			otable.removeRow(0);
+			otable.removeCol(4);
+			otable.setOp(new IntegerTimer());
+			offHeap = otable.getSizeRow()==4 && otable.getSizeCol()==4 && otable.getCell(0, 0)==100
+				&& otable.getCell(3, 3)==100;
+		}
+		try {
+			otable.getCell(0, 0);
+		}
+		catch (IllegalStateException e){
+			closed = true;
+		}
+		if (offHeap && closed){
+			System.out.println("Yay 4");
+		}
+
+		// a large table recalculated with the batch loops of IntegerTimer and with one call per cell
+		IntTable btable = new IntTable(new IntegerTimer());
+		IntTable ctable = new IntTable((a, b) -> a * b);
+		for (int i=0;i<100; i++){
+			btable.addRow(i, i-50);
+			btable.addCol(0, 3*i);
+			ctable.addRow(i, i-50);
+			ctable.addCol(0, 3*i);
+		}
+		btable.setOp(new IntegerAdder());
+		ctable.setOp((a, b) -> a + b);
+		btable.setRow(10, 1000);
+		ctable.setRow(10, 1000);
+		btable.setCol(20, -7);
+		ctable.setCol(20, -7);
+		boolean same = true;
+		for (int row=0; row<100; row++)
+			for (int col=0; col<100; col++)
+				same = same && btable.getCell(row, col)==ctable.getCell(row, col);
+		if (same && btable.getCell(10, 20)==993 && btable.getCell(99, 0)==346){
+			System.out.println("Yay 5");
+		}
+
+		// an off-heap grid rearranged at once: row 0 removed, column 0 kept, two new columns
+		try (OffHeapIntDynamicGrid ogrid = new OffHeapIntDynamicGrid()){
+			for (int i=0; i<2; i++){
+				IntDynamicArray orow = new IntDynamicArray();
+				orow.add(10*i);
+				orow.add(10*i + 1);
+				ogrid.addRow(i, orow);
+			}
+			IntDynamicArray rowOrigins = new IntDynamicArray();
+			rowOrigins.add(1);
+			IntDynamicArray colOrigins = new IntDynamicArray();
+			colOrigins.add(-1);
+			colOrigins.add(0);
+			colOrigins.add(-1);
+			ogrid.remap(rowOrigins, colOrigins);
+			if (ogrid.getNumRow()==1 && ogrid.getNumCol()==3 && ogrid.get(0, 0)==0 && ogrid.get(0, 1)==10
+				&& ogrid.get(0, 2)==0){
+				System.out.println("Yay 6");
+			}
+		}
+
+		// printed as the boxed Table prints it, also with columns but no rows
+		IntTable ptable = new IntTable(new IntegerAdder());
+		Table<Integer, Integer, Integer, IntegerAdder> qtable = new Table<>(new IntegerAdder());
+		ptable.addCol(0, 5);
+		qtable.addCol(0, 5);
+		boolean printed = ptable.toString().equals(qtable.toString());
+		for (int i=0; i<12; i++){
+			ptable.addRow(i, 37*i - 200);
+			qtable.addRow(i, 37*i - 200);
+			ptable.addCol(0, -9*i);
+			qtable.addCol(0, -9*i);
+		}
+		if (printed && ptable.toString().equals(qtable.toString())){
+			System.out.println("Yay 7");
+		}
+	}
+
+}
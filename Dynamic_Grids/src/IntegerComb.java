@@ -1,9 +1,10 @@
 /**
  * An abstract class that implements Combiner with Integer operands and Integer result. 
+ * It also implements IntCombiner so the same operator can be used by IntTable.
  * @author CS310 GMU
  */
  
-abstract class IntegerComb implements Combiner<Integer,Integer,Integer> { }
+abstract class IntegerComb implements Combiner<Integer,Integer,Integer>, IntCombiner { }
 
 /**
  * An integer combiner for addition operation. 
@@ -24,6 +25,92 @@ class IntegerAdder extends IntegerComb{
 	public Integer combine(Integer operand1, Integer operand2){
 		return operand1 + operand2;
 	}
+
+	/**
+	 *  Add two ints and return the total.
+	 *  @param operand1 first int to add
+	 *  @param operand2 second int to add
+	 *  @return total of the two  operands
+	 */
+
+	@Override
+	public int combine(int operand1, int operand2){
+		return operand1 + operand2;
+	}
+
+	/**
+	 *  Add operand1 to every integer of operands2 and append the totals to results,
+	 *  in a loop with no call per element.
+	 *  @param operand1 first integer of every total
+	 *  @param operands2 second integers
+	 *  @param results list where the totals are appended
+	 */
+	@Override
+	public void combineRow(Integer operand1, DynamicArray<Integer> operands2, DynamicArray<Integer> results){
+		int value = operand1;
+		for (int i=0; i<operands2.size(); i++)
+			results.add(value + operands2.get(i));
+	}
+
+	/**
+	 *  Add every integer of operands1 to operand2 and append the totals to results,
+	 *  in a loop with no call per element.
+	 *  @param operands1 first integers
+	 *  @param operand2 second integer of every total
+	 *  @param results list where the totals are appended
+	 */
+	@Override
+	public void combineColumn(DynamicArray<Integer> operands1, Integer operand2, DynamicArray<Integer> results){
+		int value = operand2;
+		for (int i=0; i<operands1.size(); i++)
+			results.add(operands1.get(i) + value);
+	}
+
+	/**
+	 *  Add operand1 to the first length ints of operands2, in a loop the JIT can vectorize.
+	 *  @param operand1 first int of every total
+	 *  @param operands2 second ints
+	 *  @param results array where the totals are written
+	 *  @param length number of totals
+	 */
+	@Override
+	public void combineRow(int operand1, int[] operands2, int[] results, int length){
+		for (int i=0; i<length; i++)
+			results[i] = operand1 + operands2[i];
+	}
+
+	/**
+	 *  Add the first length ints of operands1 to operand2, in a loop the JIT can vectorize.
+	 *  @param operands1 first ints
+	 *  @param operand2 second int of every total
+	 *  @param results array where the totals are written
+	 *  @param length number of totals
+	 */
+	@Override
+	public void combineColumn(int[] operands1, int operand2, int[] results, int length){
+		for (int i=0; i<length; i++)
+			results[i] = operands1[i] + operand2;
+	}
+
+	/**
+	 *  Add every int of operands1 in [from1, to1) to the first numCol ints of operands2,
+	 *  row by row, in loops the JIT can vectorize.
+	 *  @param operands1 first ints
+	 *  @param from1 index of the first int of operands1
+	 *  @param to1 index after the last int of operands1
+	 *  @param operands2 second ints
+	 *  @param numCol number of ints of operands2
+	 *  @param results array where the totals are written
+	 */
+	@Override
+	public void combineBlock(int[] operands1, int from1, int to1, int[] operands2, int numCol, int[] results){
+		for (int i=from1; i<to1; i++){
+			int value = operands1[i];
+			int start = (i-from1)*numCol;
+			for (int j=0; j<numCol; j++)
+				results[start + j] = value + operands2[j];
+		}
+	}
 	
 	/**
 	 *  A main method to test/demo
@@ -54,6 +141,91 @@ class IntegerAdder extends IntegerComb{
 		return operand1 * operand2;
 	}
 
+	/**
+	 *  Multiply two ints and return the product.
+	 *  @param operand1 first int as the multiplicand
+	 *  @param operand2 second int as the multiplier
+	 *	@return product of the two operands
+	 */
+	@Override
+	public int combine(int operand1, int operand2){
+		return operand1 * operand2;
+	}
+
+	/**
+	 *  Multiply operand1 by every integer of operands2 and append the products to results,
+	 *  in a loop with no call per element.
+	 *  @param operand1 first integer of every product
+	 *  @param operands2 second integers
+	 *  @param results list where the products are appended
+	 */
+	@Override
+	public void combineRow(Integer operand1, DynamicArray<Integer> operands2, DynamicArray<Integer> results){
+		int value = operand1;
+		for (int i=0; i<operands2.size(); i++)
+			results.add(value * operands2.get(i));
+	}
+
+	/**
+	 *  Multiply every integer of operands1 by operand2 and append the products to results,
+	 *  in a loop with no call per element.
+	 *  @param operands1 first integers
+	 *  @param operand2 second integer of every product
+	 *  @param results list where the products are appended
+	 */
+	@Override
+	public void combineColumn(DynamicArray<Integer> operands1, Integer operand2, DynamicArray<Integer> results){
+		int value = operand2;
+		for (int i=0; i<operands1.size(); i++)
+			results.add(operands1.get(i) * value);
+	}
+
+	/**
+	 *  Multiply operand1 by the first length ints of operands2, in a loop the JIT can vectorize.
+	 *  @param operand1 first int of every product
+	 *  @param operands2 second ints
+	 *  @param results array where the products are written
+	 *  @param length number of products
+	 */
+	@Override
+	public void combineRow(int operand1, int[] operands2, int[] results, int length){
+		for (int i=0; i<length; i++)
+			results[i] = operand1 * operands2[i];
+	}
+
+	/**
+	 *  Multiply the first length ints of operands1 by operand2, in a loop the JIT can vectorize.
+	 *  @param operands1 first ints
+	 *  @param operand2 second int of every product
+	 *  @param results array where the products are written
+	 *  @param length number of products
+	 */
+	@Override
+	public void combineColumn(int[] operands1, int operand2, int[] results, int length){
+		for (int i=0; i<length; i++)
+			results[i] = operands1[i] * operand2;
+	}
+
+	/**
+	 *  Multiply every int of operands1 in [from1, to1) by the first numCol ints of operands2,
+	 *  row by row, in loops the JIT can vectorize.
+	 *  @param operands1 first ints
+	 *  @param from1 index of the first int of operands1
+	 *  @param to1 index after the last int of operands1
+	 *  @param operands2 second ints
+	 *  @param numCol number of ints of operands2
+	 *  @param results array where the products are written
+	 */
+	@Override
+	public void combineBlock(int[] operands1, int from1, int to1, int[] operands2, int numCol, int[] results){
+		for (int i=from1; i<to1; i++){
+			int value = operands1[i];
+			int start = (i-from1)*numCol;
+			for (int j=0; j<numCol; j++)
+				results[start + j] = value * operands2[j];
+		}
+	}
+
 	/**
 	 *  A main method to test/demo
 	 *  @param args not used
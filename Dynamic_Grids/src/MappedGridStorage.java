@@ -0,0 +1,236 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Grid storage engine that reads the cells of a grid saved in a table file (see TableFile) straight
+ * from the memory-mapped file: a cell is only decoded when it is read, so opening the grid does not
+ * depend on its number of cells, and the operating system pages the file in as cells are read.
+ * The grid is read-only while it stays mapped: the first change copies every cell into a
+ * FlatGridStorage (O(RC)), which holds the grid from then on.
+ *
+ * @author Sergio Delgado
+ *
+ * @param <T>  Type of the elements inside the grid cells.
+ */
+public class MappedGridStorage<T> implements GridStorage<T>
+{
+	/**
+	 * Buffer of the mapped file (only read with absolute positions, so it can be shared by threads)
+	 */
+	private final ByteBuffer file;
+	/**
+	 * Codec of the cells
+	 */
+	private final Codec<T> codec;
+	/**
+	 * position in file of the first cell record (offsets of the index are relative to it)
+	 */
+	private final int recordsStart;
+	/**
+	 * position in file of the index: one int offset per cell, in row-major order
+	 */
+	private final int indexStart;
+	/**
+	 * number of rows of the mapped grid
+	 */
+	private final int numRow;
+	/**
+	 * number of columns of the mapped grid
+	 */
+	private final int numCol;
+	/**
+	 * Engine that holds the grid once it was changed (null while the grid is read from the file)
+	 */
+	private GridStorage<T> copy;
+
+
+	/**
+	 * Constructor, which creates a grid over the cells of a mapped table file.
+	 * @param file Buffer of the mapped file.
+	 * @param codec Codec of the cells.
+	 * @param recordsStart int value. Position in file of the first cell record.
+	 * @param indexStart int value. Position in file of the index of the cells.
+	 * @param numRow int value. Number of rows of the grid.
+	 * @param numCol int value. Number of columns of the grid.
+	 */
+	MappedGridStorage(ByteBuffer file, Codec<T> codec, int recordsStart, int indexStart, int numRow, int numCol)
+	{
+		this.file = file;
+		this.codec = codec;
+		this.recordsStart = recordsStart;
+		this.indexStart = indexStart;
+		this.numRow = numRow;
+		this.numCol = (numRow == 0) ? 0 : numCol;
+		copy = null;
+	}
+
+
+	/**
+	 * Returns True while the grid is still read from the mapped file (it was never changed). O(1).
+	 * @return True only if no cell was copied out of the file.
+	 */
+	public boolean isMapped()
+	{
+		return copy == null;
+	}
+
+
+	/**
+	 * Returns the number of rows in the grid. O(1).
+	 * @return int value. Number of rows in the grid.
+	 */
+	public int getNumRow()
+	{
+		return (copy == null) ? numRow : copy.getNumRow();
+	}
+
+
+	/**
+	 * Returns the number of columns in the grid. O(1).
+	 * @return int value. Number of columns in the grid.
+	 */
+	public int getNumCol()
+	{
+		return (copy == null) ? numCol : copy.getNumCol();
+	}
+
+
+	/**
+	 * Returns the value of the element of the grid at indexRow and indexCol, decoding it from the
+	 * file while the grid is mapped. O(1) plus the decoding.
+	 * @param indexRow int value. Row index on the grid.
+	 * @param indexCol int value. Column index on the grid.
+	 * @return Generic type element at the cell pointed.
+	 */
+	public T get(int indexRow, int indexCol)
+	{
+		if (copy != null)
+			return copy.get(indexRow, indexCol);
+
+		if (indexRow>=0 && indexRow<numRow && indexCol>=0 && indexCol<numCol)
+		{
+			int offset = file.getInt(indexStart + Integer.BYTES*(indexRow*numCol + indexCol));
+			return TableFile.readRecord(file, recordsStart + offset, codec);
+		}
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+
+	/**
+	 * Changes value at a cell of the grid located at a specific indexRow and indexCol.
+	 * O(RC) the first time the grid is changed, O(1) afterwards.
+	 * @param indexRow Row position in the grid.
+	 * @param indexCol Column position in the grid.
+	 * @param value Generic type value of the new element in the grid.
+	 * @return Generic type value of the old element that got replaced.
+	 */
+	public T set(int indexRow, int indexCol, T value)
+	{
+		return materialize().set(indexRow, indexCol, value);
+	}
+
+
+	/**
+	 * Copy values from newRow to add a row at the row index specified (after copying the grid out of
+	 * the file, the first time).
+	 * @param index Position of the row of the grid where we are adding the new row.
+	 * @param newRow Dynamic array that holds the element values of the new row.
+	 * @return True only if the addition of the row happened.
+	 */
+	public boolean addRow(int index, DynamicArray<T> newRow)
+	{
+		return materialize().addRow(index, newRow);
+	}
+
+
+	/**
+	 * Copies values from newCol to add a column at the column index specified (after copying the grid
+	 * out of the file, the first time).
+	 * @param index Column of the grid in which to add the new column (newCol)
+	 * @param newCol Array of values of the column that will be added to the grid
+	 * @return True only if the addition of the column happened.
+	 */
+	public boolean addCol(int index, DynamicArray<T> newCol)
+	{
+		return materialize().addCol(index, newCol);
+	}
+
+
+	/**
+	 * Removes and returns the row at index (after copying the grid out of the file, the first time).
+	 * @param index Row position to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed row.
+	 */
+	public DynamicArray<T> removeRow(int index)
+	{
+		return materialize().removeRow(index);
+	}
+
+
+	/**
+	 * Removes and returns the column at index (after copying the grid out of the file, the first time).
+	 * @param index Position of the column to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed column.
+	 */
+	public DynamicArray<T> removeCol(int index)
+	{
+		return materialize().removeCol(index);
+	}
+
+
+	/**
+	 * Returns a grid with the cells of this grid. O(1) while the grid is mapped, since the file does
+	 * not change: both grids read the same mapped file until they are changed.
+	 * @return New storage engine with the same cells.
+	 */
+	@Override
+	public GridStorage<T> snapshot()
+	{
+		if (copy != null)
+			return copy.snapshot();
+		return new MappedGridStorage<T>(file, codec, recordsStart, indexStart, numRow, numCol);
+	}
+
+
+	/**
+	 * Returns True once the grid was copied out of the file to an engine that can set different cells
+	 * from several threads at once (the first write copies the grid, so it cannot be concurrent).
+	 * @return True only if concurrent calls to set on different cells are safe.
+	 */
+	@Override
+	public boolean supportsConcurrentSet()
+	{
+		return copy != null && copy.supportsConcurrentSet();
+	}
+
+
+	/**
+	 * Gets the copy of the grid ready to be set from several threads at once.
+	 * @param rowFrom first row that will be set.
+	 * @param rowTo row after the last row that will be set.
+	 */
+	@Override
+	public void prepareConcurrentSet(int rowFrom, int rowTo)
+	{
+		if (copy != null)
+			copy.prepareConcurrentSet(rowFrom, rowTo);
+	}
+
+
+	/**
+	 * Returns the engine that holds the grid once it was changed, copying every cell out of the file
+	 * the first time. O(RC) the first time, O(1) afterwards.
+	 * @return Storage engine that holds the grid.
+	 */
+	private GridStorage<T> materialize()
+	{
+		if (copy == null)
+		{
+			GridStorage<T> flat = new FlatGridStorage<T>(Math.max(numRow, 1), Math.max(numCol, 1));
+			GridStorage.copy(this, flat);
+			copy = flat;
+		}
+		return copy;
+	}
+
+}
@@ -0,0 +1,500 @@
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Counters and latency histograms of the operations of dynamic arrays, dynamic grids and tables.
+ * Instances are not measured unless they are given a Metrics with setMetrics (and they stop when they
+ * are given null), so an instance that is not measured only pays for one null check per operation.
+ * One Metrics can be shared by any number of instances and threads: every counter and every bucket is
+ * a LongAdder. Latencies are kept in histograms of 64 buckets of powers of two of nanoseconds, so
+ * recording one is O(1) and percentiles are known within a factor of two. The values can be read at
+ * once with snapshot, or from JMX once the Metrics is registered.
+ *
+ * @author Sergio Delgado
+ */
+public class Metrics
+{
+	/**
+	 * Events that are counted.
+	 */
+	public enum Counter
+	{
+		/**
+		 * Combinations of a row head and a column head calculated by a table (cells recalculated).
+		 */
+		COMBINES,
+		/**
+		 * Changes of a head or of the operator of a table that recalculated nothing, because the new
+		 * value was equal to the old one.
+		 */
+		SKIPPED_CHANGES,
+		/**
+		 * Times a dynamic array moved its elements to a new underlying array, growing or shrinking.
+		 */
+		RESIZES,
+		/**
+		 * Elements copied by those moves.
+		 */
+		ELEMENTS_COPIED,
+		/**
+		 * Elements shifted inside a dynamic array to open or close a gap when adding or removing.
+		 */
+		ELEMENTS_SHIFTED,
+		/**
+		 * Cells read from a dynamic grid.
+		 */
+		CELL_READS,
+		/**
+		 * Cells written to a dynamic grid (not counting the ones added with whole rows or columns).
+		 */
+		CELL_WRITES
+	}
+
+	/**
+	 * Operations whose latency is recorded.
+	 */
+	public enum Timer
+	{
+		/**
+		 * Table.setOp.
+		 */
+		SET_OP,
+		/**
+		 * Table.setRow.
+		 */
+		SET_ROW,
+		/**
+		 * Table.setCol.
+		 */
+		SET_COL,
+		/**
+		 * Table.addRow.
+		 */
+		ADD_ROW,
+		/**
+		 * Table.addCol.
+		 */
+		ADD_COL,
+		/**
+		 * Table.removeRow.
+		 */
+		REMOVE_ROW,
+		/**
+		 * Table.removeCol.
+		 */
+		REMOVE_COL,
+		/**
+		 * DynamicGrid.addRow.
+		 */
+		GRID_ADD_ROW,
+		/**
+		 * DynamicGrid.addCol.
+		 */
+		GRID_ADD_COL,
+		/**
+		 * DynamicGrid.removeRow.
+		 */
+		GRID_REMOVE_ROW,
+		/**
+		 * DynamicGrid.removeCol.
+		 */
+		GRID_REMOVE_COL
+	}
+
+	/**
+	 * number of buckets of a histogram: bucket 0 holds latencies of 0 ns and bucket b holds the ones
+	 * in [2^(b-1), 2^b) ns
+	 */
+	public static final int BUCKETS = 64;
+
+	private final LongAdder[] counters;		// one per Counter
+	private final LongAdder[][] buckets;	// one histogram per Timer
+	private final LongAdder[] totals;		// nanoseconds recorded per Timer
+
+
+	/**
+	 * Constructor with every counter and histogram at zero.
+	 */
+	public Metrics()
+	{
+		counters = new LongAdder[Counter.values().length];
+		for (int i=0; i<counters.length; i++)
+			counters[i] = new LongAdder();
+
+		buckets = new LongAdder[Timer.values().length][BUCKETS];
+		totals = new LongAdder[Timer.values().length];
+		for (int timer=0; timer<buckets.length; timer++)
+		{
+			for (int bucket=0; bucket<BUCKETS; bucket++)
+				buckets[timer][bucket] = new LongAdder();
+			totals[timer] = new LongAdder();
+		}
+	}
+
+
+	/**
+	 * Adds amount to a counter. O(1).
+	 * @param counter Counter to be increased.
+	 * @param amount long value. Number of events.
+	 */
+	public void add(Counter counter, long amount)
+	{
+		counters[counter.ordinal()].add(amount);
+	}
+
+
+	/**
+	 * Records the latency of one operation. O(1).
+	 * @param timer Operation measured.
+	 * @param nanos long value. Latency, in nanoseconds (negative values count as 0).
+	 */
+	public void record(Timer timer, long nanos)
+	{
+		nanos = Math.max(nanos, 0);
+		buckets[timer.ordinal()][bucket(nanos)].increment();
+		totals[timer.ordinal()].add(nanos);
+	}
+
+
+	/**
+	 * Records the latency of one operation that started at start (a value of System.nanoTime). O(1).
+	 * @param timer Operation measured.
+	 * @param start long value. System.nanoTime when the operation started.
+	 */
+	void recordSince(Timer timer, long start)
+	{
+		record(timer, System.nanoTime() - start);
+	}
+
+
+	/**
+	 * Returns the bucket of a latency. O(1).
+	 * @param nanos long value. Latency, in nanoseconds (not negative).
+	 * @return int value. Bucket of the latency, from 0 to BUCKETS-1.
+	 */
+	static int bucket(long nanos)
+	{
+		return Long.SIZE - Long.numberOfLeadingZeros(nanos);
+	}
+
+
+	/**
+	 * Returns the values of every counter and histogram. Each value is read atomically, but operations
+	 * recorded while the snapshot is taken may show in some values and not in others. O(1) (a fixed
+	 * number of values).
+	 * @return Snapshot of the metrics.
+	 */
+	public Snapshot snapshot()
+	{
+		long[] counterValues = new long[counters.length];
+		for (int i=0; i<counters.length; i++)
+			counterValues[i] = counters[i].sum();
+
+		long[][] bucketValues = new long[buckets.length][BUCKETS];
+		long[] totalValues = new long[totals.length];
+		for (int timer=0; timer<buckets.length; timer++)
+		{
+			for (int bucket=0; bucket<BUCKETS; bucket++)
+				bucketValues[timer][bucket] = buckets[timer][bucket].sum();
+			totalValues[timer] = totals[timer].sum();
+		}
+		return new Snapshot(counterValues, bucketValues, totalValues);
+	}
+
+
+	/**
+	 * Sets every counter and histogram back to zero. Operations recorded meanwhile may be lost. O(1).
+	 */
+	public void reset()
+	{
+		for (LongAdder counter : counters)
+			counter.reset();
+		for (int timer=0; timer<buckets.length; timer++)
+		{
+			for (LongAdder bucket : buckets[timer])
+				bucket.reset();
+			totals[timer].reset();
+		}
+	}
+
+
+	/**
+	 * Registers these metrics in the platform MBean server as an MXBean (see MetricsMXBean), so they
+	 * can be read with JConsole or any other JMX client.
+	 * @param name String with the JMX object name, e.g. "dynamicgrids:type=Metrics,name=prices".
+	 * @return Object name of the MXBean.
+	 * @throws IllegalArgumentException if name is not a valid object name, or it is already registered.
+	 */
+	public ObjectName register(String name)
+	{
+		try
+		{
+			ObjectName objectName = new ObjectName(name);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			server.registerMBean(new StandardMBean(new Bean(), MetricsMXBean.class, true), objectName);
+			return objectName;
+		}
+		catch (JMException e)
+		{
+			throw new IllegalArgumentException("Metrics cannot be registered as " + name + ".", e);
+		}
+	}
+
+
+	/**
+	 * Removes an MXBean registered with register from the platform MBean server.
+	 * @param name Object name returned by register.
+	 * @throws IllegalArgumentException if name is not registered.
+	 */
+	public static void unregister(ObjectName name)
+	{
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		}
+		catch (JMException e)
+		{
+			throw new IllegalArgumentException("Metrics are not registered as " + name + ".", e);
+		}
+	}
+
+
+	/**
+	 * Management interface of the metrics in JMX: every map goes from the name of a counter or of an
+	 * operation to its value, and latencies are in nanoseconds.
+	 */
+	public interface MetricsMXBean
+	{
+		/**
+		 * Returns the value of every counter.
+		 * @return Map from the name of each counter to its value.
+		 */
+		Map<String, Long> getCounters();
+
+		/**
+		 * Returns the number of times every operation was recorded.
+		 * @return Map from the name of each operation to its count.
+		 */
+		Map<String, Long> getOperationCounts();
+
+		/**
+		 * Returns the mean latency of every operation recorded.
+		 * @return Map from the name of each operation to its mean latency.
+		 */
+		Map<String, Long> getMeanNanos();
+
+		/**
+		 * Returns the median latency of every operation recorded (upper bound of its bucket).
+		 * @return Map from the name of each operation to its median latency.
+		 */
+		Map<String, Long> getMedianNanos();
+
+		/**
+		 * Returns the 99th percentile of the latency of every operation recorded (upper bound of its bucket).
+		 * @return Map from the name of each operation to its 99th percentile.
+		 */
+		Map<String, Long> getP99Nanos();
+
+		/**
+		 * Sets every counter and histogram back to zero.
+		 */
+		void reset();
+	}
+
+
+	/**
+	 * MXBean that reads a snapshot of the metrics on every call.
+	 */
+	private class Bean implements MetricsMXBean
+	{
+		@Override
+		public Map<String, Long> getCounters()
+		{
+			Snapshot snapshot = snapshot();
+			Map<String, Long> values = new TreeMap<String, Long>();
+			for (Counter counter : Counter.values())
+				values.put(counter.name(), snapshot.get(counter));
+			return values;
+		}
+
+		@Override
+		public Map<String, Long> getOperationCounts()
+		{
+			Snapshot snapshot = snapshot();
+			Map<String, Long> values = new TreeMap<String, Long>();
+			for (Timer timer : Timer.values())
+				values.put(timer.name(), snapshot.count(timer));
+			return values;
+		}
+
+		@Override
+		public Map<String, Long> getMeanNanos()
+		{
+			Snapshot snapshot = snapshot();
+			Map<String, Long> values = new TreeMap<String, Long>();
+			for (Timer timer : Timer.values())
+				values.put(timer.name(), snapshot.meanNanos(timer));
+			return values;
+		}
+
+		@Override
+		public Map<String, Long> getMedianNanos()
+		{
+			return percentiles(0.5);
+		}
+
+		@Override
+		public Map<String, Long> getP99Nanos()
+		{
+			return percentiles(0.99);
+		}
+
+		/**
+		 * Returns a percentile of the latency of every operation.
+		 * @param fraction double value. Percentile, from 0 to 1.
+		 * @return Map from the name of each operation to the percentile.
+		 */
+		private Map<String, Long> percentiles(double fraction)
+		{
+			Snapshot snapshot = snapshot();
+			Map<String, Long> values = new TreeMap<String, Long>();
+			for (Timer timer : Timer.values())
+				values.put(timer.name(), snapshot.percentileNanos(timer, fraction));
+			return values;
+		}
+
+		@Override
+		public void reset()
+		{
+			Metrics.this.reset();
+		}
+	}
+
+
+	/**
+	 * Values of the counters and histograms of a Metrics at one moment. It never changes.
+	 */
+	public static class Snapshot
+	{
+		private final long[] counters;		// one per Counter
+		private final long[][] buckets;		// one histogram per Timer
+		private final long[] totals;		// nanoseconds recorded per Timer
+
+		/**
+		 * Constructor with the values read.
+		 * @param counters long array with the value of every counter.
+		 * @param buckets long arrays with the histogram of every operation.
+		 * @param totals long array with the nanoseconds recorded for every operation.
+		 */
+		private Snapshot(long[] counters, long[][] buckets, long[] totals)
+		{
+			this.counters = counters;
+			this.buckets = buckets;
+			this.totals = totals;
+		}
+
+		/**
+		 * Returns the value of a counter. O(1).
+		 * @param counter Counter to be read.
+		 * @return long value. Number of events counted.
+		 */
+		public long get(Counter counter)
+		{
+			return counters[counter.ordinal()];
+		}
+
+		/**
+		 * Returns the number of times an operation was recorded. O(1).
+		 * @param timer Operation measured.
+		 * @return long value. Number of latencies recorded.
+		 */
+		public long count(Timer timer)
+		{
+			long count = 0;
+			for (long bucket : buckets[timer.ordinal()])
+				count += bucket;
+			return count;
+		}
+
+		/**
+		 * Returns the sum of the latencies recorded for an operation. O(1).
+		 * @param timer Operation measured.
+		 * @return long value. Total time, in nanoseconds.
+		 */
+		public long totalNanos(Timer timer)
+		{
+			return totals[timer.ordinal()];
+		}
+
+		/**
+		 * Returns the mean latency of an operation. O(1).
+		 * @param timer Operation measured.
+		 * @return long value. Mean latency, in nanoseconds (0 if it was never recorded).
+		 */
+		public long meanNanos(Timer timer)
+		{
+			long count = count(timer);
+			return (count == 0) ? 0 : totals[timer.ordinal()] / count;
+		}
+
+		/**
+		 * Returns the histogram of the latencies of an operation. O(1).
+		 * @param timer Operation measured.
+		 * @return long array of BUCKETS counts: bucket 0 counts latencies of 0 ns and bucket b the
+		 *         ones in [2^(b-1), 2^b) ns.
+		 */
+		public long[] histogram(Timer timer)
+		{
+			return buckets[timer.ordinal()].clone();
+		}
+
+		/**
+		 * Returns a percentile of the latency of an operation: the upper bound of the bucket where it
+		 * falls, so it is at most twice the exact value. O(1).
+		 * @param timer Operation measured.
+		 * @param fraction double value. Percentile, from 0 (the fastest) to 1 (the slowest).
+		 * @return long value. Percentile, in nanoseconds (0 if the operation was never recorded).
+		 * @throws IllegalArgumentException if fraction is not between 0 and 1.
+		 */
+		public long percentileNanos(Timer timer, double fraction)
+		{
+			if (!(fraction >= 0 && fraction <= 1))
+				throw new IllegalArgumentException("Percentile must be between 0 and 1.");
+
+			long count = count(timer);
+			if (count == 0)
+				return 0;
+			long rank = Math.max((long) Math.ceil(fraction * count), 1);
+			long seen = 0;
+			int bucket = 0;
+			while (seen + buckets[timer.ordinal()][bucket] < rank)
+				seen += buckets[timer.ordinal()][bucket++];
+			return (1L << bucket) - 1;	// Long.MAX_VALUE for the last bucket
+		}
+
+		@Override
+		public String toString()
+		{
+			StringBuilder sb = new StringBuilder("Metrics");
+			for (Counter counter : Counter.values())
+				sb.append(' ').append(counter.name()).append('=').append(get(counter));
+			for (Timer timer : Timer.values())
+			{
+				long count = count(timer);
+				if (count > 0)
+					sb.append(' ').append(timer.name()).append("(n=").append(count)
+						.append(" mean=").append(meanNanos(timer))
+						.append("ns p99=").append(percentileNanos(timer, 0.99)).append("ns)");
+			}
+			return sb.toString();
+		}
+	}
+
+}
@@ -0,0 +1,334 @@
+/**
+ * Grid storage engine that keeps every row of the grid in its own dynamic array.
+ * This is the original storage of DynamicGrid. The list of rows and every row can also be kept in
+ * circular dynamic arrays, which makes adding or removing the first row or column as cheap as the last.
+ * Snapshots share the rows of the grid: a row is only copied the first time it changes afterwards.
+ *
+ * @author Sergio Delgado
+ *
+ * @param <T>  Type of the elements inside the grid cells.
+ */
+public class NestedGridStorage<T> implements GridStorage<T>
+{
+	/**
+	 * Dynamic array that holds all of the rows of the grid
+	 */
+	private DynamicArray<DynamicArray<T>> storage;
+	/**
+	 * True if the list of rows and every row are circular dynamic arrays
+	 */
+	private boolean circular;
+	/**
+	 * Token of the rows this grid may change in place (a new one after every snapshot)
+	 */
+	private Object owner;
+	/**
+	 * Token of the grid that may change each row in place: a row whose token is not owner is shared
+	 * with a snapshot and is copied before it changes (null until the first snapshot)
+	 */
+	private DynamicArray<Object> rowOwners;
+
+	/**
+	 * Constructor, which creates an empty grid of 0 rows and 0 cols
+	 */
+	public NestedGridStorage()
+	{
+		this(false);
+	}
+
+
+	/**
+	 * Constructor, which creates an empty grid of 0 rows and 0 cols, kept in circular dynamic arrays
+	 * if circular is True.
+	 * @param circular True to keep the list of rows and every row in circular dynamic arrays.
+	 */
+	public NestedGridStorage(boolean circular)
+	{
+		this.circular = circular;
+		if (circular)
+			storage = new CircularDynamicArray<DynamicArray<T>>();
+		else
+			storage = new DynamicArray<DynamicArray<T>>();
+	}
+
+
+	/**
+	 * Returns the number of rows in the grid. O(1).
+	 * @return int value. Number of rows in the grid.
+	 */
+	public int getNumRow()
+	{
+		return storage.size();
+	}
+
+
+	/**
+	 * Returns the number of columns in the grid. O(1).
+	 * @return int value. Number of columns in the grid.
+	 */
+	public int getNumCol()
+	{
+		int numCols = 0;
+		if (storage.size() > 0)    // if there is at least one row in grid
+			numCols = storage.get(0).size();  // return size of first row (number of columns)
+
+		return numCols;
+	}
+
+
+	/**
+	 * It returns the value of the element of the grid at indexRow and indexCol. O(1).
+	 * Throws an exception if index is out of bounds (handled by DynamicArray.get(i)).
+	 * @param indexRow int value. Row index on the grid.
+	 * @param indexCol int value. Column index on the grid.
+	 * @return Generic type element at the cell pointed.
+	 */
+	public T get(int indexRow, int indexCol)
+	{
+		return storage.get(indexRow).get(indexCol);
+	}
+
+
+	/**
+	 * Changes value at a cell of the grid located at a specific indexRow and indexCol. O(1).
+	 * Throws an exception if the index out of bounds (handled by DynamicArray.set(i)).
+	 * @param indexRow Row position in the grid.
+	 * @param indexCol Column position in the grid.
+	 * @param value Generic type value of the new element in the grid.
+	 * @return Generic type value of the old element that got replaced at location pointed at by the parameters.
+	 */
+	public T set(int indexRow, int indexCol, T value)
+	{
+		return ownRow(indexRow).set(indexCol,value);
+	}
+
+
+	/**
+	 * Copy values from newRow to add a row at the row index specified. O(C+R), where C is number of columns
+	 * and R is the number of rows (O(C) at either end if circular). Adds the new row, only if it matches
+	 * the size of each row of the grid.
+	 * @param index Position of the Row of the logic grid where we are adding a new value.
+	 * @param newRow Dynamic array that holds the element values of the new Row to set.
+	 * @return True only if the addition of the row happened.
+	 */
+	public boolean addRow(int index, DynamicArray<T> newRow)
+	{
+		boolean success = true;
+
+		// make a deep copy of the newRow to insert (a single bulk copy)
+		DynamicArray<T> row = circular ? new CircularDynamicArray<T>(newRow) : new DynamicArray<T>(newRow);
+
+		// if there is at least one row in the grid
+		if (storage.size() > 0)
+		{
+			// if size of newRow matches the size of first row
+			if (row.size() == storage.get(0).size())
+			{
+				storage.add(index, row);
+				if (rowOwners != null)
+					rowOwners.add(index, owner);
+			}
+
+			else
+				success = false;
+		}
+		else
+		{
+			storage.add(row);
+			if (rowOwners != null)
+				rowOwners.add(owner);
+		}
+		return success;
+	}
+
+
+	/**
+	 * Copies values from newCol to add a column at the column index specified
+	 * cannot add if the length of newCol does not match existing columns.
+	 * O(RC) where R is the number of rows and C is the number of columns of the grid (O(R) at either end
+	 * if circular).
+	 * @param index Column of the grid in which to add the new column (newCol)
+	 * @param newCol Array of values of the column that will be added to the grid
+	 * @return boolean value. It returns True only if the addition on element was successful.
+	 */
+	public boolean addCol(int index, DynamicArray<T> newCol)
+	{
+		boolean success = true;
+
+		// if size of newCol matches the size of grid column (meaning number of rows)
+		if (newCol.size() == storage.size())
+		{
+			for (int i=0; i<storage.size(); i++)
+			{
+				ownRow(i).add(index, newCol.get(i) );
+			}
+
+		}
+		else
+			success = false;
+
+		return success;
+
+	}
+
+
+	/**
+	 * Removes and returns a row at index x. It shifts rows to remove the gap.
+	 * O(R) where R is the number of rows of the grid (O(R+C) if the row is shared with a snapshot).
+	 * Throws IndexOutOfBoundsException for invalid index (handled by DynamicArray.remove(i)).
+	 * @param index Row position to be removed from the grid.
+	 * @return Dinamic Array of the generic type, containing elements of removed row.
+	 */
+	public DynamicArray<T> removeRow(int index)
+	{
+		DynamicArray<T> removedRow = ownRow(index);
+		storage.remove(index);
+		if (rowOwners != null)
+			rowOwners.remove(index);
+		return removedRow;
+	}
+
+
+	/**
+	 * Removes and returns a col at index x. It shifts columns to remove the gap.
+	 * O(RC) where R is the number of rows and C is the number of columns.
+	 * Throws IndexOutOfBoundsException for invalid index (handled by DynamicArray.remove(i)).
+	 * @param index Position of the column to be removed from the grid.
+	 * @return Dinamic Array of Generic type, containing elements of the removed column.
+	 */
+	public DynamicArray<T> removeCol(int index)
+	{
+		// removing the column (index) element from each row and add it to removedColumn
+		DynamicArray<T> removedColumn = new DynamicArray<T>(Math.max(storage.size(), 1));
+		for (int i=0; i<storage.size(); i++)
+		{
+			removedColumn.add(ownRow(i).remove(index));
+		}
+
+		return removedColumn;
+	}
+
+
+	/**
+	 * Rearranges the grid in one pass (see GridStorage.remap): a new list of rows, with one new dynamic
+	 * array per row, or none at all for the rows kept when the columns are the same. O(RC), O(R) if the
+	 * columns do not change.
+	 * @param rowOrigins Dynamic array with the old row of every new row (-1 for new rows).
+	 * @param colOrigins Dynamic array with the old column of every new column (-1 for new columns).
+	 */
+	@Override
+	public void remap(IntDynamicArray rowOrigins, IntDynamicArray colOrigins)
+	{
+		int numRow = rowOrigins.size();
+		int numCol = colOrigins.size();
+		boolean sameCols = storage.size() > 0 && getNumCol() == numCol;
+		for (int col=0; col<numCol && sameCols; col++)
+			sameCols = (colOrigins.get(col) == col);
+
+		DynamicArray<DynamicArray<T>> rows = circular ? new CircularDynamicArray<DynamicArray<T>>(Math.max(numRow, 1))
+			: new DynamicArray<DynamicArray<T>>(Math.max(numRow, 1));
+		DynamicArray<Object> owners = null;
+		if (rowOwners != null)
+			owners = circular ? new CircularDynamicArray<Object>(Math.max(numRow, 1)) : new DynamicArray<Object>(Math.max(numRow, 1));
+
+		for (int row=0; row<numRow; row++)
+		{
+			int origin = rowOrigins.get(row);
+			if (origin >= 0 && sameCols)	// the row is kept as it is (shared with a snapshot or not)
+			{
+				rows.add(storage.get(origin));
+				if (owners != null)
+					owners.add(rowOwners.get(origin));
+			}
+			else
+			{
+				DynamicArray<T> oldRow = (origin >= 0) ? storage.get(origin) : null;
+				DynamicArray<T> newRow = circular ? new CircularDynamicArray<T>(Math.max(numCol, 1)) : new DynamicArray<T>(Math.max(numCol, 1));
+				for (int col=0; col<numCol; col++)
+				{
+					int colOrigin = colOrigins.get(col);
+					newRow.add((oldRow == null || colOrigin < 0) ? null : oldRow.get(colOrigin));
+				}
+				rows.add(newRow);
+				if (owners != null)
+					owners.add(owner);
+			}
+		}
+
+		storage = rows;
+		rowOwners = owners;
+	}
+
+
+	/**
+	 * Returns a grid with the cells of this grid, which shares every row with it: the rows are only
+	 * copied (by either grid) the first time they change afterwards, so both grids can be changed
+	 * independently. O(R).
+	 * @return New storage engine with the same cells.
+	 */
+	@Override
+	public GridStorage<T> snapshot()
+	{
+		if (rowOwners == null)
+		{
+			rowOwners = circular ? new CircularDynamicArray<Object>() : new DynamicArray<Object>(Math.max(storage.size(), 1));
+			for (int i=0; i<storage.size(); i++)
+				rowOwners.add(null);
+		}
+		owner = new Object();	// every row is now shared, so this grid no longer changes any of them in place
+
+		NestedGridStorage<T> copy = new NestedGridStorage<T>(circular);
+		copy.storage.addAll(0, storage);
+		copy.rowOwners = circular ? new CircularDynamicArray<Object>(rowOwners) : new DynamicArray<Object>(rowOwners);
+		copy.owner = new Object();
+		return copy;
+	}
+
+
+	/**
+	 * Returns True: rows are separate arrays, so different cells can be set from several threads at
+	 * once, once the rows shared with a snapshot were copied (see prepareConcurrentSet).
+	 * @return True.
+	 */
+	@Override
+	public boolean supportsConcurrentSet()
+	{
+		return true;
+	}
+
+
+	/**
+	 * Copies the rows [rowFrom, rowTo) that are shared with a snapshot, so that setting their cells from
+	 * several threads at once does not make two threads copy the same row (and lose the writes of one
+	 * of them). O(C) per shared row.
+	 * @param rowFrom first row that will be set.
+	 * @param rowTo row after the last row that will be set.
+	 */
+	@Override
+	public void prepareConcurrentSet(int rowFrom, int rowTo)
+	{
+		if (rowOwners != null)
+			for (int row=rowFrom; row<rowTo; row++)
+				ownRow(row);
+	}
+
+
+	/**
+	 * Returns the row at indexRow, copying it first if it is shared with a snapshot. O(1), or O(C) the
+	 * first time a shared row changes. Throws IndexOutOfBoundsException for invalid index.
+	 * @param indexRow Row position in the grid.
+	 * @return Dynamic array of the row, which this grid may change in place.
+	 */
+	private DynamicArray<T> ownRow(int indexRow)
+	{
+		DynamicArray<T> row = storage.get(indexRow);
+		if (rowOwners != null && rowOwners.get(indexRow) != owner)
+		{
+			row = circular ? new CircularDynamicArray<T>(row) : new DynamicArray<T>(row);
+			storage.set(indexRow, row);
+			rowOwners.set(indexRow, owner);
+		}
+		return row;
+	}
+
+}
@@ -0,0 +1,534 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Int grid whose cells live outside of the Java heap, in a direct ByteBuffer, so they do not
+ * weigh on the garbage collector. The layout is the same as IntDynamicGrid (one contiguous block in
+ * row-major order, with a row stride and spare row and column capacity); only the memory changes.
+ * The memory is released by close() (and by every reallocation, for the old block) instead of
+ * waiting for the garbage collector. Using the grid after close() throws IllegalStateException.
+ * A grid can hold up to Integer.MAX_VALUE/4 cells of capacity (one direct buffer).
+ *
+ * @author Sergio Delgado
+ */
+public class OffHeapIntDynamicGrid implements IntGrid, AutoCloseable
+{
+	/**
+	 * default row capacity and column capacity of the grid (which is 2)
+	 */
+	private static final int INITCAP = 2;
+	/**
+	 * number of ints moved at a time when shifting rows or columns
+	 */
+	private static final int CHUNK = 1024;
+	/**
+	 * sun.misc.Unsafe instance, used to release direct buffers (null if not available)
+	 */
+	private static final Object UNSAFE;
+	/**
+	 * sun.misc.Unsafe.invokeCleaner(ByteBuffer) method (null if not available)
+	 */
+	private static final Method INVOKE_CLEANER;
+
+	static
+	{
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try
+		{
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			unsafe = theUnsafe.get(null);
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+		}
+		catch (ReflectiveOperationException | RuntimeException e)
+		{
+			invokeCleaner = null;	// direct buffers are left to the garbage collector
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	/**
+	 * Direct buffer that holds the memory of the cells (null once the grid is closed)
+	 */
+	private ByteBuffer memory;
+	/**
+	 * int view of memory (holds the cells of the grid, one row after the other)
+	 */
+	private IntBuffer cells;
+	/**
+	 * buffer on the heap used to move blocks of cells
+	 */
+	private int[] chunk;
+	/**
+	 * number of rows reserved in memory for the grid
+	 */
+	private int rowCapacity;
+	/**
+	 * number of columns reserved in memory for each row (distance between the start of two rows)
+	 */
+	private int stride;
+	/**
+	 * number of existing rows in the grid
+	 */
+	private int numRow;
+	/**
+	 * number of existing columns in the grid
+	 */
+	private int numCol;
+
+
+	/**
+	 * Constructor, which creates an empty grid of 0 rows and 0 cols with row and column capacities of 2
+	 */
+	public OffHeapIntDynamicGrid()
+	{
+		this(INITCAP, INITCAP);
+	}
+
+
+	/**
+	 * Constructor that receives the desired row and column capacities of the grid.
+	 * @param initRowCapacity int number of rows to reserve in memory.
+	 * @param initColCapacity int number of columns to reserve in memory for each row.
+	 * @throws IllegalArgumentException if any of the capacities desired is too small.
+	 */
+	public OffHeapIntDynamicGrid(int initRowCapacity, int initColCapacity)
+	{
+		if (initRowCapacity > 0 && initColCapacity > 0)
+		{
+			numRow = 0;
+			numCol = 0;
+			chunk = new int[CHUNK];
+			reallocate(initRowCapacity, initColCapacity);
+		}
+
+		else
+			throw new IllegalArgumentException("Capacity is too small.");
+	}
+
+
+	/**
+	 * Returns True if the memory of the grid was released. O(1).
+	 * @return True only if close() was called.
+	 */
+	public boolean isClosed()
+	{
+		return memory == null;
+	}
+
+
+	/**
+	 * Releases the memory of the grid. The grid cannot be used afterwards. Closing twice does nothing.
+	 */
+	@Override
+	public void close()
+	{
+		if (memory != null)
+		{
+			free(memory);
+			memory = null;
+			cells = null;
+			numRow = 0;
+			numCol = 0;
+		}
+	}
+
+
+	/**
+	 * Returns the number of rows in the grid. O(1).
+	 * @return int value. Number of rows in the grid.
+	 */
+	@Override
+	public int getNumRow()
+	{
+		checkOpen();
+		return numRow;
+	}
+
+
+	/**
+	 * Returns the number of columns in the grid. O(1).
+	 * @return int value. Number of columns in the grid.
+	 */
+	@Override
+	public int getNumCol()
+	{
+		checkOpen();
+		return numCol;
+	}
+
+
+	/**
+	 * It returns the value of the element of the grid at indexRow and indexCol. O(1).
+	 * Throws IndexOutOfBoundsException if index is out of bounds.
+	 * @param indexRow int value. Row index on the grid.
+	 * @param indexCol int value. Column index on the grid.
+	 * @return int element at the cell pointed.
+	 */
+	@Override
+	public int get(int indexRow, int indexCol)
+	{
+		checkOpen();
+		if (isGoodIndex(indexRow, numRow) && isGoodIndex(indexCol, numCol))
+			return cells.get(indexRow*stride + indexCol);
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+
+	/**
+	 * Changes value at a cell of the grid located at a specific indexRow and indexCol. O(1).
+	 * Throws IndexOutOfBoundsException if index is out of bounds.
+	 * @param indexRow Row position in the grid.
+	 * @param indexCol Column position in the grid.
+	 * @param value int value of the new element in the grid.
+	 * @return int value of the old element that got replaced at location pointed at by the parameters.
+	 */
+	@Override
+	public int set(int indexRow, int indexCol, int value)
+	{
+		checkOpen();
+		if (isGoodIndex(indexRow, numRow) && isGoodIndex(indexCol, numCol))
+		{
+			int position = indexRow*stride + indexCol;
+			int oldValue = cells.get(position);
+			cells.put(position, value);
+			return oldValue;
+		}
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+
+	/**
+	 * Copy values from newRow to add a row at the row index specified. O(RC) in the worst case
+	 * (one block move of the rows after index), O(C) when appending. Adds the new row, only if
+	 * it matches the size of each row of the grid.
+	 * @param index Position of the row of the grid where we are adding the new row.
+	 * @param newRow Dynamic array that holds the element values of the new row.
+	 * @return True only if the addition of the row happened.
+	 */
+	@Override
+	public boolean addRow(int index, IntDynamicArray newRow)
+	{
+		checkOpen();
+
+		// if there are rows in the grid, newRow has to match their size
+		if (numRow > 0 && newRow.size() != numCol)
+			return false;
+
+		if (!isGoodIndex(index, numRow+1))
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		// the first row of the grid decides the number of columns
+		if (numRow == 0)
+		{
+			numCol = newRow.size();
+			if (numCol > stride)
+				reallocate(rowCapacity, numCol);
+		}
+
+		if (numRow == rowCapacity)
+			reallocate(rowCapacity*2, stride);
+
+		// moving all rows (after index) one row forward
+		int start = index*stride;
+		move(start, start+stride, (numRow-index)*stride);
+
+		// copying the values of the new row
+		for (int col=0; col<numCol; col++)
+			cells.put(start + col, newRow.get(col));
+
+		numRow++;
+		return true;
+	}
+
+
+	/**
+	 * Copies values from newCol to add a column at the column index specified. Cannot add if the
+	 * length of newCol does not match the number of rows. O(RC) where R is the number of rows and
+	 * C is the number of columns of the grid.
+	 * @param index Column of the grid in which to add the new column (newCol)
+	 * @param newCol Array of values of the column that will be added to the grid
+	 * @return True only if the addition of the column happened.
+	 */
+	@Override
+	public boolean addCol(int index, IntDynamicArray newCol)
+	{
+		checkOpen();
+
+		if (newCol.size() != numRow)
+			return false;
+
+		if (numRow == 0)   // nothing to add a column to
+			return true;
+
+		if (!isGoodIndex(index, numCol+1))
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		if (numCol == stride)
+			reallocate(rowCapacity, stride*2);
+
+		// moving the columns (after index) one position forward in every row
+		for (int row=0; row<numRow; row++)
+		{
+			int position = row*stride + index;
+			move(position, position+1, numCol-index);
+			cells.put(position, newCol.get(row));
+		}
+
+		numCol++;
+		return true;
+	}
+
+
+	/**
+	 * Removes and returns the row at index. It shifts rows to remove the gap.
+	 * O(RC) in the worst case (one block move of the rows after index).
+	 * Throws IndexOutOfBoundsException for invalid index.
+	 * @param index Row position to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed row.
+	 */
+	@Override
+	public IntDynamicArray removeRow(int index)
+	{
+		checkOpen();
+
+		if (!isGoodIndex(index, numRow))
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		int start = index*stride;
+		IntDynamicArray removedRow = new IntDynamicArray(Math.max(numCol, 1));
+		for (int col=0; col<numCol; col++)
+			removedRow.add(cells.get(start + col));
+
+		// moving all rows (after index) one row backwards
+		move(start+stride, start, (numRow-index-1)*stride);
+		numRow--;
+
+		if (numRow == 0)   // a grid without rows has no columns
+			numCol = 0;
+
+		checkEmptiness();
+		return removedRow;
+	}
+
+
+	/**
+	 * Removes and returns the column at index. It shifts columns to remove the gap.
+	 * O(RC) where R is the number of rows and C is the number of columns.
+	 * Throws IndexOutOfBoundsException for invalid index.
+	 * @param index Position of the column to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed column.
+	 */
+	@Override
+	public IntDynamicArray removeCol(int index)
+	{
+		checkOpen();
+
+		IntDynamicArray removedColumn = new IntDynamicArray(Math.max(numRow, 1));
+		if (numRow == 0)
+			return removedColumn;
+
+		if (!isGoodIndex(index, numCol))
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		// moving the columns (after index) one position backwards in every row
+		for (int row=0; row<numRow; row++)
+		{
+			int position = row*stride + index;
+			removedColumn.add(cells.get(position));
+			move(position+1, position, numCol-index-1);
+		}
+
+		numCol--;
+		checkEmptiness();
+		return removedColumn;
+	}
+
+
+	/**
+	 * Rearranges the grid in one pass, into a new direct buffer with no spare capacity (the old one is
+	 * released), so that it has rowOrigins.size() rows and colOrigins.size() columns, where the cell
+	 * (r,c) is the old cell (rowOrigins[r], colOrigins[c]), or 0 if either of them is -1 (a new row or
+	 * column). O(RC).
+	 * @param rowOrigins Dynamic array with the old row of every new row (-1 for new rows).
+	 * @param colOrigins Dynamic array with the old column of every new column (-1 for new columns).
+	 * @throws OutOfMemoryError if the grid does not fit in one direct buffer.
+	 */
+	@Override
+	public void remap(IntDynamicArray rowOrigins, IntDynamicArray colOrigins)
+	{
+		checkOpen();
+
+		int newNumRow = rowOrigins.size();
+		int newNumCol = (newNumRow == 0) ? 0 : colOrigins.size();	// a grid without rows has no columns
+		int newRowCapacity = Math.max(newNumRow, INITCAP);
+		int newStride = Math.max(newNumCol, INITCAP);
+		long bytes = (long) newRowCapacity * newStride * Integer.BYTES;
+		if (bytes > Integer.MAX_VALUE)
+			throw new OutOfMemoryError("Grid is too large for one direct buffer.");
+
+		ByteBuffer newMemory = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+		IntBuffer newCells = newMemory.asIntBuffer();	// a new direct buffer is filled with zeros
+
+		for (int row=0; row<newNumRow; row++)
+		{
+			int origin = rowOrigins.get(row);
+			if (origin >= 0)
+				for (int col=0; col<newNumCol; col++)
+				{
+					int colOrigin = colOrigins.get(col);
+					if (colOrigin >= 0)
+						newCells.put(row*newStride + col, cells.get(origin*stride + colOrigin));
+				}
+		}
+
+		free(memory);
+		memory = newMemory;
+		cells = newCells;
+		rowCapacity = newRowCapacity;
+		stride = newStride;
+		numRow = newNumRow;
+		numCol = newNumCol;
+	}
+
+
+	/**
+	 * Throws IllegalStateException if the grid was closed.
+	 */
+	private void checkOpen()
+	{
+		if (memory == null)
+			throw new IllegalStateException("Grid is closed.");
+	}
+
+
+	/**
+	 * Returns True if the index is within the range [0, limit).
+	 * @param index int value of index to be checked on.
+	 * @param limit int value. First index out of range.
+	 * @return True only if index is greater than or equal to 0 and less than limit.
+	 */
+	private boolean isGoodIndex(int index, int limit)
+	{
+		return (index>=0 && index<limit);
+	}
+
+
+	/**
+	 * Moves length cells from position from to position to, in blocks of CHUNK cells. The blocks are
+	 * taken from the end when moving forward, so overlapping ranges are copied right. O(length).
+	 * @param from int value. Position of the first cell to move.
+	 * @param to int value. Position where the first cell goes.
+	 * @param length int value. Number of cells to move.
+	 */
+	private void move(int from, int to, int length)
+	{
+		if (to > from)
+		{
+			for (int end=length; end>0; end-=CHUNK)
+			{
+				int count = Math.min(CHUNK, end);
+				cells.get(from + end - count, chunk, 0, count);
+				cells.put(to + end - count, chunk, 0, count);
+			}
+		}
+		else
+		{
+			for (int start=0; start<length; start+=CHUNK)
+			{
+				int count = Math.min(CHUNK, length - start);
+				cells.get(from + start, chunk, 0, count);
+				cells.put(to + start, chunk, 0, count);
+			}
+		}
+	}
+
+
+	/**
+	 * Verifies that the rows and columns of the grid are not below one third of their capacity.
+	 * If so, it shrinks that capacity to half its size.
+	 */
+	private void checkEmptiness()
+	{
+		int newRowCapacity = rowCapacity;
+		int newStride = stride;
+
+		if ((numRow < (float)(rowCapacity)/3) && ((rowCapacity/2) >= INITCAP))
+			newRowCapacity = rowCapacity/2;
+
+		if ((numCol < (float)(stride)/3) && ((stride/2) >= INITCAP))
+			newStride = stride/2;
+
+		if (newRowCapacity != rowCapacity || newStride != stride)
+			reallocate(newRowCapacity, newStride);
+	}
+
+
+	/**
+	 * Moves the grid into a new direct buffer with the row capacity and stride received, and releases
+	 * the old one. O(RC).
+	 * @param newRowCapacity int number of rows to reserve in memory.
+	 * @param newStride int number of columns to reserve in memory for each row.
+	 * @throws OutOfMemoryError if the capacity does not fit in one direct buffer.
+	 */
+	private void reallocate(int newRowCapacity, int newStride)
+	{
+		long bytes = (long) newRowCapacity * newStride * Integer.BYTES;
+		if (bytes > Integer.MAX_VALUE)
+			throw new OutOfMemoryError("Grid is too large for one direct buffer.");
+
+		ByteBuffer newMemory = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+		IntBuffer newCells = newMemory.asIntBuffer();
+
+		// copy every row of the old buffer (cells) onto its place in (newCells)
+		for (int row=0; row<numRow; row++)
+			for (int start=0; start<numCol; start+=CHUNK)
+			{
+				int count = Math.min(CHUNK, numCol - start);
+				cells.get(row*stride + start, chunk, 0, count);
+				newCells.put(row*newStride + start, chunk, 0, count);
+			}
+
+		if (memory != null)
+			free(memory);
+		memory = newMemory;
+		cells = newCells;
+		rowCapacity = newRowCapacity;
+		stride = newStride;
+	}
+
+
+	/**
+	 * Releases the memory of a direct buffer right away, through the cleaner of the JDK. If that is not
+	 * available, the memory is released when the garbage collector reclaims the buffer.
+	 * @param buffer Direct buffer that is no longer used.
+	 */
+	private static void free(ByteBuffer buffer)
+	{
+		if (INVOKE_CLEANER == null)
+			return;
+		try
+		{
+			INVOKE_CLEANER.invoke(UNSAFE, buffer);
+		}
+		catch (ReflectiveOperationException | RuntimeException e)
+		{
+			// left to the garbage collector
+		}
+	}
+
+
+	@Override
+	public String toString(){
+		return "off-heap int dynamic grid";
+	}
+
+}
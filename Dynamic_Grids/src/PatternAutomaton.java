@@ -0,0 +1,201 @@
+/**
+ * Aho-Corasick automaton over a list of patterns. It counts the occurrences (overlapping ones
+ * included) of every pattern of the list in a text with a single pass over the text.
+ * Building it is O(M) and counting is O(N + M), where M is the total length of the patterns and
+ * N is the length of the text. Once built, it is never changed, so it can be shared among threads.
+ *
+ * @author Sergio Delgado
+ * @version 1.0
+ */
+public class PatternAutomaton
+{
+	private String[] patterns;		// patterns the automaton was built for
+	private int[] patternNode;		// node of the trie where each pattern ends
+	private int numNodes;			// number of nodes of the trie (node 0 is the root)
+	private char[][] labels;		// characters of the edges going out of each node
+	private int[][] targets;		// nodes the edges going out of each node point to
+	private int[] numEdges;			// number of edges going out of each node
+	private int[] fail;				// node of the longest proper suffix of each node that is in the trie
+	private int[] order;			// nodes in breadth-first order (shorter before longer)
+
+
+	/**
+	 * Constructor that builds the automaton for the patterns received. O(M) where M is the total length
+	 * of the patterns (times the number of distinct characters that follow a common prefix).
+	 * @param patterns list of patterns to count.
+	 */
+	public PatternAutomaton(DynamicArray<String> patterns)
+	{
+		int totalLength = 0;
+		this.patterns = new String[patterns.size()];
+		for (int i=0; i<patterns.size(); i++)
+		{
+			this.patterns[i] = patterns.get(i);
+			totalLength += this.patterns[i].length();
+		}
+
+		int capacity = totalLength + 1;
+		labels = new char[capacity][];
+		targets = new int[capacity][];
+		numEdges = new int[capacity];
+		fail = new int[capacity];
+		order = new int[capacity];
+		numNodes = 1;
+
+		// inserting every pattern in the trie
+		patternNode = new int[this.patterns.length];
+		for (int i=0; i<this.patterns.length; i++)
+		{
+			int node = 0;
+			String pattern = this.patterns[i];
+			for (int j=0; j<pattern.length(); j++)
+			{
+				int next = child(node, pattern.charAt(j));
+				if (next < 0)
+					next = addChild(node, pattern.charAt(j));
+				node = next;
+			}
+			patternNode[i] = node;
+		}
+
+		buildFailLinks();
+	}
+
+
+	/**
+	 * Returns True if the automaton was built for exactly the patterns received. O(M) in the worst case.
+	 * @param patterns list of patterns to compare.
+	 * @return True only if both lists have the same patterns in the same order.
+	 */
+	public boolean isBuiltFor(DynamicArray<String> patterns)
+	{
+		if (patterns.size() != this.patterns.length)
+			return false;
+
+		for (int i=0; i<this.patterns.length; i++)
+		{
+			String pattern = patterns.get(i);
+			if (pattern != this.patterns[i] && !pattern.equals(this.patterns[i]))
+				return false;
+		}
+		return true;
+	}
+
+
+	/**
+	 * Counts the occurrences of every pattern in text. An empty pattern is counted once per character
+	 * of the text. O(N + M) where N is the length of text and M is the total length of the patterns.
+	 * @param text String to be traversed in order to find occurrences of the patterns.
+	 * @return array with the number of occurrences of each pattern, in the order of the patterns.
+	 */
+	public int[] countAll(String text)
+	{
+		// counting how many times the scan stops at each node
+		int[] visits = new int[numNodes];
+		int node = 0;
+		for (int i=0; i<text.length(); i++)
+		{
+			char c = text.charAt(i);
+			int next = child(node, c);
+			while (next < 0 && node != 0)
+			{
+				node = fail[node];
+				next = child(node, c);
+			}
+			node = (next < 0) ? 0 : next;
+			visits[node]++;
+		}
+
+		// a stop at a node is also an occurrence of every suffix of the node in the trie
+		for (int i=numNodes-1; i>0; i--)
+			visits[fail[order[i]]] += visits[order[i]];
+
+		int[] counts = new int[patterns.length];
+		for (int i=0; i<patterns.length; i++)
+			counts[i] = patterns[i].isEmpty() ? text.length() : visits[patternNode[i]];
+		return counts;
+	}
+
+
+	/**
+	 * Returns the node reached from node with the character c, or -1 if there is no such edge.
+	 * O(E) where E is the number of edges going out of node.
+	 * @param node int value. Node where the edge starts.
+	 * @param c char value. Label of the edge.
+	 * @return int value. Node where the edge ends, or -1.
+	 */
+	private int child(int node, char c)
+	{
+		for (int i=0; i<numEdges[node]; i++)
+			if (labels[node][i] == c)
+				return targets[node][i];
+		return -1;
+	}
+
+
+	/**
+	 * Adds a new node to the trie as the child of node through an edge labeled c. O(1) amortized.
+	 * @param node int value. Parent node.
+	 * @param c char value. Label of the edge.
+	 * @return int value. New node.
+	 */
+	private int addChild(int node, char c)
+	{
+		if (labels[node] == null)
+		{
+			labels[node] = new char[2];
+			targets[node] = new int[2];
+		}
+		else if (numEdges[node] == labels[node].length)
+		{
+			char[] newLabels = new char[labels[node].length * 2];
+			int[] newTargets = new int[labels[node].length * 2];
+			System.arraycopy(labels[node], 0, newLabels, 0, numEdges[node]);
+			System.arraycopy(targets[node], 0, newTargets, 0, numEdges[node]);
+			labels[node] = newLabels;
+			targets[node] = newTargets;
+		}
+
+		int newNode = numNodes++;
+		labels[node][numEdges[node]] = c;
+		targets[node][numEdges[node]] = newNode;
+		numEdges[node]++;
+		return newNode;
+	}
+
+
+	/**
+	 * Calculates the fail link of every node with a breadth-first traversal of the trie, and keeps
+	 * the order of the traversal in (order).
+	 */
+	private void buildFailLinks()
+	{
+		int head = 0;
+		int tail = 0;
+		order[tail++] = 0;
+
+		while (head < tail)
+		{
+			int node = order[head++];
+			for (int i=0; i<numEdges[node]; i++)
+			{
+				char c = labels[node][i];
+				int next = targets[node][i];
+
+				if (node == 0)
+					fail[next] = 0;
+				else
+				{
+					// longest suffix of node that can be followed by c
+					int suffix = fail[node];
+					while (suffix != 0 && child(suffix, c) < 0)
+						suffix = fail[suffix];
+					int target = child(suffix, c);
+					fail[next] = (target < 0) ? 0 : target;
+				}
+				order[tail++] = next;
+			}
+		}
+	}
+
+}
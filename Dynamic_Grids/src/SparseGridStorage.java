@@ -0,0 +1,512 @@
+import java.util.Arrays;
+
+/**
+ * Grid storage engine for grids where most cells hold the same default value. Only the cells that
+ * differ from the default are stored: every row keeps them in its own open-addressing hash map, keyed
+ * by a stable id of their column, and rows without such cells keep no map at all. The order of the
+ * columns is kept in a permutation of column ids (as in IndirectGridStorage), so adding or removing a
+ * column only touches the maps of the rows, and not the other cells. Memory is O(R + C + N) where N
+ * is the number of cells that differ from the default.
+ *
+ * @author Sergio Delgado
+ *
+ * @param <T>  Type of the elements inside the grid cells.
+ */
+public class SparseGridStorage<T> implements GridStorage<T>
+{
+	/**
+	 * Value of every cell that is not stored
+	 */
+	private final T defaultValue;
+	/**
+	 * map of the stored cells of every row (null for rows that only hold the default value)
+	 */
+	private DynamicArray<SparseRow> rows;
+	/**
+	 * id of every column of the grid, in order
+	 */
+	private IntDynamicArray colMap;
+	/**
+	 * ids of removed columns, waiting to be reused
+	 */
+	private IntDynamicArray freeCols;
+	/**
+	 * first column id never used
+	 */
+	private int nextColId;
+	/**
+	 * number of cells stored (cells that differ from the default value)
+	 */
+	private int stored;
+
+
+	/**
+	 * Constructor, which creates an empty grid of 0 rows and 0 cols, whose cells hold defaultValue
+	 * unless they are set to something else.
+	 * @param defaultValue Generic type value of the cells that are not stored (it can be null).
+	 */
+	public SparseGridStorage(T defaultValue)
+	{
+		this.defaultValue = defaultValue;
+		reset();
+	}
+
+
+	/**
+	 * Returns the value of the cells that are not stored. O(1).
+	 * @return Generic type default value of the cells.
+	 */
+	public T getDefaultValue()
+	{
+		return defaultValue;
+	}
+
+
+	/**
+	 * Returns the number of cells stored, which are the cells that differ from the default value. O(1).
+	 * @return int value. Number of cells that differ from the default value.
+	 */
+	public int getStoredCells()
+	{
+		return stored;
+	}
+
+
+	/**
+	 * Returns the number of rows in the grid. O(1).
+	 * @return int value. Number of rows in the grid.
+	 */
+	public int getNumRow()
+	{
+		return rows.size();
+	}
+
+
+	/**
+	 * Returns the number of columns in the grid. O(1).
+	 * @return int value. Number of columns in the grid.
+	 */
+	public int getNumCol()
+	{
+		return colMap.size();
+	}
+
+
+	/**
+	 * Returns the value of the element of the grid at indexRow and indexCol. O(1) expected.
+	 * @param indexRow int value. Row index on the grid.
+	 * @param indexCol int value. Column index on the grid.
+	 * @return Generic type element at the cell pointed.
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	public T get(int indexRow, int indexCol)
+	{
+		SparseRow row = rows.get(indexRow);
+		int colId = colMap.get(indexCol);
+		int slot = (row == null) ? -1 : row.find(colId);
+		return (slot < 0) ? defaultValue : (T) row.values[slot];
+	}
+
+
+	/**
+	 * Changes value at a cell of the grid located at a specific indexRow and indexCol. Setting the
+	 * default value drops the cell from the row's map. O(1) expected.
+	 * @param indexRow Row position in the grid.
+	 * @param indexCol Column position in the grid.
+	 * @param value Generic type value of the new element in the grid.
+	 * @return Generic type value of the old element that got replaced.
+	 */
+	public T set(int indexRow, int indexCol, T value)
+	{
+		SparseRow row = rows.get(indexRow);
+		int colId = colMap.get(indexCol);
+
+		if (isDefault(value))
+		{
+			if (row == null)
+				return defaultValue;
+			T oldValue = take(row, colId);
+			if (row.size == 0)
+				rows.set(indexRow, null);
+			return oldValue;
+		}
+
+		if (row == null)
+		{
+			row = new SparseRow();
+			rows.set(indexRow, row);
+		}
+		return put(row, colId, value);
+	}
+
+
+	/**
+	 * Copy values from newRow to add a row at the row index specified. Only the values that differ from
+	 * the default are stored. O(R+C). Adds the new row, only if it matches the size of each row of the grid.
+	 * @param index Position of the row of the grid where we are adding the new row.
+	 * @param newRow Dynamic array that holds the element values of the new row.
+	 * @return True only if the addition of the row happened.
+	 */
+	public boolean addRow(int index, DynamicArray<T> newRow)
+	{
+		int numRow = rows.size();
+
+		// if there are rows in the grid, newRow has to match their size
+		if (numRow > 0 && newRow.size() != colMap.size())
+			return false;
+
+		if (index < 0 || index > numRow)
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		// the first row of the grid decides the columns
+		if (numRow == 0)
+			for (int col=0; col<newRow.size(); col++)
+				colMap.add(newColId());
+
+		SparseRow row = null;
+		for (int col=0; col<newRow.size(); col++)
+		{
+			T value = newRow.get(col);
+			if (!isDefault(value))
+			{
+				if (row == null)
+					row = new SparseRow();
+				put(row, colMap.get(col), value);
+			}
+		}
+
+		rows.add(index, row);
+		return true;
+	}
+
+
+	/**
+	 * Copies values from newCol to add a column at the column index specified. Only the values that
+	 * differ from the default are stored. Cannot add if the length of newCol does not match the number
+	 * of rows. O(R+C).
+	 * @param index Column of the grid in which to add the new column (newCol)
+	 * @param newCol Array of values of the column that will be added to the grid
+	 * @return True only if the addition of the column happened.
+	 */
+	public boolean addCol(int index, DynamicArray<T> newCol)
+	{
+		int numRow = rows.size();
+		if (newCol.size() != numRow)
+			return false;
+
+		if (numRow == 0)   // nothing to add a column to
+			return true;
+
+		if (index < 0 || index > colMap.size())
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		int colId = newColId();
+		for (int r=0; r<numRow; r++)
+		{
+			T value = newCol.get(r);
+			if (!isDefault(value))
+			{
+				SparseRow row = rows.get(r);
+				if (row == null)
+				{
+					row = new SparseRow();
+					rows.set(r, row);
+				}
+				put(row, colId, value);
+			}
+		}
+
+		colMap.add(index, colId);
+		return true;
+	}
+
+
+	/**
+	 * Removes and returns the row at index (with the default value in the cells that were not stored). O(R+C).
+	 * @param index Row position to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed row.
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	public DynamicArray<T> removeRow(int index)
+	{
+		int numCol = colMap.size();
+		SparseRow row = rows.remove(index);
+
+		DynamicArray<T> removedRow = new DynamicArray<T>(Math.max(numCol, 1));
+		for (int col=0; col<numCol; col++)
+		{
+			int slot = (row == null) ? -1 : row.find(colMap.get(col));
+			removedRow.add((slot < 0) ? defaultValue : (T) row.values[slot]);
+		}
+		if (row != null)
+			stored -= row.size;
+
+		if (rows.size() == 0)   // a grid without rows has no columns
+			reset();
+		return removedRow;
+	}
+
+
+	/**
+	 * Removes and returns the column at index (with the default value in the cells that were not stored). O(R+C).
+	 * @param index Position of the column to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed column.
+	 */
+	public DynamicArray<T> removeCol(int index)
+	{
+		int numRow = rows.size();
+		DynamicArray<T> removedColumn = new DynamicArray<T>(Math.max(numRow, 1));
+		if (numRow == 0)
+			return removedColumn;
+
+		int colId = colMap.remove(index);
+		for (int r=0; r<numRow; r++)
+		{
+			SparseRow row = rows.get(r);
+			if (row == null)
+				removedColumn.add(defaultValue);
+			else
+			{
+				removedColumn.add(take(row, colId));
+				if (row.size == 0)
+					rows.set(r, null);
+			}
+		}
+
+		freeCols.add(colId);
+		return removedColumn;
+	}
+
+
+	/**
+	 * Returns True if value is the default value of the cells.
+	 * @param value Generic type value to be checked.
+	 * @return True only if value equals the default value (or both are null).
+	 */
+	private boolean isDefault(T value)
+	{
+		return (value == null) ? defaultValue == null : value.equals(defaultValue);
+	}
+
+
+	/**
+	 * Stores value for the column colId of row. O(1) expected.
+	 * @param row Map of the row.
+	 * @param colId int value. Id of the column.
+	 * @param value Generic type value of the cell (not the default value).
+	 * @return Generic type value that the cell had before.
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	private T put(SparseRow row, int colId, T value)
+	{
+		int slot = row.find(colId);
+		if (slot >= 0)
+		{
+			T oldValue = (T) row.values[slot];
+			row.values[slot] = value;
+			return oldValue;
+		}
+
+		row.insert(colId, value);
+		stored++;
+		return defaultValue;
+	}
+
+
+	/**
+	 * Drops the column colId from row. O(1) expected.
+	 * @param row Map of the row.
+	 * @param colId int value. Id of the column.
+	 * @return Generic type value that the cell had (the default value if it was not stored).
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	private T take(SparseRow row, int colId)
+	{
+		int slot = row.find(colId);
+		if (slot < 0)
+			return defaultValue;
+
+		T oldValue = (T) row.values[slot];
+		row.delete(slot);
+		stored--;
+		return oldValue;
+	}
+
+
+	/**
+	 * Takes the id of a removed column, or a new one. O(1) amortized.
+	 * @return int value. Id for a new column.
+	 */
+	private int newColId()
+	{
+		if (freeCols.size() > 0)
+			return freeCols.remove(freeCols.size()-1);
+		return nextColId++;
+	}
+
+
+	/**
+	 * Empties the grid.
+	 */
+	private void reset()
+	{
+		rows = new DynamicArray<SparseRow>();
+		colMap = new IntDynamicArray();
+		freeCols = new IntDynamicArray();
+		nextColId = 0;
+		stored = 0;
+	}
+
+
+
+	/**
+	 * Hash map from column ids to the values of the stored cells of one row, with open addressing
+	 * (linear probing) in two parallel arrays. It is kept at most half full.
+	 */
+	private static class SparseRow
+	{
+		/**
+		 * capacity of a new map (which is 4)
+		 */
+		private static final int INITCAP = 4;
+		/**
+		 * mark of a free slot in keys
+		 */
+		private static final int FREE = -1;
+
+		/**
+		 * column id held at every slot (FREE if the slot is free)
+		 */
+		int[] keys;
+		/**
+		 * cell value held at every slot
+		 */
+		Object[] values;
+		/**
+		 * number of slots in use
+		 */
+		int size;
+
+
+		/**
+		 * Constructor, which creates an empty map
+		 */
+		SparseRow()
+		{
+			allocate(INITCAP);
+		}
+
+
+		/**
+		 * Returns the slot where colId is, or -1 if it is not in the map. O(1) expected.
+		 * @param colId int value. Id of the column.
+		 * @return int value. Slot of colId, or -1.
+		 */
+		int find(int colId)
+		{
+			int mask = keys.length - 1;
+			for (int slot = hash(colId) & mask; keys[slot] != FREE; slot = (slot+1) & mask)
+				if (keys[slot] == colId)
+					return slot;
+			return -1;
+		}
+
+
+		/**
+		 * Adds colId, which is not in the map, with its value. Doubles the map if it gets half full.
+		 * O(1) amortized.
+		 * @param colId int value. Id of the column.
+		 * @param value Object value of the cell.
+		 */
+		void insert(int colId, Object value)
+		{
+			if (2*(size+1) > keys.length)
+				rehash(keys.length*2);
+
+			int mask = keys.length - 1;
+			int slot = hash(colId) & mask;
+			while (keys[slot] != FREE)
+				slot = (slot+1) & mask;
+			keys[slot] = colId;
+			values[slot] = value;
+			size++;
+		}
+
+
+		/**
+		 * Frees the slot received, moving back the entries after it that would not be found
+		 * anymore (so no tombstones are needed). Halves the map if it gets below one eighth full.
+		 * @param slot int value. Slot in use to be freed.
+		 */
+		void delete(int slot)
+		{
+			int mask = keys.length - 1;
+			int gap = slot;
+			for (int next = (gap+1) & mask; keys[next] != FREE; next = (next+1) & mask)
+			{
+				int home = hash(keys[next]) & mask;
+				// the entry at next can fill the gap if its home is not between the gap and next
+				if (((next - home) & mask) >= ((next - gap) & mask))
+				{
+					keys[gap] = keys[next];
+					values[gap] = values[next];
+					gap = next;
+				}
+			}
+			keys[gap] = FREE;
+			values[gap] = null;
+			size--;
+
+			if (keys.length > INITCAP && 8*size < keys.length)
+				rehash(keys.length/2);
+		}
+
+
+		/**
+		 * Moves the entries of the map into new arrays of the capacity received. O(capacity).
+		 * @param newCapacity int value. New capacity (a power of 2, more than twice the size).
+		 */
+		private void rehash(int newCapacity)
+		{
+			int[] oldKeys = keys;
+			Object[] oldValues = values;
+			allocate(newCapacity);
+
+			int mask = newCapacity - 1;
+			for (int i=0; i<oldKeys.length; i++)
+				if (oldKeys[i] != FREE)
+				{
+					int slot = hash(oldKeys[i]) & mask;
+					while (keys[slot] != FREE)
+						slot = (slot+1) & mask;
+					keys[slot] = oldKeys[i];
+					values[slot] = oldValues[i];
+				}
+		}
+
+
+		/**
+		 * Creates empty arrays of the capacity received.
+		 * @param capacity int value. Number of slots (a power of 2).
+		 */
+		private void allocate(int capacity)
+		{
+			keys = new int[capacity];
+			Arrays.fill(keys, FREE);
+			values = new Object[capacity];
+		}
+
+
+		/**
+		 * Spreads the bits of a column id (ids are small consecutive numbers).
+		 * @param colId int value. Id of the column.
+		 * @return int value. Hash of the id.
+		 */
+		private static int hash(int colId)
+		{
+			int h = colId * 0x9E3779B9;
+			return h ^ (h >>> 16);
+		}
+	}
+
+}
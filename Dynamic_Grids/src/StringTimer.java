@@ -12,20 +12,18 @@ public class StringTimer implements Combiner<String, Integer, String>
 	/**
 	 * Returns a string as a repetition of the original string operand1 the number of repeats is
 	 * specified by integer operand2. Returns empty string if operand2 is 0 or negative.
-	 * O(NL) where N is the value of operand2 and L is the length of operand1
+	 * O(NL) where N is the value of operand2 and L is the length of operand1. The result is built in a
+	 * single buffer of the exact size, doubling the copied part on every step (String.repeat).
 	 * @param operand1 String to be repeated a number of times into a new string.
 	 * @param operand2 Number of times that operand1 will be repeated.
 	 * @return String value which is the result of repeating operand1 a number of times (operand2).
 	 */
 	public String combine(String operand1, Integer operand2)
 	{
+		if (operand2 <= 0)
+			return "";
 		
-		String result = "";
-		
-		for (int i=0; i<operand2; i++)
-			result = result.concat(operand1);
-		
-		return result;	
+		return operand1.repeat(operand2);	
 	}
 	
 
@@ -40,5 +38,125 @@ public class StringTimer implements Combiner<String, Integer, String>
 			System.out.println("Yay 1");
 		}
 
+		StringTimerView sv = new StringTimerView();
+		CharSequence view = sv.combine("abc", 4);
+		if (view.length() == 12 && view.charAt(7) == 'b' && view.toString().equals(st.combine("abc", 4))
+			&& view.subSequence(2, 7).toString().equals("cabca") && sv.combine("abc", 0).length() == 0) {
+			System.out.println("Yay 2");
+		}
+
+	}
+}
+
+
+/**
+ * Class that implements the interface Combiner with the same operation as StringTimer, but that
+ * returns a lightweight view of the repetition instead of building it. Useful for tables whose
+ * cells are only measured or streamed: a cell takes O(1) memory whatever the number of repeats.
+ *
+ * @author Sergio Delgado
+ * @version 1.0
+ */
+class StringTimerView implements Combiner<String, Integer, CharSequence>
+{
+	/**
+	 * Returns a view of operand1 repeated operand2 times. Empty if operand2 is 0 or negative. O(1).
+	 * @param operand1 String to be repeated a number of times.
+	 * @param operand2 Number of times that operand1 will be repeated.
+	 * @return CharSequence that reads as operand1 repeated operand2 times.
+	 */
+	public CharSequence combine(String operand1, Integer operand2)
+	{
+		long length = (operand2 <= 0) ? 0 : (long)operand1.length() * operand2;
+		if (length > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Repetition is too long.");
+
+		return new RepeatedString(operand1, 0, (int)length);
+	}
+}
+
+
+/**
+ * Read-only character sequence made of a string repeated over and over. It only keeps the string,
+ * so it takes O(1) memory; the characters are only copied if toString is called.
+ *
+ * @author Sergio Delgado
+ * @version 1.0
+ */
+class RepeatedString implements CharSequence
+{
+	private final String text;		// string being repeated
+	private final int offset;		// position of text where the sequence starts
+	private final int length;		// number of characters of the sequence
+
+	/**
+	 * Constructor with the string repeated, the position of the string where the sequence starts and
+	 * the length of the sequence.
+	 * @param text String being repeated (not empty unless length is 0).
+	 * @param offset int value. Position of text where the sequence starts.
+	 * @param length int value. Number of characters of the sequence.
+	 */
+	RepeatedString(String text, int offset, int length)
+	{
+		this.text = text;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * Returns the number of characters of the sequence. O(1).
+	 * @return int value. Length of the sequence.
+	 */
+	public int length()
+	{
+		return length;
+	}
+
+	/**
+	 * Returns the character at index. O(1).
+	 * @param index int value. Position in the sequence.
+	 * @return char value at index.
+	 */
+	public char charAt(int index)
+	{
+		if (index < 0 || index >= length)
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+		return text.charAt((int)(((long)offset + index) % text.length()));
+	}
+
+	/**
+	 * Returns a view of the characters from start (included) to end (excluded). O(1).
+	 * @param start int value. First position of the subsequence.
+	 * @param end int value. Position after the last one of the subsequence.
+	 * @return CharSequence view of the characters between start and end.
+	 */
+	public CharSequence subSequence(int start, int end)
+	{
+		if (start < 0 || end > length || start > end)
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+		if (start == end)
+			return new RepeatedString(text, 0, 0);
+		return new RepeatedString(text, (int)(((long)offset + start) % text.length()), end - start);
+	}
+
+	/**
+	 * Builds the string of the sequence. O(L) where L is the length of the sequence.
+	 * @return String with the characters of the sequence.
+	 */
+	@Override
+	public String toString()
+	{
+		if (length == 0)
+			return "";
+
+		// the sequence is: end of the first copy, whole copies, start of the last copy
+		int head = Math.min(text.length() - offset, length);
+		StringBuilder sb = new StringBuilder(length);
+		sb.append(text, offset, offset + head);
+		int rest = length - head;
+		for (int i=0; i<rest / text.length(); i++)
+			sb.append(text);
+		sb.append(text, 0, rest % text.length());
+		return sb.toString();
 	}
 }
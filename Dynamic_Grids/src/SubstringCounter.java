@@ -1,35 +1,131 @@
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
- * Class that implements the interface Combiner and defines a specific type of operation executed on 
+ * Class that implements the interface Combiner and defines a specific type of operation executed on
  * two operands by the combine method of such interface.
- * 
+ *
  * @author Sergio Delgado
  * @version 1.0
  *
  */
 public class SubstringCounter implements Combiner<String, String, Integer>
 {
+	/**
+	 * max number of patterns whose prefix tables are remembered (the cache is emptied when it is full)
+	 */
+	private static final int MAX_CACHED_PATTERNS = 1024;
+	/**
+	 * prefix table (KMP failure function) of every pattern counted recently
+	 */
+	private ConcurrentHashMap<String, int[]> prefixTables = new ConcurrentHashMap<String, int[]>();
+	/**
+	 * automaton of the last list of patterns counted with combineRow
+	 */
+	private volatile PatternAutomaton automaton;
+
 	/**
 	 * Counts how many times operand2 occurs in operand1 as a substring. Returns the count.
-	 * O(NM) where N is the length of operand1 and M is the length of operand2.
+	 * O(N+M) where N is the length of operand1 and M is the length of operand2 (Knuth-Morris-Pratt search,
+	 * with the prefix table of operand2 calculated once and remembered for the next operands).
 	 * @param operand1 String to be traversed in order to find occurrences of a substring.
 	 * @param operand2 Substring whose occurrences on operand1 will be counted.
 	 * @return int value. Number of times that operand2 was found in operand1.
 	 */
 	public Integer combine(String operand1, String operand2)
 	{
+		// every position of operand1 starts an empty string
+		if (operand2.isEmpty())
+			return operand1.length();
+
+		if (operand2.length() > operand1.length())
+			return 0;
+
+		int[] prefix = prefixTable(operand2);
 		int result = 0;
-		
+		int matched = 0;	// number of characters of operand2 matched so far
+
 		// Traversing operand1 one character at a time.
 		for (int i=0; i<operand1.length(); i++)
 		{
-			if(operand1.startsWith(operand2,i))
+			char c = operand1.charAt(i);
+			while (matched > 0 && operand2.charAt(matched) != c)
+				matched = prefix[matched-1];
+
+			if (operand2.charAt(matched) == c)
+				matched++;
+
+			if (matched == operand2.length())	// found one, keep going to find overlapping ones
+			{
 				result++;
+				matched = prefix[matched-1];
+			}
 		}
-		
+
 		return result;
 	}
 
-	
+
+	/**
+	 * Counts the occurrences of every operand of operands2 in operand1 and appends the counts to results.
+	 * All the operands of operands2 are searched at once with an Aho-Corasick automaton, which is kept
+	 * for the next rows while the list of operands2 does not change.
+	 * O(N+M) where N is the length of operand1 and M is the total length of operands2.
+	 * @param operand1 String to be traversed in order to find occurrences of the substrings.
+	 * @param operands2 Substrings whose occurrences on operand1 will be counted.
+	 * @param results list where the counts are appended.
+	 */
+	@Override
+	public void combineRow(String operand1, DynamicArray<String> operands2, DynamicArray<Integer> results)
+	{
+		if (operands2.size() < 2)	// nothing to share among the combinations
+		{
+			Combiner.super.combineRow(operand1, operands2, results);
+			return;
+		}
+
+		PatternAutomaton current = automaton;
+		if (current == null || !current.isBuiltFor(operands2))
+		{
+			current = new PatternAutomaton(operands2);
+			automaton = current;
+		}
+
+		int[] counts = current.countAll(operand1);
+		for (int i=0; i<counts.length; i++)
+			results.add(counts[i]);
+	}
+
+
+	/**
+	 * Returns the prefix table of pattern: entry i is the length of the longest proper prefix of
+	 * pattern[0..i] that is also a suffix of it. It is calculated only the first time. O(M).
+	 * @param pattern String whose prefix table is returned.
+	 * @return array with the prefix table.
+	 */
+	private int[] prefixTable(String pattern)
+	{
+		int[] prefix = prefixTables.get(pattern);
+		if (prefix == null)
+		{
+			prefix = new int[pattern.length()];
+			int length = 0;
+			for (int i=1; i<pattern.length(); i++)
+			{
+				while (length > 0 && pattern.charAt(i) != pattern.charAt(length))
+					length = prefix[length-1];
+				if (pattern.charAt(i) == pattern.charAt(length))
+					length++;
+				prefix[i] = length;
+			}
+
+			if (prefixTables.size() >= MAX_CACHED_PATTERNS)
+				prefixTables.clear();
+			prefixTables.put(pattern, prefix);
+		}
+		return prefix;
+	}
+
+
 	/**
 	 * Main method that executes a test on the performance of the class SubstringCounter.
 	 * @param args Command line arguments, which are not necessary for this class.
@@ -37,10 +133,27 @@ public class SubstringCounter implements Combiner<String, String, Integer>
 	public static void main(String[] args){
 		SubstringCounter sc = new SubstringCounter();
 		if (sc.combine("abab","ab") == 2 && sc.combine("aa","aab") == 0
-			&& sc.combine("23232","232") == 2 
+			&& sc.combine("23232","232") == 2
 			&& sc.combine("helloabchelloddefzdfjhello","hello")==3) {
 			System.out.println("Yay 1");
 		}
 
+		DynamicArray<String> patterns = new DynamicArray<>();
+		patterns.add("hello"); patterns.add("l"); patterns.add(""); patterns.add("232"); patterns.add("ll");
+		DynamicArray<Integer> counts = new DynamicArray<>();
+		sc.combineRow("helloabchelloddefzdfjhello", patterns, counts);
+		if (counts.get(0) == 3 && counts.get(1) == 6 && counts.get(2) == 26 && counts.get(3) == 0
+			&& counts.get(4) == 3) {
+			System.out.println("Yay 2");
+		}
+
+		Table<String, String, Integer, SubstringCounter> table = new Table<>(sc);
+		table.addCol(0, "a"); table.addCol(1, "aa"); table.addCol(2, "ba");
+		table.addRow(0, "aaaba");
+		table.addRow(1, "baba");
+		if (table.getCell(0, 0) == 4 && table.getCell(0, 1) == 2 && table.getCell(0, 2) == 1
+			&& table.getCell(1, 2) == 2 && table.getCell(1, 1) == 0) {
+			System.out.println("Yay 3");
+		}
 	}
-}
\ No newline at end of file
+}
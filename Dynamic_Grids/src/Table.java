@@ -1,3 +1,13 @@
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * Class that implements the DynamicArray and DynamicGrid classes to create and 
  * manage the elements of a grid, whose element values are the result of combining
@@ -18,6 +28,45 @@ public class Table<RowType, ColType, CellType, OpType extends Combiner<RowType,C
 											//		rowHead, colHead, and op
 	private OpType op;						// op that defines a function f:
 											//		f(RowType,ColType)-> CellType
+	private int parallelThreshold;			// number of cells from which a recomputation is
+											//		split among the threads of the fork-join pool
+
+	private boolean lazy;					// true if cells are only calculated when they are read
+	private IntDynamicArray rowStamps;		// lazy mode: time of the last change of each row head
+	private IntDynamicArray colStamps;		// lazy mode: time of the last change of each column head
+	private IntDynamicGrid cellStamps;		// lazy mode: time each cell of board was calculated (0 = never)
+	private int opStamp;					// lazy mode: time of the last change of op
+	private int clock;						// lazy mode: last time handed out by tick()
+
+	private boolean keepTextWidths;			// false if the text lengths are measured on every rendering
+	private int rowHeadLength;				// length of the longest row head text (UNKNOWN if not known)
+	private int rowHeadLengthCount;			// number of row heads with that length
+	private IntDynamicArray colLengths;		// eager mode: length of the longest cell text of each column
+											//		(UNKNOWN if not known, null if not kept)
+	private IntDynamicArray colLengthCounts;// eager mode: number of cells of each column with that length
+
+	private int editDepth;					// number of edits open (see beginEdit)
+	private BitSet dirtyRows;				// eager mode, while an edit is open: rows whose head changed
+	private BitSet dirtyCols;				// eager mode, while an edit is open: columns whose head changed
+	private boolean dirtyOp;				// eager mode, while an edit is open: true if op changed
+	private IntDynamicArray rowOrigins;		// while an edit that added or removed rows or columns is open:
+											//		row of board of each row (-1 if new or changed)
+	private IntDynamicArray colOrigins;		// and column of board of each column (-1 if new or changed)
+
+	private Metrics metrics;				// metrics where the table is measured (null if it is not)
+
+	/**
+	 * default number of cells from which recomputations run in parallel
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+	/**
+	 * number of cells that a single fork-join task recomputes without splitting any further
+	 */
+	private static final int MIN_TASK_CELLS = 1 << 12;
+	/**
+	 * text length kept for a column (or the row heads) whose longest text has to be measured again
+	 */
+	private static final int UNKNOWN = -1;
 	
     /**
      * Constructor with the operator object as parameter.  Instantiates  two Dynamic Arrays
@@ -27,11 +76,122 @@ public class Table<RowType, ColType, CellType, OpType extends Combiner<RowType,C
      */
 	public Table(OpType oper)
 	{
-		rowHead = new DynamicArray<RowType>();
-		colHead = new DynamicArray<ColType>();
-		board = new DynamicGrid<CellType>();
+		this(oper, false);
+	}
+
+
+	/**
+	 * Constructor with the operator object and the evaluation mode as parameters. In lazy mode a cell
+	 * is only calculated the first time it is read with getCell, and kept until its row head, its column
+	 * head or the operator change; setRow, setCol and setOp then only invalidate cells, in O(1).
+	 * Reading cells of a lazy table changes the table, so it must not be read from several threads at once.
+	 * @param oper Generic type, object that executes the basic operation between two operands.
+	 * @param lazy True to calculate the cells on demand, false to calculate them as soon as heads change.
+	 */
+	public Table(OpType oper, boolean lazy)
+	{
+		this(oper, DynamicGrid.Layout.NESTED, lazy);
+	}
+
+
+	/**
+	 * Constructor with the operator object, the layout of the board and the evaluation mode as parameters.
+	 * With the CIRCULAR layout the row heads and column heads are also kept in circular dynamic arrays,
+	 * so adding or removing the first row or column is as cheap as the last one.
+	 * @param oper Generic type, object that executes the basic operation between two operands.
+	 * @param layout Layout used to store the cells of the board.
+	 * @param lazy True to calculate the cells on demand, false to calculate them as soon as heads change.
+	 */
+	public Table(OpType oper, DynamicGrid.Layout layout, boolean lazy)
+	{
+		if (layout == DynamicGrid.Layout.CIRCULAR)
+		{
+			rowHead = new CircularDynamicArray<RowType>();
+			colHead = new CircularDynamicArray<ColType>();
+		}
+		else
+		{
+			rowHead = new DynamicArray<RowType>();
+			colHead = new DynamicArray<ColType>();
+		}
+		board = new DynamicGrid<CellType>(layout);
 		op = oper; 
+		parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
 		
+		this.lazy = lazy;
+		keepTextWidths = true;
+		if (lazy)
+		{
+			rowStamps = new IntDynamicArray();
+			colStamps = new IntDynamicArray();
+			cellStamps = new IntDynamicGrid();
+		}
+		else
+		{
+			colLengths = new IntDynamicArray();
+			colLengthCounts = new IntDynamicArray();
+		}
+	}
+	
+	
+	/**
+	 * Constructor used by TableFile to open a saved table: an eager table over the heads and the cells
+	 * received, which must already hold the combination of every row head and column head with oper.
+	 * @param oper Generic type, object that executes the basic operation between two operands.
+	 * @param rowHead Dynamic array with the row heads.
+	 * @param colHead Dynamic array with the column heads.
+	 * @param cells Storage engine with a cell for every row head and column head.
+	 */
+	Table(OpType oper, DynamicArray<RowType> rowHead, DynamicArray<ColType> colHead, GridStorage<CellType> cells)
+	{
+		this(oper, rowHead, colHead, new DynamicGrid<CellType>(cells));
+	}
+	
+	
+	/**
+	 * Constructor of an eager table over the heads and the board received, which must already hold the
+	 * combination of every row head and column head with oper (used to open and to snapshot tables).
+	 * @param oper Generic type, object that executes the basic operation between two operands.
+	 * @param rowHead Dynamic array with the row heads.
+	 * @param colHead Dynamic array with the column heads.
+	 * @param board Dynamic grid with a cell for every row head and column head.
+	 */
+	Table(OpType oper, DynamicArray<RowType> rowHead, DynamicArray<ColType> colHead, DynamicGrid<CellType> board)
+	{
+		this.rowHead = rowHead;
+		this.colHead = colHead;
+		this.board = board;
+		op = oper;
+		parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+		lazy = false;
+		
+		// the text lengths are measured when the table is first rendered
+		keepTextWidths = true;
+		rowHeadLength = UNKNOWN;
+		colLengths = newStamps(colHead.size());
+		colLengthCounts = newStamps(colHead.size());
+		for (int col=0; col<colHead.size(); col++)
+			colLengths.set(col, UNKNOWN);
+	}
+	
+	
+	/**
+	 * Returns True if the cells of the table are calculated on demand. O(1).
+	 * @return True only if the table was created in lazy mode.
+	 */
+	public boolean isLazy()
+	{
+		return lazy;
+	}
+	
+	
+	/**
+	 * Returns the operator of the table. O(1).
+	 * @return Generic type operator that combines row heads and column heads.
+	 */
+	public OpType getOp()
+	{
+		return op;
 	}
 	
 	
@@ -80,7 +240,10 @@ public class Table<RowType, ColType, CellType, OpType extends Combiner<RowType,C
 
 	
 	/**
-	 * Returns the item at index (r,c) from board. O(1). 
+	 * Returns the item at index (r,c) from board. O(1). In lazy mode the cell is calculated first
+	 * if it was never calculated or if its row head, its column head or op changed since. While an
+	 * edit is open, a cell whose head or operator changed, or whose row or column was added, is
+	 * calculated without being kept.
 	 * Throws IndexOutOfBoundsException for invalid index (handled by DynamicArray.get(i)).
 	 * @param r Position of the row in the grid whose value we are retrieving from board.
 	 * @param c Position of the column in the grid whose value we are retrieving from board.
@@ -88,28 +251,470 @@ public class Table<RowType, ColType, CellType, OpType extends Combiner<RowType,C
 	 */
 	public CellType getCell(int r, int c) 
 	{
-		return board.get(r,c);
+		if (editDepth > 0 && isDirty(r, c))	// calculated now, and again when the edit is committed
+		{
+			if (metrics != null)
+				metrics.add(Metrics.Counter.COMBINES, 1);
+			return op.combine(rowHead.get(r), colHead.get(c));
+		}
+		
+		// position of the cell in board, which keeps its old shape until the open edit is committed
+		int row = (rowOrigins == null) ? r : rowOrigins.get(r);
+		int col = (colOrigins == null) ? c : colOrigins.get(c);
+		if (lazy)
+		{
+			// the cached value is good only if it was calculated after every change that affects it
+			int stamp = cellStamps.get(row,col);
+			if (stamp <= opStamp || stamp <= rowStamps.get(r) || stamp <= colStamps.get(c))
+			{
+				board.set(row, col, op.combine(rowHead.get(r), colHead.get(c)));
+				cellStamps.set(row, col, tick());
+				if (metrics != null)
+					metrics.add(Metrics.Counter.COMBINES, 1);
+			}
+		}
+		return board.get(row,col);
+	}
+
+
+	/**
+	 * Returns a new time for the stamps of the lazy mode, later than every time handed out before.
+	 * If the clock runs out of values, every stamp is reset to 0 (which invalidates every cell). O(1)
+	 * amortized.
+	 * @return int value. New time.
+	 */
+	private int tick()
+	{
+		if (clock == Integer.MAX_VALUE)
+		{
+			for (int row=0; row<cellStamps.getNumRow(); row++)
+				for (int col=0; col<cellStamps.getNumCol(); col++)
+					cellStamps.set(row, col, 0);
+			for (int row=0; row<rowStamps.size(); row++)
+				rowStamps.set(row, 0);
+			for (int col=0; col<colStamps.size(); col++)
+				colStamps.set(col, 0);
+			opStamp = 0;
+			clock = 0;
+		}
+		return ++clock;
 	}
 	
 	
+	/**
+	 * Returns a table with the heads and the cells this table has now, which never changes: it can be
+	 * read from any number of threads without locks while this table keeps changing (once it is handed
+	 * to them safely, e.g. through a volatile field or a concurrent collection). Its mutators throw
+	 * UnsupportedOperationException. The heads are copied and the cells are shared with this table
+	 * until they change (see DynamicGrid.snapshot), so it takes O(R+C) with the NESTED and CIRCULAR
+	 * layouts and O(RC) with the rest. The cells of a lazy table that are out of date, and the cells
+	 * changed by an edit that is still open, are calculated first.
+	 * @return Immutable table with the same heads, cells and operator.
+	 */
+	public Table<RowType, ColType, CellType, OpType> snapshot()
+	{
+		if (editDepth > 0)
+			recomputeDirty();
+		if (lazy)
+			for (int row=0; row<rowHead.size(); row++)
+				for (int col=0; col<colHead.size(); col++)
+					getCell(row, col);
+		
+		return new TableSnapshot<RowType, ColType, CellType, OpType>(op, new DynamicArray<RowType>(rowHead),
+			new DynamicArray<ColType>(colHead), board.snapshot());
+	}
+	
+	
+	/**
+	 * Returns the number of cells from which setOp, setRow and setCol recompute the board in parallel. O(1).
+	 * @return int value. Parallelism threshold, in cells.
+	 */
+	public int getParallelThreshold()
+	{
+		return parallelThreshold;
+	}
+
+
+	/**
+	 * Changes the number of cells from which setOp, setRow and setCol split the recomputation of the board
+	 * among the threads of the common fork-join pool. Recomputations of fewer cells stay on the caller
+	 * thread; Integer.MAX_VALUE keeps every recomputation on the caller thread. The operator has to be
+	 * safe to call from several threads when parallel recomputation is used. O(1).
+	 * @param threshold int value. Number of cells from which recomputations run in parallel.
+	 * @throws IllegalArgumentException if threshold is not positive.
+	 */
+	public void setParallelThreshold(int threshold)
+	{
+		if (threshold > 0)
+			parallelThreshold = threshold;
+		else
+			throw new IllegalArgumentException("Threshold is too small.");
+	}
+
+
+	/**
+	 * Returns the metrics where the table is measured. O(1).
+	 * @return Metrics of the table, or null if it is not measured.
+	 */
+	public Metrics getMetrics()
+	{
+		return metrics;
+	}
+
+
+	/**
+	 * Starts measuring the table in metrics (null stops measuring): the combinations of heads that it
+	 * calculates are counted and the latencies of setOp, setRow, setCol, addRow, addCol, removeRow and
+	 * removeCol are recorded. Its heads and its board are measured in the same metrics (see
+	 * DynamicArray.setMetrics and DynamicGrid.setMetrics). O(1).
+	 * @param metrics Metrics where the table is measured, or null.
+	 */
+	public void setMetrics(Metrics metrics)
+	{
+		this.metrics = metrics;
+		rowHead.setMetrics(metrics);
+		colHead.setMetrics(metrics);
+		board.setMetrics(metrics);
+	}
+
+
 	/**
 	 * Change the operation. Re-calculate and reset the cells of the board. O(CR) where C is the number of columns
-	 * and R is the number of rows of the grid
+	 * and R is the number of rows of the grid. Runs in parallel bands of rows on large tables.
+	 * O(1) in lazy mode, where cells are only invalidated, and while an edit is open. Nothing is
+	 * recalculated if oper is the operator the table already has (see refresh).
 	 * @param oper operator type object that is in charge or combining two operands and return a result.
 	 */
 	public void setOp(OpType oper) 
 	{
+		if (oper == op)
+		{
+			if (metrics != null)
+				metrics.add(Metrics.Counter.SKIPPED_CHANGES, 1);
+			return;
+		}
+		
+		long start = (metrics == null) ? 0 : System.nanoTime();
 		op = oper;
+		refresh();
+		if (metrics != null)
+			metrics.recordSince(Metrics.Timer.SET_OP, start);
+	}
+
+
+	/**
+	 * Re-calculates every cell of the board with the operator the table has, as setOp does with a new
+	 * operator (e.g. after the operator or a head changed without the table knowing). O(CR), O(1) in
+	 * lazy mode, where cells are only invalidated, and while an edit is open.
+	 */
+	public void refresh()
+	{
+		if (lazy)	// every cell calculated so far is now out of date
+			opStamp = tick();
 		
-		// reseting the values of the cells of the board
-		for (int row=0; row<rowHead.size(); row++)
+		else if (editDepth > 0)	// recalculated when the edit is committed
+			dirtyOp = true;
+		
+		else
+			recomputeAll();
+	}
+
+
+	/**
+	 * Recalculates every cell of the board (eager mode). O(CR).
+	 */
+	private void recomputeAll()
+	{
+		recompute(0, rowHead.size(), 0, colHead.size());
+		if (colLengths != null)
+			for (int col=0; col<colHead.size(); col++)	// measured again when the table is rendered
+				colLengths.set(col, UNKNOWN);
+	}
+
+
+	/**
+	 * Opens an edit: until it is committed, setRow, setCol, setOp and refresh only change the heads and
+	 * the operator, in O(1), and keep track of the rows and columns that changed. commitEdit then
+	 * recalculates, once, every cell that any of those changes affects, so changing the same row several
+	 * times, or a row and a column that cross, costs a single recalculation of each cell. addRow, addCol,
+	 * removeRow and removeCol only change the heads too, in O(R+C), and keep track of where every row and
+	 * column was: commitEdit rebuilds the board once, with the new shape (see DynamicGrid.remap), and
+	 * calculates the new rows and columns in the same pass as the changed ones, instead of moving the
+	 * cells on every addition or removal. Cells read while the edit is open are right (the ones affected
+	 * are calculated on every read). Edits can be nested: the cells are recalculated when the outermost
+	 * one is committed. In lazy mode cells are already recalculated only once, when they are read, so
+	 * edits only batch the changes of shape. O(1).
+	 */
+	public void beginEdit()
+	{
+		if (dirtyRows == null)
 		{
+			dirtyRows = new BitSet();
+			dirtyCols = new BitSet();
+		}
+		editDepth++;
+	}
+
+
+	/**
+	 * Returns True if an edit is open (see beginEdit). O(1).
+	 * @return True only if beginEdit was called more times than commitEdit.
+	 */
+	public boolean isEditing()
+	{
+		return editDepth > 0;
+	}
+
+
+	/**
+	 * Commits the edit opened last. If it is the outermost one, rebuilds the board if rows or columns
+	 * were added or removed, and recalculates every cell affected by the changes made since it was
+	 * opened: the rows changed or added, and the columns changed or added in the other rows (or every
+	 * cell if the operator changed), in blocks of consecutive rows and columns, in parallel on large
+	 * blocks. O(K) where K is the number of cells affected, O(RC) if the shape changed.
+	 * @throws IllegalStateException if no edit is open.
+	 */
+	public void commitEdit()
+	{
+		if (editDepth == 0)
+			throw new IllegalStateException("No edit is open.");
+		if (--editDepth == 0)
+			recomputeDirty();
+	}
+
+
+	/**
+	 * Returns True if the cell (r,c) has to be recalculated when the open edit is committed. O(1).
+	 * @param r Position of the row of the cell.
+	 * @param c Position of the column of the cell.
+	 * @return True only if op, the row head r or the column head c changed, or row r or column c was
+	 * added, during the edit.
+	 */
+	private boolean isDirty(int r, int c)
+	{
+		if (rowOrigins != null && (rowOrigins.get(r) < 0 || colOrigins.get(c) < 0))
+			return true;
+		return dirtyOp || dirtyRows.get(r) || dirtyCols.get(c);
+	}
+
+
+	/**
+	 * Starts keeping track of where every row and column of the board is, the first time the shape of
+	 * the table changes while an edit is open (the rows and columns changed so far are marked as new,
+	 * since their cells are calculated again anyway). O(R+C) the first time, O(1) afterwards.
+	 * @return True if an edit is open, so that the change of shape has to wait until it is committed.
+	 */
+	private boolean deferShapeChange()
+	{
+		if (editDepth == 0)
+			return false;
+		
+		if (rowOrigins == null)
+		{
+			rowOrigins = new IntDynamicArray(Math.max(rowHead.size(), 1));
+			for (int row=0; row<rowHead.size(); row++)
+				rowOrigins.add(dirtyRows.get(row) ? -1 : row);
+			colOrigins = new IntDynamicArray(Math.max(colHead.size(), 1));
 			for (int col=0; col<colHead.size(); col++)
+				colOrigins.add(dirtyCols.get(col) ? -1 : col);
+			dirtyRows.clear();
+			dirtyCols.clear();
+		}
+		return true;
+	}
+
+
+	/**
+	 * Recalculates the cells affected by the changes of the open edit (see commitEdit), and forgets
+	 * them. If the shape changed the board is rebuilt first, in one pass, with empty rows and columns
+	 * where they are new. Each cell is recalculated once: whole blocks of consecutive dirty rows first,
+	 * then the blocks of consecutive dirty columns in the blocks of rows that are not dirty. O(K) where
+	 * K is the number of cells affected, O(RC) if the shape changed.
+	 */
+	private void recomputeDirty()
+	{
+		if (dirtyRows == null)
+			return;
+		
+		int numRow = rowHead.size();
+		int numCol = colHead.size();
+		boolean reshaped = (rowOrigins != null);
+		if (reshaped)
+		{
+			board.remap(rowOrigins, colOrigins);
+			if (lazy)	// the new cells were never calculated
+				cellStamps.remap(rowOrigins, colOrigins);
+			else
+			{
+				for (int row=0; row<numRow; row++)
+					if (rowOrigins.get(row) < 0)
+						dirtyRows.set(row);
+				for (int col=0; col<numCol; col++)
+					if (colOrigins.get(col) < 0)
+						dirtyCols.set(col);
+			}
+			rowOrigins = null;
+			colOrigins = null;
+		}
+		if (lazy)
+			return;
+		
+		if (dirtyOp)
+		{
+			dirtyOp = false;
+			dirtyRows.clear();
+			dirtyCols.clear();
+			recomputeAll();
+			return;
+		}
+		
+		// dirty columns, in the rows that are not dirty
+		for (int col=dirtyCols.nextSetBit(0); col>=0; )
+		{
+			int colEnd = dirtyCols.nextClearBit(col);
+			for (int row=dirtyRows.nextClearBit(0); row<numRow; )
 			{
-				board.set(row, col, op.combine( rowHead.get(row), colHead.get(col) ) );
+				int rowEnd = dirtyRows.nextSetBit(row);
+				if (rowEnd < 0)
+					rowEnd = numRow;
+				recompute(row, rowEnd, col, colEnd);
+				row = dirtyRows.nextClearBit(rowEnd);
 			}
+			if (colLengths != null)
+				for (int index=col; index<colEnd; index++)	// measured again when the table is rendered
+					colLengths.set(index, UNKNOWN);
+			col = dirtyCols.nextSetBit(colEnd);
+		}
+		dirtyCols.clear();
+		
+		// dirty rows, whole (the lengths of a rebuilt board are measured again when it is rendered)
+		boolean keepLengths = (colLengths != null && !reshaped);
+		for (int row=dirtyRows.nextSetBit(0); row>=0; )
+		{
+			int rowEnd = dirtyRows.nextClearBit(row);
+			if (keepLengths)
+				for (int r=row; r<rowEnd; r++)
+					for (int index=0; index<numCol; index++)
+						removeColLength(index, textLength(board.get(r, index)));
+			recompute(row, rowEnd, 0, numCol);
+			if (keepLengths)
+				for (int r=row; r<rowEnd; r++)
+					for (int index=0; index<numCol; index++)
+						addColLength(index, textLength(board.get(r, index)));
+			row = dirtyRows.nextSetBit(rowEnd);
 		}
+		dirtyRows.clear();
+		if (reshaped && colLengths != null)
+			for (int col=0; col<numCol; col++)
+				colLengths.set(col, UNKNOWN);
+	}
+
+
+	/**
+	 * Recalculates the cells of the board in the block of rows [rowFrom, rowTo) and columns [colFrom, colTo).
+	 * The work is split among the threads of the fork-join pool if the block has at least
+	 * parallelThreshold cells and the layout of the board can be written from several threads at once
+	 * (see DynamicGrid.supportsConcurrentSet). O(CR) where R and C are the number of rows and columns of the block.
+	 * @param rowFrom first row of the block.
+	 * @param rowTo row after the last row of the block.
+	 * @param colFrom first column of the block.
+	 * @param colTo column after the last column of the block.
+	 */
+	private void recompute(int rowFrom, int rowTo, int colFrom, int colTo)
+	{
+		long cells = (long)(rowTo - rowFrom) * (colTo - colFrom);
 		
+		if (cells >= parallelThreshold && cells > MIN_TASK_CELLS && board.supportsConcurrentSet())
+		{
+			board.prepareConcurrentSet(rowFrom, rowTo);	// rows shared with a snapshot are copied here, once
+			ForkJoinPool.commonPool().invoke(new RecomputeTask(rowFrom, rowTo, colFrom, colTo));
+		}
+		else
+			recomputeBlock(rowFrom, rowTo, colFrom, colTo);
+	}
+
+
+	/**
+	 * Recalculates, on the caller thread, the cells of the board in the block of rows [rowFrom, rowTo)
+	 * and columns [colFrom, colTo), with op.combineBlock on bands of rows of at most MIN_TASK_CELLS cells
+	 * (or a single row). O(CR) where R and C are the number of rows and columns of the block.
+	 * @param rowFrom first row of the block.
+	 * @param rowTo row after the last row of the block.
+	 * @param colFrom first column of the block.
+	 * @param colTo column after the last column of the block.
+	 */
+	private void recomputeBlock(int rowFrom, int rowTo, int colFrom, int colTo)
+	{
+		int cols = colTo - colFrom;
+		if (cols <= 0)
+			return;
+		int band = Math.max(MIN_TASK_CELLS / cols, 1);
+		
+		for (int row=rowFrom; row<rowTo; row+=band)
+		{
+			int bandTo = Math.min(row + band, rowTo);
+			DynamicArray<CellType> cells = new DynamicArray<CellType>((bandTo - row) * cols);
+			op.combineBlock(rowHead, row, bandTo, colHead, colFrom, colTo, cells);
+			if (metrics != null)
+				metrics.add(Metrics.Counter.COMBINES, cells.size());
+			
+			int cell = 0;
+			for (int r=row; r<bandTo; r++)
+				for (int col=colFrom; col<colTo; col++)
+					board.set(r, col, cells.get(cell++));
+		}
+	}
+
+
+	/**
+	 * Fork-join task that recalculates a block of cells of the board. The block is split in two bands
+	 * of rows (or of columns, when it is a single row) until it has at most MIN_TASK_CELLS cells.
+	 * Tasks only write cells of their own block. The rows of the block that the board shared with a
+	 * snapshot were copied before the first task started (see DynamicGrid.prepareConcurrentSet), so
+	 * no task replaces rows of the board: two tasks writing the same row never copy it twice.
+	 */
+	@SuppressWarnings("serial")
+	private class RecomputeTask extends RecursiveAction
+	{
+		private final int rowFrom, rowTo, colFrom, colTo;	// block of cells of this task
+
+		/**
+		 * Constructor with the block of cells to recalculate.
+		 * @param rowFrom first row of the block.
+		 * @param rowTo row after the last row of the block.
+		 * @param colFrom first column of the block.
+		 * @param colTo column after the last column of the block.
+		 */
+		RecomputeTask(int rowFrom, int rowTo, int colFrom, int colTo)
+		{
+			this.rowFrom = rowFrom;
+			this.rowTo = rowTo;
+			this.colFrom = colFrom;
+			this.colTo = colTo;
+		}
+
+		@Override
+		protected void compute()
+		{
+			int rows = rowTo - rowFrom;
+			int cols = colTo - colFrom;
+
+			if ((long)rows * cols <= MIN_TASK_CELLS)
+				recomputeBlock(rowFrom, rowTo, colFrom, colTo);
+
+			else if (rows > 1)	// split into two bands of rows
+			{
+				int middle = rowFrom + rows/2;
+				invokeAll(new RecomputeTask(rowFrom, middle, colFrom, colTo),
+						new RecomputeTask(middle, rowTo, colFrom, colTo));
+			}
+			else				// a single row is split into two bands of columns
+			{
+				int middle = colFrom + cols/2;
+				invokeAll(new RecomputeTask(rowFrom, rowTo, colFrom, middle),
+						new RecomputeTask(rowFrom, rowTo, middle, colTo));
+			}
+		}
 	}
 
 
@@ -118,33 +723,64 @@ public class Table<RowType, ColType, CellType, OpType extends Combiner<RowType,C
 	 * Calculates the new row based on v, existing colHead and op. 
 	 * i may be equal to the size (indicating that you are appending a row).
 	 * O(C+R) where R is the number of rows of the grid and C is the number of columns of the grid.
+	 * O(R) while an edit is open: the row is added to the board when it is committed.
 	 * @param i Position on the rowHead where to add a new element.
 	 * @param v Generic type value of the element to be added at position i.
 	 * @return Returns True only if addition of elment was successful.
 	 */
 	public boolean addRow(int i, RowType v)
 	{
+		long start = (metrics == null) ? 0 : System.nanoTime();
 		boolean success = true;
 		
 		// if index (i) is not out of bounds with respect to rowHead
-		if (i <= rowHead.size())
+		if (i <= rowHead.size() && deferShapeChange())	// the row is added to board when the edit is committed
+		{
+			rowHead.add(i,v);
+			rowOrigins.add(i, -1);
+			if (lazy)
+				rowStamps.add(i, 0);
+			addRowHeadLength(textLength(v));
+		}
+		else if (i <= rowHead.size())
 		{	
 			rowHead.add(i,v);  // insert new row head in rowHead
 			
 			// create new row to insert into the 2D board
-			DynamicArray<CellType> newRow = new DynamicArray<CellType>();
-			for (int index=0; index<colHead.size(); index++)  // if there is no rows on the table yet, it will create an empty newRow for board
+			DynamicArray<CellType> newRow = new DynamicArray<CellType>(Math.max(colHead.size(), 1));
+			if (lazy)
+			{
+				for (int index=0; index<colHead.size(); index++)  // cells of the new row are calculated when read
+					newRow.add(null);
+			}
+			else	// if there is no rows on the table yet, it will create an empty newRow for board
 			{
-				newRow.add( op.combine(v, colHead.get(index)));
+				op.combineRow(v, colHead, newRow);
+				if (metrics != null)
+					metrics.add(Metrics.Counter.COMBINES, colHead.size());
 			}
 			
 			// insert new row into the board
 			board.addRow(i, newRow);  // If there were no rows it will send an empty newRow to add to the board.
 			
+			if (lazy)	// the cells of the new row were never calculated
+			{
+				rowStamps.add(i, 0);
+				cellStamps.addRow(i, newStamps(colHead.size()));
+			}
+			else if (colLengths != null)
+			{
+				for (int index=0; index<colHead.size(); index++)
+					addColLength(index, textLength(newRow.get(index)));
+			}
+			addRowHeadLength(textLength(v));
+			
 		}
 		else
 			success = false;
 			
+		if (metrics != null)
+			metrics.recordSince(Metrics.Timer.ADD_ROW, start);
 		return success;
 	}
 	
@@ -154,52 +790,129 @@ public class Table<RowType, ColType, CellType, OpType extends Combiner<RowType,C
 	 * Calculates the new column based on v, existing rowHead and op.
 	 * i may be equal to the size (indicating that you are appending a column).
 	 * O(CR) where R is the number of rows of the grid and C is the number of columns of the grid.
+	 * O(C) while an edit is open: the column is added to the board when it is committed.
 	 * @param i Position on colHead where to add a new element.
 	 * @param v Generic type value of element to be added at position i.
 	 * @return Returns True only if the addition of new element was successful.
 	 */
 	public boolean addCol(int i, ColType v)
 	{
+		long start = (metrics == null) ? 0 : System.nanoTime();
 		boolean success = true;
 		
 		// if index (i) is not out of bounds with respect to colHead
-		if (i <= colHead.size())
+		if (i <= colHead.size() && deferShapeChange())	// the column is added to board when the edit is committed
+		{
+			colHead.add(i,v);
+			colOrigins.add(i, -1);
+			if (lazy)
+				colStamps.add(i, 0);
+			else if (colLengths != null)
+			{
+				colLengths.add(i, UNKNOWN);
+				colLengthCounts.add(i, 0);
+			}
+		}
+		else if (i <= colHead.size())
 		{	
 			colHead.add(i,v);  // insert new column head in colHead
 			
 			// create new column to insert into the 2D board
-			DynamicArray<CellType> newCol = new DynamicArray<CellType>();
-			for (int index=0; index<rowHead.size(); index++) // if there is no rows on the table yet, it will create an empty newCol for board
+			DynamicArray<CellType> newCol = new DynamicArray<CellType>(Math.max(rowHead.size(), 1));
+			if (lazy)
 			{
-				newCol.add( op.combine(rowHead.get(index), v) );
+				for (int index=0; index<rowHead.size(); index++)  // cells of the new column are calculated when read
+					newCol.add(null);
+			}
+			else	// if there is no rows on the table yet, it will create an empty newCol for board
+			{
+				op.combineColumn(rowHead, v, newCol);
+				if (metrics != null)
+					metrics.add(Metrics.Counter.COMBINES, rowHead.size());
 			}
 			
 			// insert new column into the board
 			board.addCol(i, newCol);   // If there were no rows it will send an empty newCol to add to the board.
 			
+			if (lazy)	// the cells of the new column were never calculated
+			{
+				colStamps.add(i, 0);
+				cellStamps.addCol(i, newStamps(rowHead.size()));
+			}
+			else if (colLengths != null)
+			{
+				colLengths.add(i, 0);
+				colLengthCounts.add(i, 0);
+				measureColumn(i, newCol);
+			}
+			
 		}
 		else
 			success = false;
 	
+		if (metrics != null)
+			metrics.recordSince(Metrics.Timer.ADD_COL, start);
 		return success;
 	}
 	
 	
+	/**
+	 * Returns a list of (size) stamps of a cell that was never calculated. O(N).
+	 * @param size int value. Number of stamps.
+	 * @return Dynamic array with (size) zeros.
+	 */
+	private static IntDynamicArray newStamps(int size)
+	{
+		IntDynamicArray stamps = new IntDynamicArray(Math.max(size, 1));
+		for (int index=0; index<size; index++)
+			stamps.add(0);
+		return stamps;
+	}
+	
+	
 	/**
 	 * Removes and return value from rowHead at index i. Removes row i from grid.
 	 * Throws IndexOutOfBoundsException for invalid index (handled by DynamicArray.remove(i)).
-	 * O(R) where R is the number of rows of the grid.
+	 * O(R) where R is the number of rows of the grid, also while an edit is open, when the row is
+	 * removed from the board once it is committed.
 	 * @param i Position on the grid where to remove a row from.
 	 * @return Generic type value of the element from rowHead at position i.
 	 */
 	public RowType removeRow(int i)
 	{
+		long start = (metrics == null) ? 0 : System.nanoTime();
+		
+		boolean deferred = deferShapeChange();	// the row is removed from board when the edit is committed
+		
 		// removing the element from rowHead.
 		RowType removedRow = rowHead.remove(i);
 		
-		// removing the row from the board
-		board.removeRow(i);
+		if (deferred)
+		{
+			rowOrigins.remove(i);
+			if (lazy)
+				rowStamps.remove(i);
+		}
+		else
+		{
+			// removing the row from the board
+			DynamicArray<CellType> removedCells = board.removeRow(i);
+			
+			if (lazy)
+			{
+				rowStamps.remove(i);
+				cellStamps.removeRow(i);
+			}
+			else if (colLengths != null)
+			{
+				for (int index=0; index<removedCells.size(); index++)
+					removeColLength(index, textLength(removedCells.get(index)));
+			}
+		}
+		removeRowHeadLength(textLength(removedRow));
 		
+		if (metrics != null)
+			metrics.recordSince(Metrics.Timer.REMOVE_ROW, start);
 		return removedRow;
 	}
 
@@ -207,18 +920,40 @@ public class Table<RowType, ColType, CellType, OpType extends Combiner<RowType,C
 	/**
 	 * Removes and return value from colHead at index i. Removes column i from grid.
 	 * Throws IndexOutOfBoundsException for invalid index. O(CR) where R is the number of rows
-	 * and C is the number of columns of the grid.
+	 * and C is the number of columns of the grid. O(C) while an edit is open: the column is removed
+	 * from the board when it is committed.
 	 * @param i Position on the grid where to remove a column from.
 	 * @return Generic type value of the element removed from colHead.
 	 */
 	public ColType removeCol(int i)
 	{
+		long start = (metrics == null) ? 0 : System.nanoTime();
+		
+		boolean deferred = deferShapeChange();	// the column is removed from board when the edit is committed
+		
 		// removing element from colHead
 		ColType removedCol = colHead.remove(i);
 		
-		// removing the column from the board
-		board.removeCol(i);
+		if (deferred)
+			colOrigins.remove(i);
+		else
+		{
+			// removing the column from the board
+			board.removeCol(i);
+			if (lazy)
+				cellStamps.removeCol(i);
+		}
+		
+		if (lazy)
+			colStamps.remove(i);
+		else if (colLengths != null)
+		{
+			colLengths.remove(i);
+			colLengthCounts.remove(i);
+		}
 		
+		if (metrics != null)
+			metrics.recordSince(Metrics.Timer.REMOVE_COL, start);
 		return removedCol;
 	}
 	
@@ -226,80 +961,311 @@ public class Table<RowType, ColType, CellType, OpType extends Combiner<RowType,C
 	/**
 	 * Changes value of rowHead at index i to be v. Changes the ith row of grid using v, the ColTypes, and op.
 	 * Return old value of rowHead from index i. Throws IndexOutOfBoundsException for invalid index.
-	 * O(C) where C is the number of columns of the grid.
+	 * O(C) where C is the number of columns of the grid. Runs in parallel on very wide tables. O(1) in lazy mode
+	 * and while an edit is open. Nothing is recalculated if v equals the old value (the operator must give
+	 * equal results for equal heads; see refresh otherwise).
 	 * @param i Position on rowHead where to change the value and of the board where to change row values.
 	 * @param v Generic type value to be added to rowHead.
 	 * @return Generic type value of the old element from rowHead.
 	 */
 	public RowType setRow(int i, RowType v)
 	{
+		long start = (metrics == null) ? 0 : System.nanoTime();
+		
 		// reseting position (i) in rowHead with new value (v)
 		RowType oldRowElem = rowHead.set(i, v);
 		
-		// reseting each element of the board from row (i) with the new calculated value
-		for(int index=0; index<colHead.size(); index++)
+		if (Objects.equals(oldRowElem, v))	// the cells of row (i) stay the same
+		{
+			if (metrics != null)
+				metrics.add(Metrics.Counter.SKIPPED_CHANGES, 1);
+		}
+		
+		else if (lazy)	// every cell of row (i) calculated so far is now out of date
+			rowStamps.set(i, tick());
+		
+		else if (rowOrigins != null)	// row (i) is calculated again when the board is rebuilt
+			rowOrigins.set(i, -1);
+		
+		else if (editDepth > 0)	// row (i) is recalculated when the edit is committed
+			dirtyRows.set(i);
+		
+		else		// reseting each element of the board from row (i) with the new calculated value
 		{
-			board.set(i, index, op.combine(v, colHead.get(index)));
+			if (colLengths != null)
+				for (int index=0; index<colHead.size(); index++)
+					removeColLength(index, textLength(board.get(i, index)));
+			recompute(i, i+1, 0, colHead.size());
+			if (colLengths != null)
+				for (int index=0; index<colHead.size(); index++)
+					addColLength(index, textLength(board.get(i, index)));
 		}
+		removeRowHeadLength(textLength(oldRowElem));
+		addRowHeadLength(textLength(v));
 		
+		if (metrics != null)
+			metrics.recordSince(Metrics.Timer.SET_ROW, start);
 		return oldRowElem;
 	}
 	
 	/**
 	 * Changes value of colHead at index i to be v. Changes the ith column of grid using v, the RowTypes, and op.
 	 * Return old value of colHead from index i. Throws IndexOutOfBoundsException for invalid index.
-	 * O(R) where R is the number of rows of the grid.
+	 * O(R) where R is the number of rows of the grid. Runs in parallel on very tall tables. O(1) in lazy mode
+	 * and while an edit is open. Nothing is recalculated if v equals the old value (the operator must give
+	 * equal results for equal heads; see refresh otherwise).
 	 * @param i Position on colHead where to change the value and of the board where to change column values.
 	 * @param v Generic type value to be added to colHead.
 	 * @return Generic type value of the old element from colHead.
 	 */
 	public ColType setCol(int i, ColType v){
 		
+		long start = (metrics == null) ? 0 : System.nanoTime();
+		
 		// reseting position (i) in rowHead with new value (v)
 		ColType oldColElem = colHead.set(i, v);
 		
-		// reseting each element of the board from row (i) with the new calculated value
-		for(int index=0; index<rowHead.size(); index++)
+		if (Objects.equals(oldColElem, v))	// the cells of column (i) stay the same
 		{
-			board.set(index, i, op.combine(rowHead.get(index), v) );
+			if (metrics != null)
+				metrics.add(Metrics.Counter.SKIPPED_CHANGES, 1);
 		}
 		
+		else if (lazy)	// every cell of column (i) calculated so far is now out of date
+			colStamps.set(i, tick());
+		
+		else if (colOrigins != null)	// column (i) is calculated again when the board is rebuilt
+			colOrigins.set(i, -1);
+		
+		else if (editDepth > 0)	// column (i) is recalculated when the edit is committed
+			dirtyCols.set(i);
+		
+		else		// reseting each element of the board from column (i) with the new calculated value
+		{
+			recompute(0, rowHead.size(), i, i+1);
+			if (colLengths != null)
+				colLengths.set(i, UNKNOWN);
+		}
+		
+		if (metrics != null)
+			metrics.recordSince(Metrics.Timer.SET_COL, start);
 		return oldColElem;
 	}
 
 
 	/**
-	 *  Find the width we should use to print the specified column
-	 *  @param colIndex column index to specify which column of the grid to check width
-	 *  @return an integer to be used to for formatted printing of the column
+	 * Returns the number of characters of the text of a value (as String.valueOf), without building
+	 * the text of Integer and CharSequence values (such as String). O(1) for them.
+	 * @param value Value whose text is measured (it can be null).
+	 * @return int value. Length of the text of value.
 	 */
-	private int getColMaxWidth(int colIndex){
-		int ans = -1;
-		for (int i=0;i<this.getSizeRow();i++){
-			int width = (this.getCell(i,colIndex)).toString().length();
-			if (ans<width)
-				ans = width;
+	static int textLength(Object value)
+	{
+		if (value instanceof String)
+			return ((String) value).length();
+		
+		if (value instanceof Integer)
+		{
+			int number = (Integer) value;
+			int length = (number < 0) ? 2 : 1;
+			for (long rest = Math.abs((long) number); rest >= 10; rest /= 10)
+				length++;
+			return length;
 		}
-		return ans+1;	
+		
+		if (value instanceof CharSequence)
+			return ((CharSequence) value).length();
+		
+		return String.valueOf(value).length();
 	}
 
+
 	/**
-	 *  Find the width we should use to print the rowHead 
-	 *  @return an integer to be used to for formatted printing of the rowHead
+	 * Takes into account a new row head text of the length received. O(1).
+	 * @param length int value. Length of the text of the new row head.
 	 */
-	private int getRowHeadMaxWidth(){
-		int ans = -1;
-		for (int i=0;i<this.getSizeRow();i++){
-			int width = (rowHead.get(i)).toString().length();
-			if (ans<width)
-				ans = width;
+	private void addRowHeadLength(int length)
+	{
+		if (rowHeadLength == UNKNOWN)
+			return;
+		if (length > rowHeadLength)
+		{
+			rowHeadLength = length;
+			rowHeadLengthCount = 1;
 		}
-		return ans+1;	
+		else if (length == rowHeadLength)
+			rowHeadLengthCount++;
+	}
+
+
+	/**
+	 * Takes into account that a row head text of the length received is gone. If it was the last of the
+	 * longest ones, the row heads are measured again when the table is rendered. O(1).
+	 * @param length int value. Length of the text of the row head removed.
+	 */
+	private void removeRowHeadLength(int length)
+	{
+		if (rowHeadLength == UNKNOWN || length != rowHeadLength)
+			return;
+		rowHeadLengthCount--;
+		if (rowHeadLengthCount == 0 && rowHeadLength > 0)
+			rowHeadLength = UNKNOWN;
+	}
+
+
+	/**
+	 * Takes into account a new cell text of the length received in the column col (eager mode). O(1).
+	 * @param col int value. Column of the new cell.
+	 * @param length int value. Length of the text of the new cell.
+	 */
+	private void addColLength(int col, int length)
+	{
+		int longest = colLengths.get(col);
+		if (longest == UNKNOWN)
+			return;
+		if (length > longest)
+		{
+			colLengths.set(col, length);
+			colLengthCounts.set(col, 1);
+		}
+		else if (length == longest)
+			colLengthCounts.set(col, colLengthCounts.get(col) + 1);
+	}
+
+
+	/**
+	 * Takes into account that a cell text of the length received is gone from the column col (eager mode).
+	 * If it was the last of the longest ones, the column is measured again when the table is rendered. O(1).
+	 * @param col int value. Column of the cell removed.
+	 * @param length int value. Length of the text of the cell removed.
+	 */
+	private void removeColLength(int col, int length)
+	{
+		int longest = colLengths.get(col);
+		if (longest == UNKNOWN || length != longest)
+			return;
+		int count = colLengthCounts.get(col) - 1;
+		colLengthCounts.set(col, count);
+		if (count == 0 && longest > 0)
+			colLengths.set(col, UNKNOWN);
+	}
+
+
+	/**
+	 * Measures the cell texts of the column col (eager mode) from its cells, and keeps the result. O(R).
+	 * @param col int value. Column of the table.
+	 * @param cells Dynamic array with the cells of the column, in order.
+	 */
+	private void measureColumn(int col, DynamicArray<CellType> cells)
+	{
+		int longest = 0;
+		int count = 0;
+		for (int row=0; row<cells.size(); row++)
+		{
+			int length = textLength(cells.get(row));
+			if (length > longest)
+			{
+				longest = length;
+				count = 1;
+			}
+			else if (length == longest)
+				count++;
+		}
+		colLengths.set(col, longest);
+		colLengthCounts.set(col, count);
+	}
+
+
+	/**
+	 * Returns the width used to print the column colIndex: one more than its longest cell text.
+	 * O(1) if the longest text is known, O(R) otherwise (it is measured, and kept in eager mode unless an
+	 * open edit changed cells of the column).
+	 * @param colIndex column index to specify which column of the grid to check width
+	 * @return an integer to be used for the printing of the column
+	 */
+	int getColTextWidth(int colIndex)
+	{
+		// while an edit is open the cells of a changed row or column are not in the board yet
+		boolean pending = editDepth > 0 && !lazy
+			&& (rowOrigins != null || dirtyOp || dirtyCols.get(colIndex) || !dirtyRows.isEmpty());
+		if (colLengths != null && !pending && colLengths.get(colIndex) != UNKNOWN)
+			return colLengths.get(colIndex) + 1;
+		
+		DynamicArray<CellType> cells = new DynamicArray<CellType>(Math.max(rowHead.size(), 1));
+		for (int row=0; row<rowHead.size(); row++)
+			cells.add(getCell(row, colIndex));
+		
+		if (colLengths != null && !pending)
+		{
+			measureColumn(colIndex, cells);
+			return colLengths.get(colIndex) + 1;
+		}
+		
+		int longest = 0;
+		for (int row=0; row<cells.size(); row++)
+			longest = Math.max(longest, textLength(cells.get(row)));
+		return longest + 1;
+	}
+
+
+	/**
+	 * Returns the width used to print the row heads: one more than the longest row head text.
+	 * O(1) if the longest text is known, O(R) otherwise (it is measured, and kept unless the table
+	 * stopped keeping its text widths).
+	 * @return an integer to be used for the printing of the row heads
+	 */
+	int getRowHeadTextWidth()
+	{
+		if (!keepTextWidths)
+		{
+			int longest = 0;
+			for (int row=0; row<rowHead.size(); row++)
+				longest = Math.max(longest, textLength(rowHead.get(row)));
+			return longest + 1;
+		}
+		
+		if (rowHeadLength == UNKNOWN)
+		{
+			rowHeadLength = 0;
+			rowHeadLengthCount = 0;
+			for (int row=0; row<rowHead.size(); row++)
+				addRowHeadLength(textLength(rowHead.get(row)));
+		}
+		return rowHeadLength + 1;
+	}
+
+
+	/**
+	 * Stops keeping the text lengths of the row heads and of the columns: they are measured every time
+	 * the table is rendered (O(RC)) instead. Used by subclasses that change disjoint rows from several
+	 * threads at once, since the lengths are shared by every row. O(1).
+	 */
+	void stopKeepingTextWidths()
+	{
+		keepTextWidths = false;
+		rowHeadLength = UNKNOWN;
+		colLengths = null;
+		colLengthCounts = null;
+	}
+
+
+	/**
+	 * Appends text to sb aligned to the right in a field of width characters (longer text is not cut).
+	 * @param sb StringBuilder where the text is appended.
+	 * @param text String to be appended.
+	 * @param width int value. Width of the field.
+	 */
+	private static void appendPadded(StringBuilder sb, String text, int width)
+	{
+		for (int i=text.length(); i<width; i++)
+			sb.append(' ');
+		sb.append(text);
 	}
 
 	
 	/**
-	 *  Construct a string representation of the table
+	 *  Construct a string representation of the table, in a single pass over the cells once the widths
+	 *  of the columns are known (see getColTextWidth).
 	 *  @return a string representation of the table
 	 */
 	@Override
@@ -307,42 +1273,62 @@ public class Table<RowType, ColType, CellType, OpType extends Combiner<RowType,C
 		
 		if(getSizeRow() == 0 && getSizeCol()==0 ){ return "Empty Table"; }
 
+		// decide how many chars to use for rowHead and for every column
+		int rowHeadWidth = getRowHeadTextWidth();
+		int totalWidth = rowHeadWidth;
+		int[] colWidths = new int[getSizeCol()];
+		for (int j=0; j<getSizeCol(); j++){
+			colWidths[j] = getColTextWidth(j);
+			totalWidth += colWidths[j]+1;
+		}
+
 		// basic info of op and size
-    	StringBuilder sb = new StringBuilder("============================\nTable\n");
-    	sb.append("Operation: "+op.getClass()+"\n");
-    	sb.append("Size: "+ getSizeRow() + " rows, " + getSizeCol()+ " cols\n");
-
-		// decide how many chars to use for rowHead 
-    	int rowHeadWidth = getRowHeadMaxWidth(); 
-    	int totalWidth = rowHeadWidth;
-    	DynamicArray<Integer> colWidths = new DynamicArray<>();
-    	sb.append(String.format(String.format("%%%ds",rowHeadWidth)," "));
-
-		// colHead 
-    	for (int i=0; i<getSizeCol(); i++){		
-    		int colWidth = getColMaxWidth(i);
-    		colWidths.add(colWidth);
-    		totalWidth += colWidth+1;
-    		sb.append(String.format(String.format("|%%%ds",colWidth),colHead.get(i)));
-    	}
-
-    	sb.append("\n"+String.format(String.format("%%%ds", totalWidth), " ").replace(" ","-")+"\n");
+		StringBuilder sb = new StringBuilder(128 + (getSizeRow()+2)*(totalWidth+1));
+		sb.append("============================\nTable\n");
+		sb.append("Operation: ").append(op.getClass()).append("\n");
+		sb.append("Size: ").append(getSizeRow()).append(" rows, ").append(getSizeCol()).append(" cols\n");
+
+		// colHead
+		appendPadded(sb, " ", rowHeadWidth);
+		for (int j=0; j<getSizeCol(); j++){
+			sb.append('|');
+			appendPadded(sb, String.valueOf(colHead.get(j)), colWidths[j]);
+		}
+		sb.append('\n');
+		for (int j=0; j<totalWidth; j++)
+			sb.append('-');
+		sb.append('\n');
 
 		// row by row
-    	for(int i=0; i<getSizeRow(); i++){		
-    		sb.append(String.format(String.format("%%%ds",rowHeadWidth),rowHead.get(i)));
-    		for (int j=0;j<getSizeCol(); j++){
-	    		int colWidth = colWidths.get(j);
-      			sb.append(String.format(String.format("|%%%ds",colWidth),board.get(i,j)));
-      		}
-      		sb.append("\n");
-    	}
-    	sb.append("============================\n");
-    	return sb.toString();
+		for (int i=0; i<getSizeRow(); i++){
+			appendPadded(sb, String.valueOf(rowHead.get(i)), rowHeadWidth);
+			for (int j=0; j<getSizeCol(); j++){
+				sb.append('|');
+				appendPadded(sb, String.valueOf(getCell(i,j)), colWidths[j]);
+			}
+			sb.append('\n');
+		}
+		sb.append("============================\n");
+		return sb.toString();
 
 	}
 
 	
+	/**
+	 * Builds an eager string table with one row head and the column heads received (used by the trials of main).
+	 * @param row value of the only row head.
+	 * @param cols values of the column heads.
+	 * @return new string table.
+	 */
+	private static Table<String, String, String, StringAdder> stableOf(String row, String... cols){
+		Table<String, String, String, StringAdder> table = new Table<>(new StringAdder());
+		table.addRow(0, row);
+		for (int i=0; i<cols.length; i++)
+			table.addCol(i, cols[i]);
+		return table;
+	}
+	
+	
 	/**
 	 * This main method is used to run a trial that tests the performance of the class Table.
 	 * @param args Command line parameters for the, which are not necessary for this particular class.
@@ -397,7 +1383,291 @@ public class Table<RowType, ColType, CellType, OpType extends Combiner<RowType,C
 			System.out.println("Yay 5");			
 		}
 		System.out.println(itable.toString());
-					
+		
+		// recomputing a large table in parallel
+		Table<Integer,Integer, Integer, IntegerComb> ptable = new Table<>(new IntegerAdder());
+		for (int i=0;i<300; i++){
+			ptable.addRow(i,i);
+			ptable.addCol(i,i);
+		}
+		ptable.setParallelThreshold(1000);
+		ptable.setOp(new IntegerTimer());
+		ptable.setRow(299, -1);
+		if (ptable.getCell(299, 299)==-299 && ptable.getCell(150, 200)==30000
+			&& ptable.getCell(0, 0)==0 ){
+			System.out.println("Yay 6");			
+		}
+		
+		// the same string table, calculating cells only when they are read
+		Table<String, String, String, StringAdder> ltable = new Table<>(sa, true);
+		ltable.addCol(0,"apple");
+		ltable.addRow(0,"red");
+		ltable.addRow(1,"yellow");
+		ltable.addCol(1,"kiwi");
+		if (ltable.getCell(1, 1).equals("yellow kiwi") && ltable.setRow(1, "green").equals("yellow")
+			&& ltable.getCell(1, 1).equals("green kiwi") && ltable.getCell(0, 0).equals("red apple")){
+			System.out.println("Yay 7");			
+		}
+		ltable.removeRow(0);
+		ltable.setCol(0,"banana");
+		if (ltable.getCell(0, 0).equals("green banana") && ltable.getCell(0, 1).equals("green kiwi")
+			&& ltable.toString().equals(stableOf("green", "banana", "kiwi").toString())){
+			System.out.println("Yay 8");			
+		}
+		
+		// the integer table again, prepending rows and columns to circular arrays
+		Table<Integer,Integer, Integer, IntegerComb> ctable = new Table<>(new IntegerAdder(),
+			DynamicGrid.Layout.CIRCULAR, false);
+		for (int i=0;i<5; i++){
+			ctable.addRow(0,5-i);
+			ctable.addCol(0,(i+1)*10);
+		}
+		ctable.setOp(new IntegerTimer());
+		ctable.removeRow(0);
+		ctable.removeCol(0);
+		if (ctable.getSizeRow()==4 && ctable.getSizeCol()==4 && ctable.getRowHead(0)==2
+			&& ctable.getCell(0, 0)==80 && ctable.getCell(3, 3)==50 ){
+			System.out.println("Yay 9");			
+		}
+		
+		// saving the integer table and the string table, and opening them again from their files
+		try {
+			Path ifile = Files.createTempFile("itable", ".tbl");
+			Path sfile = Files.createTempFile("stable", ".tbl");
+			TableFile.save(ctable, ifile, Codec.INTEGER, Codec.INTEGER, Codec.INTEGER);
+			TableFile.save(ltable, sfile, Codec.STRING, Codec.STRING, Codec.STRING);
+			Table<Integer,Integer, Integer, IntegerComb> otable = TableFile.open(ifile, new IntegerTimer(),
+				Codec.INTEGER, Codec.INTEGER, Codec.INTEGER);
+			Table<String, String, String, StringAdder> ostable = TableFile.open(sfile, sa,
+				Codec.STRING, Codec.STRING, Codec.STRING);
+			boolean same = otable.toString().equals(ctable.toString())
+				&& ostable.toString().equals(ltable.toString());
+			otable.setCol(0, 1);
+			Table<Integer,Integer, Integer, IntegerComb> atable = TableFile.open(ifile, new IntegerAdder(),
+				Codec.INTEGER, Codec.INTEGER, Codec.INTEGER);
+			// saving a table over the file it is still reading replaces the file, instead of truncating it
+			TableFile.save(ostable, sfile, Codec.STRING, Codec.STRING, Codec.STRING);
+			boolean resaved = ostable.toString().equals(ltable.toString()) && TableFile.open(sfile, sa,
+				Codec.STRING, Codec.STRING, Codec.STRING).toString().equals(ltable.toString());
+			if (same && resaved && otable.getCell(3, 0)==5 && otable.getCell(3, 3)==50 && atable.getCell(0, 0)==42){
+				System.out.println("Yay 10");
+			}
+			Files.delete(ifile);
+			Files.delete(sfile);
+		}
+		catch (IOException e) {
+			System.out.println("Table file trial failed: " + e);
+		}
+		
+		// writing the string table as text and reading its heads back
+		try {
+			stable.addCol(0, "dragon, fruit");
+			stable.addRow(0, "star\rfruit\r\n");
+			StringWriter csv = new StringWriter();
+			StringWriter tsv = new StringWriter();
+			StringWriter aligned = new StringWriter();
+			TableText.write(stable, csv, TableText.Format.CSV);
+			TableText.write(stable, tsv, TableText.Format.TSV);
+			TableText.write(stable, aligned, TableText.Format.ALIGNED);
+			Table<String, String, String, StringAdder> csvTable = new Table<>(sa);
+			Table<String, String, String, StringAdder> tsvTable = new Table<>(sa);
+			TableText.read(new StringReader(csv.toString()), TableText.Format.CSV, csvTable, s -> s, s -> s);
+			TableText.read(new StringReader(tsv.toString()), TableText.Format.TSV, tsvTable, s -> s, s -> s);
+			if (csvTable.toString().equals(stable.toString()) && tsvTable.toString().equals(stable.toString())
+				&& csv.toString().startsWith(",\"dragon, fruit\",apple") && stable.toString().contains(aligned.toString())){
+				System.out.println("Yay 11");
+			}
+		}
+		catch (IOException e) {
+			System.out.println("Table text trial failed: " + e);
+		}
+		
+		// changing disjoint rows of a concurrent table from several threads while other threads read it
+		ConcurrentTable<Integer,Integer, Integer, IntegerComb> ktable = new ConcurrentTable<>(new IntegerAdder(), 4);
+		for (int i=0;i<64; i++){
+			ktable.addRow(i,i);
+			ktable.addCol(i,i*100);
+		}
+		Thread[] threads = new Thread[8];
+		for (int t=0; t<threads.length; t++){
+			final int first = t;
+			threads[t] = new Thread(() -> {
+				for (int round=0; round<50; round++)
+					for (int row=first; row<64; row+=4){
+						if (first < 4)
+							ktable.setRow(row, row + round);
+						else
+							ktable.getCell(row, 63 - row);
+					}
+			});
+			threads[t].start();
+		}
+		try {
+			for (int t=0; t<threads.length; t++)
+				threads[t].join();
+			if (ktable.getCell(5, 3)==354 && ktable.getCell(63, 0)==112 && ktable.getNumStripes()==4
+				&& ktable.toString().contains("| 6412\n")){
+				System.out.println("Yay 12");
+			}
+		}
+		catch (InterruptedException e) {
+			System.out.println("Concurrent table trial was interrupted.");
+		}
+		
+		// snapshots keep the cells of a table while it keeps changing
+		Table<Integer,Integer, Integer, IntegerComb> snapshot = itable.snapshot();
+		String before = itable.toString();
+		itable.setRow(0, 100);
+		itable.addCol(0, 7);
+		itable.setOp(new IntegerAdder());
+		Table<String, String, String, StringAdder> lsnapshot = ltable.snapshot();
+		ltable.setCol(0, "fig");
+		// a wide row shared with a snapshot, recalculated by several tasks at once, is copied only once
+		Table<Integer,Integer, Integer, IntegerComb> wtable = new Table<>(new IntegerAdder(), DynamicGrid.Layout.CIRCULAR, false);
+		wtable.addRow(0, 2);
+		for (int i=0; i<20000; i++)
+			wtable.addCol(i, i);
+		wtable.setParallelThreshold(1);
+		Table<Integer,Integer, Integer, IntegerComb> wsnapshot = wtable.snapshot();
+		wtable.setOp(new IntegerTimer());
+		boolean wide = wsnapshot.getCell(0, 19999)==20001;
+		for (int i=0; i<20000; i++)
+			wide = wide && wtable.getCell(0, i)==2*i;
+		boolean immutable = false;
+		try {
+			snapshot.addRow(0, 1);
+		}
+		catch (UnsupportedOperationException e) {
+			immutable = true;
+		}
+		if (immutable && snapshot.toString().equals(before) && snapshot.getCell(0, 0)==50 && itable.getCell(0, 1)==150
+			&& lsnapshot.getCell(0, 0).equals("green banana") && ltable.getCell(0, 0).equals("green fig")
+			&& ktable.snapshot().getCell(5, 3)==354 && wide){
+			System.out.println("Yay 13");
+		}
+		
+		// the same large table recalculated with the batch loops of IntegerTimer and with one call per cell
+		Table<Integer,Integer, Integer, IntegerComb> btable = new Table<>(new IntegerTimer());
+		Table<Integer,Integer, Integer, Combiner<Integer,Integer,Integer>> ctable2 = new Table<>(
+			new CachingCombiner<Integer,Integer,Integer>(new IntegerTimer(), 16));
+		for (int i=0;i<100; i++){
+			btable.addRow(i, i-50);
+			btable.addCol(0, 3*i);
+			ctable2.addRow(i, i-50);
+			ctable2.addCol(0, 3*i);
+		}
+		btable.setParallelThreshold(1000);
+		ctable2.setParallelThreshold(1000);
+		btable.setRow(10, 1000);
+		ctable2.setRow(10, 1000);
+		btable.setCol(20, -7);
+		ctable2.setCol(20, -7);
+		if (btable.toString().replace("IntegerTimer", "CachingCombiner").equals(ctable2.toString())
+			&& btable.getCell(10, 20)==-7000 && btable.getCell(99, 0)==14553){
+			System.out.println("Yay 14");
+		}
+		
+		// a measured table: combinations, resizes and shifts of its heads, latencies, and the same in JMX
+		Metrics metrics = new Metrics();
+		Table<Integer,Integer, Integer, IntegerComb> mtable = new Table<>(new IntegerAdder());
+		mtable.setMetrics(metrics);
+		for (int i=0; i<4; i++)
+			mtable.addRow(i, i);
+		for (int i=0; i<3; i++)
+			mtable.addCol(i, 10*i);
+		mtable.setRow(0, 5);
+		mtable.setOp(new IntegerTimer());
+		mtable.removeRow(0);
+		Metrics.Snapshot counts = metrics.snapshot();
+		boolean registered = false;
+		try
+		{
+			javax.management.ObjectName name = metrics.register("dynamicgrids:type=Metrics,name=trial");
+			Object counters = java.lang.management.ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Counters");
+			registered = ((javax.management.openmbean.TabularData) counters).size() == Metrics.Counter.values().length;
+			Metrics.unregister(name);
+		}
+		catch (javax.management.JMException e)
+		{
+			System.out.println(e);
+		}
+		if (registered && counts.get(Metrics.Counter.COMBINES)==27 && counts.get(Metrics.Counter.RESIZES)==2
+			&& counts.get(Metrics.Counter.ELEMENTS_COPIED)==4 && counts.get(Metrics.Counter.ELEMENTS_SHIFTED)==3
+			&& counts.count(Metrics.Timer.ADD_ROW)==4 && counts.count(Metrics.Timer.GRID_ADD_COL)==3
+			&& counts.count(Metrics.Timer.SET_OP)==1 && counts.count(Metrics.Timer.SET_COL)==0
+			&& counts.percentileNanos(Metrics.Timer.SET_OP, 1) >= counts.meanNanos(Metrics.Timer.SET_OP)){
+			System.out.println("Yay 15");
+		}
+		
+		// an edit: two changes of row 1 and one of column 2 recalculated in one pass, equal heads skipped
+		Table<Integer,Integer, Integer, IntegerComb> etable = new Table<>(new IntegerAdder());
+		Table<Integer,Integer, Integer, IntegerComb> rtable = new Table<>(new IntegerAdder());
+		for (int i=0; i<5; i++){
+			etable.addRow(i, i*10);
+			rtable.addRow(i, (i==1) ? 200 : i*10);
+		}
+		for (int i=0; i<4; i++){
+			etable.addCol(i, i);
+			rtable.addCol(i, (i==2) ? 7 : i);
+		}
+		Metrics emetrics = new Metrics();
+		etable.setMetrics(emetrics);
+		etable.beginEdit();
+		etable.setRow(1, 100);
+		etable.setRow(1, 200);
+		etable.setCol(2, 7);
+		etable.setCol(2, 7);
+		boolean during = etable.isEditing() && etable.getCell(1, 2)==207 && etable.getCell(3, 2)==37
+			&& etable.getCell(3, 1)==31;
+		etable.commitEdit();
+		etable.setRow(0, 0);
+		etable.setOp(etable.getOp());
+		Metrics.Snapshot ecounts = emetrics.snapshot();
+		if (during && !etable.isEditing() && etable.toString().equals(rtable.toString())
+			&& ecounts.get(Metrics.Counter.COMBINES)==10 && ecounts.get(Metrics.Counter.SKIPPED_CHANGES)==3){
+			System.out.println("Yay 16");
+		}
+
+		// a bulk load in an edit: one rebuild of the board, and only the new and changed cells calculated
+		Table<Integer,Integer, Integer, IntegerComb> gtable = new Table<>(new IntegerAdder(), DynamicGrid.Layout.FLAT, false);
+		Table<Integer,Integer, Integer, IntegerComb> htable = new Table<>(new IntegerAdder());
+		for (int i=0; i<3; i++)
+			gtable.addRow(i, i*10);
+		gtable.addCol(0, 0);
+		gtable.addCol(1, 1);
+		htable.addRow(0, 10);
+		htable.addRow(1, 50);
+		htable.addRow(2, 20);
+		htable.addCol(0, 9);
+		htable.addCol(1, 1);
+		Metrics bmetrics = new Metrics();
+		gtable.setMetrics(bmetrics);
+		gtable.beginEdit();
+		for (int i=0; i<20; i++){
+			gtable.addCol(gtable.getSizeCol(), 100+i);
+			htable.addCol(htable.getSizeCol(), 100+i);
+		}
+		gtable.removeRow(0);
+		gtable.addRow(1, 50);
+		gtable.setCol(0, 9);
+		boolean pending = gtable.getCell(1, 21)==169 && gtable.getCell(2, 1)==21 && gtable.getCell(0, 0)==19;
+		gtable.commitEdit();
+		Metrics.Snapshot bcounts = bmetrics.snapshot();
+		if (pending && gtable.toString().equals(htable.toString()) && bcounts.get(Metrics.Counter.COMBINES)==66
+			&& bcounts.count(Metrics.Timer.GRID_ADD_COL)==0 && bcounts.count(Metrics.Timer.ADD_COL)==20){
+			System.out.println("Yay 17");
+		}
+
+		// measuring cells of views whose text would not fit in memory
+		Table<String, Integer, CharSequence, StringTimerView> vtable = new Table<>(new StringTimerView());
+		vtable.addRow(0, "a");
+		vtable.addRow(1, "b");
+		vtable.addCol(0, 1000000000);
+		vtable.addCol(1, 2);
+		if (vtable.getCell(0, 0).length()==1000000000 && vtable.getCell(1, 1).toString().equals("bb")){
+			System.out.println("Yay 18");
+		}
+
 	}
 	
 }
\ No newline at end of file
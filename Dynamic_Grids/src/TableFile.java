@@ -0,0 +1,259 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saves tables to a binary file and opens them again without recalculating their cells. The file is
+ * memory-mapped when opened: the heads are read right away (O(R+C)), and every cell is decoded from
+ * the file only when it is read (see MappedGridStorage), so opening a table does not depend on its
+ * number of cells. All numbers are big-endian. The format is:
+ * <pre>
+ *   int magic ("TBL1"), int version
+ *   int length + UTF-8 bytes of the class name of the operator
+ *   int R, int C
+ *   R records of row heads, C records of column heads, R*C records of cells (in row-major order)
+ *   R*C ints: offset of the record of every cell, from the first cell record
+ *   int position of the first cell record, int position of the offsets
+ * </pre>
+ * where a record is an int length (-1 for null) followed by the bytes of the value. A file can take
+ * up to Integer.MAX_VALUE bytes (one mapping). A table opened from a file keeps reading it until
+ * every cell was copied to memory, so the file must not be modified while a table is open on it
+ * (save never modifies it: it writes a new file and moves it over the old one).
+ *
+ * @author Sergio Delgado
+ */
+public class TableFile
+{
+	/**
+	 * first int of every table file ("TBL1")
+	 */
+	private static final int MAGIC = 0x54424C31;
+	/**
+	 * version of the format written by save
+	 */
+	private static final int VERSION = 1;
+	/**
+	 * length of the record of a null value
+	 */
+	private static final int NULL_LENGTH = -1;
+	/**
+	 * number of bytes of the end of the file (positions of the cell records and of the offsets)
+	 */
+	private static final int TRAILER = 2 * Integer.BYTES;
+
+
+	/**
+	 * No instances: every method is static.
+	 */
+	private TableFile()
+	{
+	}
+
+
+	/**
+	 * Writes the table to the file at path (replacing it), reading every cell once (so the cells of a
+	 * lazy table get calculated). O(RC). The file is written as it goes; only the offsets of the cells
+	 * are kept in memory. It is written to a temporary file in the same directory, which then replaces
+	 * the file at path in one move, so the old file is never left half-written, and tables still open
+	 * on it (even the one being saved) keep reading the old file.
+	 * @param table Table to be saved.
+	 * @param path Path of the file.
+	 * @param rowCodec Codec of the row heads.
+	 * @param colCodec Codec of the column heads.
+	 * @param cellCodec Codec of the cells.
+	 * @param <R> Type of elements of row heads.
+	 * @param <C> Type of elements of columns heads.
+	 * @param <V> Type of elements of the cells.
+	 * @param <O> Type of the operator of the table.
+	 * @throws IOException if the file cannot be written, or the table does not fit in a table file.
+	 */
+	public static <R, C, V, O extends Combiner<R,C,V>> void save(Table<R,C,V,O> table, Path path,
+		Codec<R> rowCodec, Codec<C> colCodec, Codec<V> cellCodec) throws IOException
+	{
+		int numRow = table.getSizeRow();
+		int numCol = table.getSizeCol();
+		Path directory = path.toAbsolutePath().getParent();
+		Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+		boolean saved = false;
+
+		try
+		{
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary))))
+			{
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				byte[] opName = table.getOp().getClass().getName().getBytes(StandardCharsets.UTF_8);
+				out.writeInt(opName.length);
+				out.write(opName);
+				out.writeInt(numRow);
+				out.writeInt(numCol);
+
+				for (int row=0; row<numRow; row++)
+					writeRecord(out, table.getRowHead(row), rowCodec);
+				for (int col=0; col<numCol; col++)
+					writeRecord(out, table.getColHead(col), colCodec);
+
+				int recordsStart = out.size();
+				IntDynamicArray offsets = new IntDynamicArray(Math.max(numRow*numCol, 1));
+				for (int row=0; row<numRow; row++)
+					for (int col=0; col<numCol; col++)
+					{
+						offsets.add(out.size() - recordsStart);
+						writeRecord(out, table.getCell(row, col), cellCodec);
+					}
+
+				int indexStart = out.size();
+				for (int cell=0; cell<offsets.size(); cell++)
+					out.writeInt(offsets.get(cell));
+
+				out.writeInt(recordsStart);
+				out.writeInt(indexStart);
+
+				// DataOutputStream stops counting at Integer.MAX_VALUE
+				if (out.size() == Integer.MAX_VALUE)
+					throw new IOException("Table is too large for a table file.");
+			}
+
+			try
+			{
+				Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e)
+			{
+				Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+			saved = true;
+		}
+		finally
+		{
+			if (!saved)
+				Files.deleteIfExists(temporary);
+		}
+	}
+
+
+	/**
+	 * Opens a table saved with save. The heads are read right away and the cells stay in the mapped
+	 * file until they are read; the table copies them to memory the first time it is changed. The file
+	 * must not be modified while the table is open on it (saving over it with save is safe).
+	 * O(R+C) if op is of the same class as the operator of the saved table. Otherwise the table is
+	 * recalculated with op (O(RC)).
+	 * @param path Path of the file.
+	 * @param op Operator of the table.
+	 * @param rowCodec Codec of the row heads.
+	 * @param colCodec Codec of the column heads.
+	 * @param cellCodec Codec of the cells.
+	 * @param <R> Type of elements of row heads.
+	 * @param <C> Type of elements of columns heads.
+	 * @param <V> Type of elements of the cells.
+	 * @param <O> Type of the operator of the table.
+	 * @return Table saved in the file, with operator op.
+	 * @throws IOException if the file cannot be read, or it is not a table file.
+	 */
+	public static <R, C, V, O extends Combiner<R,C,V>> Table<R,C,V,O> open(Path path, O op,
+		Codec<R> rowCodec, Codec<C> colCodec, Codec<V> cellCodec) throws IOException
+	{
+		ByteBuffer file;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			if (channel.size() > Integer.MAX_VALUE || channel.size() < 6*Integer.BYTES)
+				throw new IOException("Not a table file: " + path);
+			file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());	// stays mapped after closing
+		}
+
+		if (file.getInt(0) != MAGIC)
+			throw new IOException("Not a table file: " + path);
+		if (file.getInt(Integer.BYTES) != VERSION)
+			throw new IOException("Unsupported table file version " + file.getInt(Integer.BYTES) + ": " + path);
+
+		int position = 2*Integer.BYTES;
+		int opLength = file.getInt(position);
+		byte[] opName = new byte[opLength];
+		file.get(position + Integer.BYTES, opName);
+		position += Integer.BYTES + opLength;
+
+		int numRow = file.getInt(position);
+		int numCol = file.getInt(position + Integer.BYTES);
+		position += 2*Integer.BYTES;
+
+		DynamicArray<R> rowHead = new DynamicArray<R>(Math.max(numRow, 1));
+		for (int row=0; row<numRow; row++)
+		{
+			rowHead.add(readRecord(file, position, rowCodec));
+			position += recordSize(file, position);
+		}
+		DynamicArray<C> colHead = new DynamicArray<C>(Math.max(numCol, 1));
+		for (int col=0; col<numCol; col++)
+		{
+			colHead.add(readRecord(file, position, colCodec));
+			position += recordSize(file, position);
+		}
+
+		int recordsStart = file.getInt(file.limit() - TRAILER);
+		int indexStart = file.getInt(file.limit() - Integer.BYTES);
+		MappedGridStorage<V> cells = new MappedGridStorage<V>(file, cellCodec, recordsStart, indexStart,
+			numRow, numCol);
+
+		Table<R,C,V,O> table = new Table<R,C,V,O>(op, rowHead, colHead, cells);
+		if (!op.getClass().getName().equals(new String(opName, StandardCharsets.UTF_8)))
+			table.refresh();	// the saved cells were calculated by another operator
+		return table;
+	}
+
+
+	/**
+	 * Writes the record of a value: its length (-1 for null) and its bytes.
+	 * @param out Stream where the record is written.
+	 * @param value Generic type value (it can be null).
+	 * @param codec Codec of the value.
+	 * @param <T> Type of the value.
+	 * @throws IOException if the stream cannot be written.
+	 */
+	private static <T> void writeRecord(DataOutputStream out, T value, Codec<T> codec) throws IOException
+	{
+		if (value == null)
+			out.writeInt(NULL_LENGTH);
+		else
+		{
+			byte[] bytes = codec.encode(value);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+
+	/**
+	 * Returns the value of the record at position of a mapped file.
+	 * @param file Buffer of the mapped file.
+	 * @param position int value. Position of the record in file.
+	 * @param codec Codec of the value.
+	 * @param <T> Type of the value.
+	 * @return Generic type value of the record (it can be null).
+	 */
+	static <T> T readRecord(ByteBuffer file, int position, Codec<T> codec)
+	{
+		int length = file.getInt(position);
+		return (length == NULL_LENGTH) ? null : codec.decode(file, position + Integer.BYTES, length);
+	}
+
+
+	/**
+	 * Returns the number of bytes of the record at position of a mapped file.
+	 * @param file Buffer of the mapped file.
+	 * @param position int value. Position of the record in file.
+	 * @return int value. Number of bytes of the record, length included.
+	 */
+	private static int recordSize(ByteBuffer file, int position)
+	{
+		return Integer.BYTES + Math.max(file.getInt(position), 0);
+	}
+
+}
@@ -0,0 +1,170 @@
+/**
+ * Table that never changes, returned by Table.snapshot: the heads and the cells of a table at one
+ * moment. Its cells are shared with the table it was taken from until that table changes them, and
+ * nothing is written when it is read (not even the widths of its columns, measured on every
+ * rendering), so any number of threads can read it at once without locks. Every method that would
+ * change it throws UnsupportedOperationException.
+ *
+ * @author Sergio Delgado
+ *
+ * @param <RowType> Type of elements of row heads.
+ * @param <ColType> Type of elements of columns heads.
+ * @param <CellType> Type of elements of grid (board).
+ * @param <OpType> Type of the operator that will combine row-column values to get a result.
+ */
+public class TableSnapshot<RowType, ColType, CellType, OpType extends Combiner<RowType,ColType,CellType>>
+	extends Table<RowType, ColType, CellType, OpType>
+{
+	/**
+	 * Constructor over copies of the heads and a snapshot of the board of a table.
+	 * @param oper Generic type, object that executes the basic operation between two operands.
+	 * @param rowHead Dynamic array with the row heads (not shared with any table).
+	 * @param colHead Dynamic array with the column heads (not shared with any table).
+	 * @param board Dynamic grid with a cell for every row head and column head (not changed by anyone else).
+	 */
+	TableSnapshot(OpType oper, DynamicArray<RowType> rowHead, DynamicArray<ColType> colHead, DynamicGrid<CellType> board)
+	{
+		super(oper, rowHead, colHead, board);
+		stopKeepingTextWidths();
+	}
+
+
+	/**
+	 * Returns this table, which already never changes. O(1).
+	 * @return This snapshot.
+	 */
+	@Override
+	public Table<RowType, ColType, CellType, OpType> snapshot()
+	{
+		return this;
+	}
+
+
+	/**
+	 * A snapshot cannot be changed.
+	 * @param threshold int value. Number of cells from which recomputations run in parallel.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void setParallelThreshold(int threshold)
+	{
+		throw new UnsupportedOperationException("Table snapshot cannot be changed.");
+	}
+
+
+	/**
+	 * A snapshot cannot be changed.
+	 * @param oper operator type object that is in charge or combining two operands and return a result.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void setOp(OpType oper)
+	{
+		throw new UnsupportedOperationException("Table snapshot cannot be changed.");
+	}
+
+
+	/**
+	 * A snapshot cannot be changed.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void refresh()
+	{
+		throw new UnsupportedOperationException("Table snapshot cannot be changed.");
+	}
+
+
+	/**
+	 * A snapshot cannot be changed.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public void beginEdit()
+	{
+		throw new UnsupportedOperationException("Table snapshot cannot be changed.");
+	}
+
+
+	/**
+	 * A snapshot cannot be changed.
+	 * @param i Position on the rowHead where to add a new element.
+	 * @param v Generic type value of the element to be added at position i.
+	 * @return Never returns.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public boolean addRow(int i, RowType v)
+	{
+		throw new UnsupportedOperationException("Table snapshot cannot be changed.");
+	}
+
+
+	/**
+	 * A snapshot cannot be changed.
+	 * @param i Position on colHead where to add a new element.
+	 * @param v Generic type value of element to be added at position i.
+	 * @return Never returns.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public boolean addCol(int i, ColType v)
+	{
+		throw new UnsupportedOperationException("Table snapshot cannot be changed.");
+	}
+
+
+	/**
+	 * A snapshot cannot be changed.
+	 * @param i Position on the grid where to remove a row from.
+	 * @return Never returns.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public RowType removeRow(int i)
+	{
+		throw new UnsupportedOperationException("Table snapshot cannot be changed.");
+	}
+
+
+	/**
+	 * A snapshot cannot be changed.
+	 * @param i Position on the grid where to remove a column from.
+	 * @return Never returns.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public ColType removeCol(int i)
+	{
+		throw new UnsupportedOperationException("Table snapshot cannot be changed.");
+	}
+
+
+	/**
+	 * A snapshot cannot be changed.
+	 * @param i Position on rowHead where to change the value and of the board where to change row values.
+	 * @param v Generic type value to be added to rowHead.
+	 * @return Never returns.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public RowType setRow(int i, RowType v)
+	{
+		throw new UnsupportedOperationException("Table snapshot cannot be changed.");
+	}
+
+
+	/**
+	 * A snapshot cannot be changed.
+	 * @param i Position on colHead where to change the value and of the board where to change column values.
+	 * @param v Generic type value to be added to colHead.
+	 * @return Never returns.
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public ColType setCol(int i, ColType v)
+	{
+		throw new UnsupportedOperationException("Table snapshot cannot be changed.");
+	}
+
+}
@@ -0,0 +1,408 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * Writes tables as text (CSV, TSV or aligned columns) and reads them back (CSV and TSV), one row at a
+ * time: no representation of the whole table is built in memory. The first line holds the column
+ * heads (after an empty corner field) and every other line holds a row head followed by the cells of
+ * its row. Values are written with String.valueOf.
+ *
+ * @author Sergio Delgado
+ */
+public class TableText
+{
+	/**
+	 * Text formats a table can be written in.
+	 */
+	public enum Format
+	{
+		/**
+		 * Comma-separated values (RFC 4180): fields with commas, quotes or line breaks are quoted,
+		 * and their quotes are doubled.
+		 */
+		CSV,
+		/**
+		 * Tab-separated values: tabs, line breaks and backslashes inside fields are written as
+		 * \t, \n, \r and \\.
+		 */
+		TSV,
+		/**
+		 * The columns of the table padded to a common width and separated by '|', as in
+		 * Table.toString. The widths are the ones the table keeps for its columns, so only the columns
+		 * whose widths are not known are measured first. It cannot be read back.
+		 */
+		ALIGNED
+	}
+
+
+	/**
+	 * No instances: every method is static.
+	 */
+	private TableText()
+	{
+	}
+
+
+	/**
+	 * Writes the table to out in the format received, row by row. O(RC). Only the widths of the columns
+	 * are kept in memory. out is flushed, not closed.
+	 * @param table Table to be written.
+	 * @param out Writer where the table is written.
+	 * @param format Text format of the table.
+	 * @throws IOException if out cannot be written.
+	 */
+	public static void write(Table<?,?,?,?> table, Writer out, Format format) throws IOException
+	{
+		if (format == Format.ALIGNED)
+			writeAligned(table, out);
+		else
+		{
+			char separator = (format == Format.CSV) ? ',' : '\t';
+
+			// column heads, after an empty corner
+			for (int col=0; col<table.getSizeCol(); col++)
+			{
+				out.write(separator);
+				writeField(out, table.getColHead(col), format);
+			}
+			out.write('\n');
+
+			// row by row
+			for (int row=0; row<table.getSizeRow(); row++)
+			{
+				writeField(out, table.getRowHead(row), format);
+				for (int col=0; col<table.getSizeCol(); col++)
+				{
+					out.write(separator);
+					writeField(out, table.getCell(row, col), format);
+				}
+				out.write('\n');
+			}
+		}
+		out.flush();
+	}
+
+
+	/**
+	 * Writes the table to out, as UTF-8 text in the format received, row by row. out is flushed, not closed.
+	 * @param table Table to be written.
+	 * @param out Stream where the table is written.
+	 * @param format Text format of the table.
+	 * @throws IOException if out cannot be written.
+	 */
+	public static void write(Table<?,?,?,?> table, OutputStream out, Format format) throws IOException
+	{
+		write(table, new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), format);
+	}
+
+
+	/**
+	 * Reads a table written in CSV or TSV and appends its heads to table: first every column head, then
+	 * every row head, each row as soon as its line is read. The cells of the text are not read back,
+	 * since the table calculates them from the heads with its operator. O(RC) plus the size of the text.
+	 * Only one line is kept in memory.
+	 * @param in Reader of the text.
+	 * @param format Text format of the table (CSV or TSV).
+	 * @param table Table where the heads are appended.
+	 * @param rowParser Function that turns the text of a row head into a row head.
+	 * @param colParser Function that turns the text of a column head into a column head.
+	 * @param <R> Type of elements of row heads.
+	 * @param <C> Type of elements of columns heads.
+	 * @throws IOException if in cannot be read, or the text is not a table.
+	 * @throws IllegalArgumentException if format is ALIGNED.
+	 */
+	public static <R, C> void read(Reader in, Format format, Table<R,C,?,?> table,
+		Function<String, R> rowParser, Function<String, C> colParser) throws IOException
+	{
+		if (format == Format.ALIGNED)
+			throw new IllegalArgumentException("Aligned text cannot be read back.");
+
+		BufferedReader reader = (in instanceof BufferedReader) ? (BufferedReader) in : new BufferedReader(in);
+		char separator = (format == Format.CSV) ? ',' : '\t';
+
+		DynamicArray<String> fields = new DynamicArray<String>();
+		if (!readRecord(reader, separator, format, fields))
+			throw new IOException("The text has no column heads.");
+
+		// adding the columns before the rows, while they are still only heads
+		for (int col=1; col<fields.size(); col++)
+			table.addCol(table.getSizeCol(), colParser.apply(fields.get(col)));
+		int numCol = fields.size();
+
+		while (readRecord(reader, separator, format, fields))
+		{
+			if (fields.size() != numCol)
+				throw new IOException("Row " + table.getSizeRow() + " has " + fields.size() + " fields instead of " + numCol + ".");
+			table.addRow(table.getSizeRow(), rowParser.apply(fields.get(0)));
+		}
+	}
+
+
+	/**
+	 * Reads a table written in CSV or TSV, as UTF-8 text, and appends its heads to table (see read(Reader, ...)).
+	 * in is not closed.
+	 * @param in Stream of the text.
+	 * @param format Text format of the table (CSV or TSV).
+	 * @param table Table where the heads are appended.
+	 * @param rowParser Function that turns the text of a row head into a row head.
+	 * @param colParser Function that turns the text of a column head into a column head.
+	 * @param <R> Type of elements of row heads.
+	 * @param <C> Type of elements of columns heads.
+	 * @throws IOException if in cannot be read, or the text is not a table.
+	 */
+	public static <R, C> void read(InputStream in, Format format, Table<R,C,?,?> table,
+		Function<String, R> rowParser, Function<String, C> colParser) throws IOException
+	{
+		read(new InputStreamReader(in, StandardCharsets.UTF_8), format, table, rowParser, colParser);
+	}
+
+
+	/**
+	 * Writes the table with its columns padded to a common width, as the body of Table.toString.
+	 * @param table Table to be written.
+	 * @param out Writer where the table is written.
+	 * @throws IOException if out cannot be written.
+	 */
+	private static void writeAligned(Table<?,?,?,?> table, Writer out) throws IOException
+	{
+		int numRow = table.getSizeRow();
+		int numCol = table.getSizeCol();
+
+		// the widths kept by the table
+		int rowHeadWidth = table.getRowHeadTextWidth();
+		int[] colWidths = new int[numCol];
+		int totalWidth = rowHeadWidth;
+		for (int col=0; col<numCol; col++)
+		{
+			colWidths[col] = table.getColTextWidth(col);
+			totalWidth += colWidths[col] + 1;
+		}
+
+		// the heads and the rows
+		pad(out, "", rowHeadWidth);
+		for (int col=0; col<numCol; col++)
+		{
+			out.write('|');
+			pad(out, String.valueOf(table.getColHead(col)), colWidths[col]);
+		}
+		out.write('\n');
+		for (int i=0; i<totalWidth; i++)
+			out.write('-');
+		out.write('\n');
+
+		for (int row=0; row<numRow; row++)
+		{
+			pad(out, String.valueOf(table.getRowHead(row)), rowHeadWidth);
+			for (int col=0; col<numCol; col++)
+			{
+				out.write('|');
+				pad(out, String.valueOf(table.getCell(row, col)), colWidths[col]);
+			}
+			out.write('\n');
+		}
+	}
+
+
+	/**
+	 * Writes text aligned to the right in a field of width characters (longer text is not cut).
+	 * @param out Writer where the text is written.
+	 * @param text String to be written.
+	 * @param width int value. Width of the field.
+	 * @throws IOException if out cannot be written.
+	 */
+	private static void pad(Writer out, String text, int width) throws IOException
+	{
+		for (int i=text.length(); i<width; i++)
+			out.write(' ');
+		out.write(text);
+	}
+
+
+	/**
+	 * Writes a value as a field of the format received, escaping what the format needs.
+	 * @param out Writer where the field is written.
+	 * @param value Value of the field (it can be null).
+	 * @param format Text format (CSV or TSV).
+	 * @throws IOException if out cannot be written.
+	 */
+	private static void writeField(Writer out, Object value, Format format) throws IOException
+	{
+		String text = String.valueOf(value);
+
+		if (format == Format.CSV)
+		{
+			boolean quoted = false;
+			for (int i=0; i<text.length() && !quoted; i++)
+			{
+				char c = text.charAt(i);
+				quoted = (c == ',' || c == '"' || c == '\n' || c == '\r');
+			}
+			if (!quoted)
+				out.write(text);
+			else
+			{
+				out.write('"');
+				for (int i=0; i<text.length(); i++)
+				{
+					char c = text.charAt(i);
+					if (c == '"')
+						out.write('"');
+					out.write(c);
+				}
+				out.write('"');
+			}
+		}
+		else
+		{
+			for (int i=0; i<text.length(); i++)
+			{
+				char c = text.charAt(i);
+				switch (c)
+				{
+					case '\t':	out.write("\\t");	break;
+					case '\n':	out.write("\\n");	break;
+					case '\r':	out.write("\\r");	break;
+					case '\\':	out.write("\\\\");	break;
+					default:	out.write(c);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Reads the next line of fields: a record of CSV (see readCsvRecord), or a line of TSV.
+	 * @param reader Reader of the text.
+	 * @param separator char value. Separator of the fields.
+	 * @param format Text format (CSV or TSV).
+	 * @param fields Dynamic array that is emptied and filled with the fields read.
+	 * @return True if a line was read, false at the end of the text.
+	 * @throws IOException if reader cannot be read, or a quoted field is not closed.
+	 */
+	private static boolean readRecord(BufferedReader reader, char separator, Format format,
+		DynamicArray<String> fields) throws IOException
+	{
+		if (format == Format.CSV)
+			return readCsvRecord(reader, fields);
+
+		String line = reader.readLine();	// TSV has no line breaks inside fields (they are escaped)
+		if (line == null)
+			return false;
+
+		fields.removeRange(0, fields.size());
+		StringBuilder field = new StringBuilder();
+		int i = 0;
+		while (i < line.length())
+		{
+			char c = line.charAt(i++);
+			if (c == separator)
+			{
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else if (c == '\\' && i < line.length())
+			{
+				char escaped = line.charAt(i++);
+				switch (escaped)
+				{
+					case 't':	field.append('\t');	break;
+					case 'n':	field.append('\n');	break;
+					case 'r':	field.append('\r');	break;
+					default:	field.append(escaped);
+				}
+			}
+			else
+				field.append(c);
+		}
+		fields.add(field.toString());
+		return true;
+	}
+
+
+	/**
+	 * Reads the next record of CSV, one character at a time (RFC 4180): outside of quotes a record ends
+	 * at \n, \r\n or \r, and inside quotes every character is kept as it is, line breaks included.
+	 * @param reader Reader of the text.
+	 * @param fields Dynamic array that is emptied and filled with the fields read.
+	 * @return True if a record was read, false at the end of the text.
+	 * @throws IOException if reader cannot be read, or a quoted field is not closed.
+	 */
+	private static boolean readCsvRecord(BufferedReader reader, DynamicArray<String> fields) throws IOException
+	{
+		int c = reader.read();
+		if (c < 0)
+			return false;
+
+		fields.removeRange(0, fields.size());
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		while (true)
+		{
+			if (c < 0)
+			{
+				if (quoted)
+					throw new IOException("Quoted field is not closed.");
+				break;
+			}
+
+			if (quoted)
+			{
+				if (c != '"')
+					field.append((char) c);
+				else if (peek(reader) == '"')	// a doubled quote is a quote of the field
+				{
+					field.append('"');
+					reader.read();
+				}
+				else
+					quoted = false;
+			}
+			else if (c == ',')
+			{
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else if (c == '\n')
+				break;
+			else if (c == '\r')
+			{
+				if (peek(reader) == '\n')
+					reader.read();
+				break;
+			}
+			else if (c == '"' && field.length() == 0)
+				quoted = true;
+			else
+				field.append((char) c);
+
+			c = reader.read();
+		}
+		fields.add(field.toString());
+		return true;
+	}
+
+
+	/**
+	 * Returns the next character of reader without reading it.
+	 * @param reader Reader of the text.
+	 * @return int value. Next character, or -1 at the end of the text.
+	 * @throws IOException if reader cannot be read.
+	 */
+	private static int peek(BufferedReader reader) throws IOException
+	{
+		reader.mark(1);
+		int c = reader.read();
+		reader.reset();
+		return c;
+	}
+
+}
@@ -0,0 +1,309 @@
+/**
+ * Grid storage engine that keeps the grid in square tiles of TILE x TILE cells (cache blocking).
+ * Cells that are close in the grid, in either direction, are close in memory, so walking a column
+ * is as cache friendly as walking a row. Adding or removing a row or column moves the cells after it
+ * one place, tile by tile, and tiles are only allocated for the parts of the grid that exist.
+ *
+ * @author Sergio Delgado
+ *
+ * @param <T>  Type of the elements inside the grid cells.
+ */
+public class TiledGridStorage<T> implements GridStorage<T>
+{
+	/**
+	 * log2 of the number of rows and columns of a tile
+	 */
+	private static final int SHIFT = 5;
+	/**
+	 * number of rows and columns of a tile (32, so a tile of references takes about 4KB)
+	 */
+	private static final int TILE = 1 << SHIFT;
+	/**
+	 * mask that gives the position of a row or column inside its tile
+	 */
+	private static final int MASK = TILE - 1;
+
+	/**
+	 * Tiles of the grid: tiles[tileRow][tileCol] holds the cells of that tile in row-major order
+	 */
+	private Object[][][] tiles;
+	/**
+	 * number of existing rows in the grid
+	 */
+	private int numRow;
+	/**
+	 * number of existing columns in the grid
+	 */
+	private int numCol;
+
+
+	/**
+	 * Constructor, which creates an empty grid of 0 rows and 0 cols
+	 */
+	public TiledGridStorage()
+	{
+		tiles = new Object[1][1][];
+		numRow = 0;
+		numCol = 0;
+	}
+
+
+	/**
+	 * Returns the number of rows in the grid. O(1).
+	 * @return int value. Number of rows in the grid.
+	 */
+	public int getNumRow()
+	{
+		return numRow;
+	}
+
+
+	/**
+	 * Returns the number of columns in the grid. O(1).
+	 * @return int value. Number of columns in the grid.
+	 */
+	public int getNumCol()
+	{
+		return numCol;
+	}
+
+
+	/**
+	 * Returns the value of the element of the grid at indexRow and indexCol. O(1).
+	 * @param indexRow int value. Row index on the grid.
+	 * @param indexCol int value. Column index on the grid.
+	 * @return Generic type element at the cell pointed.
+	 */
+	public T get(int indexRow, int indexCol)
+	{
+		if (indexRow>=0 && indexRow<numRow && indexCol>=0 && indexCol<numCol)
+			return read(indexRow, indexCol);
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+
+	/**
+	 * Changes value at a cell of the grid located at a specific indexRow and indexCol. O(1).
+	 * @param indexRow Row position in the grid.
+	 * @param indexCol Column position in the grid.
+	 * @param value Generic type value of the new element in the grid.
+	 * @return Generic type value of the old element that got replaced.
+	 */
+	public T set(int indexRow, int indexCol, T value)
+	{
+		if (indexRow>=0 && indexRow<numRow && indexCol>=0 && indexCol<numCol)
+		{
+			T oldValue = read(indexRow, indexCol);
+			write(indexRow, indexCol, value);
+			return oldValue;
+		}
+		else
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+	}
+
+
+	/**
+	 * Copy values from newRow to add a row at the row index specified. O((R-index)C): the rows after
+	 * index move one row down. Adds the new row, only if it matches the size of each row of the grid.
+	 * @param index Position of the row of the grid where we are adding the new row.
+	 * @param newRow Dynamic array that holds the element values of the new row.
+	 * @return True only if the addition of the row happened.
+	 */
+	public boolean addRow(int index, DynamicArray<T> newRow)
+	{
+		if (numRow > 0 && newRow.size() != numCol)
+			return false;
+
+		if (index < 0 || index > numRow)
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		if (numRow == 0)	// the first row of the grid decides the number of columns
+			numCol = newRow.size();
+
+		ensureTiles(numRow+1, numCol);
+
+		// moving the rows (after index) one row down, column by column inside each tile
+		for (int row=numRow; row>index; row--)
+			for (int col=0; col<numCol; col++)
+				write(row, col, read(row-1, col));
+
+		for (int col=0; col<numCol; col++)
+			write(index, col, newRow.get(col));
+
+		numRow++;
+		return true;
+	}
+
+
+	/**
+	 * Copies values from newCol to add a column at the column index specified. Cannot add if the
+	 * length of newCol does not match the number of rows. O(R(C-index)).
+	 * @param index Column of the grid in which to add the new column (newCol)
+	 * @param newCol Array of values of the column that will be added to the grid
+	 * @return True only if the addition of the column happened.
+	 */
+	public boolean addCol(int index, DynamicArray<T> newCol)
+	{
+		if (newCol.size() != numRow)
+			return false;
+
+		if (numRow == 0)   // nothing to add a column to
+			return true;
+
+		if (index < 0 || index > numCol)
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		ensureTiles(numRow, numCol+1);
+
+		// moving the columns (after index) one column right
+		for (int row=0; row<numRow; row++)
+		{
+			for (int col=numCol; col>index; col--)
+				write(row, col, read(row, col-1));
+			write(row, index, newCol.get(row));
+		}
+
+		numCol++;
+		return true;
+	}
+
+
+	/**
+	 * Removes and returns the row at index. It shifts rows to remove the gap. O((R-index)C).
+	 * @param index Row position to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed row.
+	 */
+	public DynamicArray<T> removeRow(int index)
+	{
+		if (index < 0 || index >= numRow)
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		DynamicArray<T> removedRow = new DynamicArray<T>(Math.max(numCol, 1));
+		for (int col=0; col<numCol; col++)
+			removedRow.add(read(index, col));
+
+		// moving the rows (after index) one row up, and clearing the last row
+		for (int row=index; row<numRow-1; row++)
+			for (int col=0; col<numCol; col++)
+				write(row, col, read(row+1, col));
+		for (int col=0; col<numCol; col++)
+			write(numRow-1, col, null);
+
+		numRow--;
+		if (numRow == 0)   // a grid without rows has no columns
+			numCol = 0;
+
+		if ((numRow & MASK) == 0)	// a row of tiles was left empty
+			releaseTiles();
+		return removedRow;
+	}
+
+
+	/**
+	 * Removes and returns the column at index. It shifts columns to remove the gap. O(R(C-index)).
+	 * @param index Position of the column to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed column.
+	 */
+	public DynamicArray<T> removeCol(int index)
+	{
+		DynamicArray<T> removedColumn = new DynamicArray<T>(Math.max(numRow, 1));
+		if (numRow == 0)
+			return removedColumn;
+
+		if (index < 0 || index >= numCol)
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		// moving the columns (after index) one column left, and clearing the last column
+		for (int row=0; row<numRow; row++)
+		{
+			removedColumn.add(read(row, index));
+			for (int col=index; col<numCol-1; col++)
+				write(row, col, read(row, col+1));
+			write(row, numCol-1, null);
+		}
+
+		numCol--;
+		if ((numCol & MASK) == 0)	// a column of tiles was left empty
+			releaseTiles();
+		return removedColumn;
+	}
+
+
+	/**
+	 * Returns the value of the cell at row and col, which must be inside the tiles. O(1).
+	 * @param row int value. Row of the cell.
+	 * @param col int value. Column of the cell.
+	 * @return Generic type value of the cell (null if its tile was never allocated).
+	 */
+	@SuppressWarnings("unchecked") // Tag meant to skip giving warnings due to unsafe (T) casting on Objects
+	private T read(int row, int col)
+	{
+		Object[] tile = tiles[row >> SHIFT][col >> SHIFT];
+		return (tile == null) ? null : (T) tile[((row & MASK) << SHIFT) | (col & MASK)];
+	}
+
+
+	/**
+	 * Changes the value of the cell at row and col, allocating its tile if needed. O(1).
+	 * @param row int value. Row of the cell.
+	 * @param col int value. Column of the cell.
+	 * @param value Generic type value of the cell.
+	 */
+	private void write(int row, int col, T value)
+	{
+		Object[] tile = tiles[row >> SHIFT][col >> SHIFT];
+		if (tile == null)
+		{
+			if (value == null)	// a missing tile already reads as null
+				return;
+			tile = new Object[TILE * TILE];
+			tiles[row >> SHIFT][col >> SHIFT] = tile;
+		}
+		tile[((row & MASK) << SHIFT) | (col & MASK)] = value;
+	}
+
+
+	/**
+	 * Makes sure the table of tiles has room for a grid of rows x cols cells, doubling it if needed.
+	 * Tiles themselves are allocated when written.
+	 * @param rows int value. Number of rows of the grid.
+	 * @param cols int value. Number of columns of the grid.
+	 */
+	private void ensureTiles(int rows, int cols)
+	{
+		int tileRows = (rows + MASK) >> SHIFT;
+		int tileCols = (cols + MASK) >> SHIFT;
+
+		if (tileRows > tiles.length || tileCols > tiles[0].length)
+		{
+			int newTileRows = Math.max(tiles.length, 1);
+			while (newTileRows < tileRows)
+				newTileRows *= 2;
+			int newTileCols = Math.max(tiles[0].length, 1);
+			while (newTileCols < tileCols)
+				newTileCols *= 2;
+
+			Object[][][] newTiles = new Object[newTileRows][newTileCols][];
+			for (int tr=0; tr<tiles.length; tr++)
+				System.arraycopy(tiles[tr], 0, newTiles[tr], 0, tiles[tr].length);
+			tiles = newTiles;
+		}
+	}
+
+
+	/**
+	 * Drops the tiles that are entirely outside of the grid, so their memory can be reclaimed.
+	 */
+	private void releaseTiles()
+	{
+		int tileRows = (numRow + MASK) >> SHIFT;
+		int tileCols = (numCol + MASK) >> SHIFT;
+
+		for (int tr=0; tr<tiles.length; tr++)
+			for (int tc=0; tc<tiles[tr].length; tc++)
+				if (tr >= tileRows || tc >= tileCols)
+					tiles[tr][tc] = null;
+	}
+
+}
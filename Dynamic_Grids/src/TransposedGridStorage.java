@@ -0,0 +1,205 @@
+/**
+ * Grid storage engine that keeps the grid transposed inside another engine: every column of the grid
+ * is a row of the inner engine. On top of a FlatGridStorage it gives a column-major layout, where
+ * adding or removing a column moves one block of memory and adding or removing a row touches
+ * every column.
+ *
+ * @author Sergio Delgado
+ *
+ * @param <T>  Type of the elements inside the grid cells.
+ */
+public class TransposedGridStorage<T> implements GridStorage<T>
+{
+	/**
+	 * Engine that holds the transposed grid (row i of inner is column i of the grid)
+	 */
+	private GridStorage<T> inner;
+	/**
+	 * number of existing rows in the grid (kept here, since inner has no rows when the grid has no columns)
+	 */
+	private int numRow;
+
+
+	/**
+	 * Constructor, which creates an empty grid kept transposed inside the empty engine received.
+	 * @param inner Empty storage engine that will hold the transposed grid.
+	 */
+	public TransposedGridStorage(GridStorage<T> inner)
+	{
+		this.inner = inner;
+		numRow = 0;
+	}
+
+
+	/**
+	 * Returns the number of rows in the grid. O(1).
+	 * @return int value. Number of rows in the grid.
+	 */
+	public int getNumRow()
+	{
+		return numRow;
+	}
+
+
+	/**
+	 * Returns the number of columns in the grid. O(1).
+	 * @return int value. Number of columns in the grid.
+	 */
+	public int getNumCol()
+	{
+		return (numRow == 0) ? 0 : inner.getNumRow();
+	}
+
+
+	/**
+	 * Returns the value of the element of the grid at indexRow and indexCol. O(1) if it is for inner.
+	 * @param indexRow int value. Row index on the grid.
+	 * @param indexCol int value. Column index on the grid.
+	 * @return Generic type element at the cell pointed.
+	 */
+	public T get(int indexRow, int indexCol)
+	{
+		return inner.get(indexCol, indexRow);
+	}
+
+
+	/**
+	 * Changes value at a cell of the grid located at a specific indexRow and indexCol. O(1) if it is for inner.
+	 * @param indexRow Row position in the grid.
+	 * @param indexCol Column position in the grid.
+	 * @param value Generic type value of the new element in the grid.
+	 * @return Generic type value of the old element that got replaced.
+	 */
+	public T set(int indexRow, int indexCol, T value)
+	{
+		return inner.set(indexCol, indexRow, value);
+	}
+
+
+	/**
+	 * Copy values from newRow to add a row at the row index specified (a column of inner).
+	 * Adds the new row, only if it matches the size of each row of the grid.
+	 * @param index Position of the row of the grid where we are adding the new row.
+	 * @param newRow Dynamic array that holds the element values of the new row.
+	 * @return True only if the addition of the row happened.
+	 */
+	public boolean addRow(int index, DynamicArray<T> newRow)
+	{
+		if (numRow > 0 && newRow.size() != getNumCol())
+			return false;
+
+		if (index < 0 || index > numRow)
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		if (numRow == 0)
+		{
+			// the first row decides the columns: clearing the empty columns left by old rows
+			while (inner.getNumRow() > 0)
+				inner.removeRow(inner.getNumRow()-1);
+
+			for (int col=0; col<newRow.size(); col++)
+			{
+				DynamicArray<T> column = new DynamicArray<T>(1);
+				column.add(newRow.get(col));
+				inner.addRow(col, column);
+			}
+		}
+		else if (inner.getNumRow() > 0)		// (a grid with no columns only counts the new row)
+			inner.addCol(index, newRow);
+
+		numRow++;
+		return true;
+	}
+
+
+	/**
+	 * Copies values from newCol to add a column at the column index specified (a row of inner).
+	 * Cannot add if the length of newCol does not match the number of rows.
+	 * @param index Column of the grid in which to add the new column (newCol)
+	 * @param newCol Array of values of the column that will be added to the grid
+	 * @return True only if the addition of the column happened.
+	 */
+	public boolean addCol(int index, DynamicArray<T> newCol)
+	{
+		if (newCol.size() != numRow)
+			return false;
+
+		if (numRow == 0)   // nothing to add a column to
+			return true;
+
+		if (index < 0 || index > getNumCol())
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		return inner.addRow(index, newCol);
+	}
+
+
+	/**
+	 * Removes and returns the row at index (a column of inner).
+	 * @param index Row position to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed row.
+	 */
+	public DynamicArray<T> removeRow(int index)
+	{
+		if (index < 0 || index >= numRow)
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		DynamicArray<T> removedRow;
+		if (inner.getNumRow() > 0)
+			removedRow = inner.removeCol(index);
+		else
+			removedRow = new DynamicArray<T>();
+
+		numRow--;
+		return removedRow;
+	}
+
+
+	/**
+	 * Removes and returns the column at index (a row of inner).
+	 * @param index Position of the column to be removed from the grid.
+	 * @return Dynamic Array containing the elements of the removed column.
+	 */
+	public DynamicArray<T> removeCol(int index)
+	{
+		if (numRow == 0)
+			return new DynamicArray<T>();
+
+		if (index < 0 || index >= getNumCol())
+			throw new IndexOutOfBoundsException("Index out of Bounds.");
+
+		return inner.removeRow(index);
+	}
+
+
+	/**
+	 * Reorganizes the memory of the inner engine.
+	 */
+	public void compact()
+	{
+		inner.compact();
+	}
+
+
+	/**
+	 * Returns True if the inner engine can set different cells from several threads at once.
+	 * @return True only if concurrent calls to set on different cells are safe.
+	 */
+	public boolean supportsConcurrentSet()
+	{
+		return inner.supportsConcurrentSet();
+	}
+
+
+	/**
+	 * Gets the inner engine ready to be set from several threads at once. Rows of the grid are columns
+	 * of the inner engine, so every one of its rows is prepared.
+	 * @param rowFrom first row that will be set.
+	 * @param rowTo row after the last row that will be set.
+	 */
+	public void prepareConcurrentSet(int rowFrom, int rowTo)
+	{
+		inner.prepareConcurrentSet(0, inner.getNumRow());
+	}
+
+}
@@ -0,0 +1,456 @@
+import java.util.Random;
+
+import bench.Workload;
+
+/**
+ * Workloads measured by the JMH benchmarks of the package bench. They live in the default package,
+ * next to the classes of the library, and are created by name with create (see bench.Workloads).
+ * Operations that change the size of a structure undo their change in the same run, so every run
+ * finds the structure as the trial built it. Cells read or written at random cycle through a fixed
+ * list of random positions, drawn once per trial with a fixed seed. Values are boxed before the trial,
+ * and int results are added to a field of the workload, which is returned, so that boxing is not
+ * measured with the operations.
+ *
+ * @author Sergio Delgado
+ */
+public class BenchmarkWorkloads
+{
+	/**
+	 * number of random positions cycled through by the operations on random cells (a power of two)
+	 */
+	static final int POSITIONS = 1 << 12;
+	/**
+	 * seed of the random positions and values, so every trial measures the same positions
+	 */
+	static final long SEED = 310;
+
+
+	/**
+	 * No instances: every method is static.
+	 */
+	private BenchmarkWorkloads()
+	{
+	}
+
+
+	/**
+	 * Returns a new workload, not set up yet.
+	 * @param area Name of the group of workloads ("array", "grid", "table" or "combiner").
+	 * @param op Name of the operation measured.
+	 * @return New workload.
+	 * @throws IllegalArgumentException if there is no such group of workloads or operation.
+	 */
+	public static Workload create(String area, String op)
+	{
+		switch (area)
+		{
+			case "array":		return new ArrayWorkload(op);
+			case "grid":		return new GridWorkload(op);
+			case "table":		return new TableWorkload(op);
+			case "combiner":	return new CombinerWorkload(op);
+			default:			throw new IllegalArgumentException("Unknown benchmark area: " + area);
+		}
+	}
+
+
+	/**
+	 * Returns POSITIONS random ints in [0, bound).
+	 * @param bound int value. Bound of the positions.
+	 * @param random Generator of the positions.
+	 * @return int array of POSITIONS positions.
+	 */
+	static int[] positions(int bound, Random random)
+	{
+		int[] positions = new int[POSITIONS];
+		for (int i=0; i<POSITIONS; i++)
+			positions[i] = random.nextInt(bound);
+		return positions;
+	}
+
+
+	/**
+	 * Returns the values received, boxed once, so the operations measured do not box them every run.
+	 * @param values int array of values.
+	 * @return Integer array with the same values.
+	 */
+	static Integer[] boxed(int[] values)
+	{
+		Integer[] boxed = new Integer[values.length];
+		for (int i=0; i<values.length; i++)
+			boxed[i] = values[i];
+		return boxed;
+	}
+
+}
+
+
+/**
+ * Operations on DynamicArray, CircularDynamicArray and IntDynamicArray.
+ */
+class ArrayWorkload implements Workload
+{
+	private enum Op { addRemoveHead, addRemoveMiddle, addRemoveTail, get, set }	// operations measured
+
+	private final Op op;
+	private DynamicArray<Integer> array;	// null for an IntDynamicArray
+	private IntDynamicArray ints;
+	private int[] positions;
+	private Integer[] values;				// positions, boxed
+	private int sink;						// sum of the int results
+	private int next;
+
+	ArrayWorkload(String op)
+	{
+		this.op = Op.valueOf(op);
+	}
+
+	public void setUp(String variant, int size)
+	{
+		if (variant.equals("IntDynamicArray"))
+		{
+			ints = new IntDynamicArray();
+			for (int i=0; i<size; i++)
+				ints.add(i);
+		}
+		else
+		{
+			array = variant.equals("CircularDynamicArray") ? new CircularDynamicArray<Integer>() : new DynamicArray<Integer>();
+			for (int i=0; i<size; i++)
+				array.add(i);
+		}
+		positions = BenchmarkWorkloads.positions(size, new Random(BenchmarkWorkloads.SEED));
+		values = BenchmarkWorkloads.boxed(positions);
+	}
+
+	public Object run()
+	{
+		int k = next++ & (BenchmarkWorkloads.POSITIONS - 1);
+		int position = positions[k];
+		int size = (array == null) ? ints.size() : array.size();
+		int index;
+		switch (op)
+		{
+			case addRemoveHead:	index = 0;			break;
+			case addRemoveMiddle:	index = size / 2;	break;
+			case addRemoveTail:	index = size;		break;
+			case get:
+				if (array != null)
+					return array.get(position);
+				sink += ints.get(position);
+				return this;
+			case set:
+				if (array != null)
+					return array.set(position, values[k]);
+				sink += ints.set(position, position);
+				return this;
+			default:
+				throw new IllegalStateException("Unknown operation: " + op);
+		}
+		if (array == null)
+		{
+			ints.add(index, position);
+			sink += ints.remove(index);
+			return this;
+		}
+		array.add(index, values[k]);
+		return array.remove(index);
+	}
+}
+
+
+/**
+ * Operations on a square DynamicGrid of Integer cells, in any layout.
+ */
+class GridWorkload implements Workload
+{
+	private enum Op { get, set, addRemoveRow, addRemoveCol }	// operations measured
+
+	private final Op op;
+	private DynamicGrid<Integer> grid;
+	private DynamicArray<Integer> line;		// row or column added by addRemoveRow and addRemoveCol
+	private int[] rows;
+	private int[] cols;
+	private Integer[] values;				// POSITIONS values, boxed
+	private int next;
+
+	GridWorkload(String op)
+	{
+		this.op = Op.valueOf(op);
+	}
+
+	public void setUp(String variant, int size)
+	{
+		grid = new DynamicGrid<Integer>(DynamicGrid.Layout.valueOf(variant));
+		for (int row=0; row<size; row++)
+		{
+			DynamicArray<Integer> values = new DynamicArray<Integer>(size);
+			for (int col=0; col<size; col++)
+				values.add(row*size + col);
+			grid.addRow(row, values);
+		}
+		line = new DynamicArray<Integer>(size);
+		for (int i=0; i<size; i++)
+			line.add(-i);
+
+		Random random = new Random(BenchmarkWorkloads.SEED);
+		rows = BenchmarkWorkloads.positions(size, random);
+		cols = BenchmarkWorkloads.positions(size, random);
+		values = BenchmarkWorkloads.boxed(BenchmarkWorkloads.positions(size*size, random));
+	}
+
+	public Object run()
+	{
+		int position = next++ & (BenchmarkWorkloads.POSITIONS - 1);
+		switch (op)
+		{
+			case get:
+				return grid.get(rows[position], cols[position]);
+			case set:
+				return grid.set(rows[position], cols[position], values[position]);
+			case addRemoveRow:
+				grid.addRow(grid.getNumRow() / 2, line);
+				return grid.removeRow(grid.getNumRow() / 2);
+			case addRemoveCol:
+				grid.addCol(grid.getNumCol() / 2, line);
+				return grid.removeCol(grid.getNumCol() / 2);
+			default:
+				throw new IllegalStateException("Unknown operation: " + op);
+		}
+	}
+}
+
+
+/**
+ * Operations on a square integer table: a Table (eager or lazy) or an IntTable.
+ */
+class TableWorkload implements Workload
+{
+	private enum Op { setOp, setRow, setCol, addRemoveRow, addRemoveCol, getCell, toString }	// operations measured
+
+	private final Op op;
+	private Table<Integer, Integer, Integer, IntegerComb> table;	// null for an IntTable
+	private IntTable ints;
+	private IntegerComb[] ops;
+	private int[] rows;
+	private int[] cols;
+	private Integer[] values;				// POSITIONS head values, boxed
+	private int sink;						// sum of the int results of the IntTable
+	private int next;
+
+	TableWorkload(String op)
+	{
+		this.op = Op.valueOf(op);
+	}
+
+	public void setUp(String variant, int size)
+	{
+		if (variant.equals("IntTable"))
+		{
+			ints = new IntTable(new IntegerAdder());
+			for (int i=0; i<size; i++)
+			{
+				ints.addRow(i, i);
+				ints.addCol(i, i);
+			}
+		}
+		else
+		{
+			table = new Table<Integer, Integer, Integer, IntegerComb>(new IntegerAdder(), variant.equals("lazy"));
+			for (int i=0; i<size; i++)
+			{
+				table.addRow(i, i);
+				table.addCol(i, i);
+			}
+		}
+		ops = new IntegerComb[] { new IntegerAdder(), new IntegerTimer() };
+
+		Random random = new Random(BenchmarkWorkloads.SEED);
+		rows = BenchmarkWorkloads.positions(size, random);
+		cols = BenchmarkWorkloads.positions(size, random);
+		values = BenchmarkWorkloads.boxed(BenchmarkWorkloads.positions(size, random));
+	}
+
+	public Object run()
+	{
+		int position = next++ & (BenchmarkWorkloads.POSITIONS - 1);
+		int row = rows[position];
+		int col = cols[position];
+		if (table == null)
+			return runInt(position, row, col);
+
+		switch (op)
+		{
+			case setOp:
+				table.setOp(ops[position & 1]);
+				return table.getCell(row, col);
+			case setRow:
+				return table.setRow(row, values[position]);
+			case setCol:
+				return table.setCol(col, values[position]);
+			case addRemoveRow:
+				table.addRow(row, values[position]);
+				return table.removeRow(row);
+			case addRemoveCol:
+				table.addCol(col, values[position]);
+				return table.removeCol(col);
+			case getCell:
+				return table.getCell(row, col);
+			case toString:
+				return table.toString();
+			default:
+				throw new IllegalStateException("Unknown operation: " + op);
+		}
+	}
+
+	/**
+	 * Runs the operation on the IntTable.
+	 * @param position int value. Position in the list of random positions.
+	 * @param row int value. Random row.
+	 * @param col int value. Random column.
+	 * @return Result of the operation, or this workload if it is an int (added to sink).
+	 */
+	private Object runInt(int position, int row, int col)
+	{
+		int value = values[position];
+		switch (op)
+		{
+			case setOp:
+				ints.setOp(ops[position & 1]);
+				sink += ints.getCell(row, col);
+				break;
+			case setRow:
+				sink += ints.setRow(row, value);
+				break;
+			case setCol:
+				sink += ints.setCol(col, value);
+				break;
+			case addRemoveRow:
+				ints.addRow(row, value);
+				sink += ints.removeRow(row);
+				break;
+			case addRemoveCol:
+				ints.addCol(col, value);
+				sink += ints.removeCol(col);
+				break;
+			case getCell:
+				sink += ints.getCell(row, col);
+				break;
+			case toString:
+				return ints.toString();
+			default:
+				throw new IllegalStateException("Unknown operation: " + op);
+		}
+		return this;
+	}
+}
+
+
+/**
+ * Operations of every combiner of the library, on operands of its types: one combination
+ * (combine), a row of them (combineRow) and a block of BLOCK_ROWS rows (combineBlock).
+ */
+class CombinerWorkload implements Workload
+{
+	/**
+	 * number of first operands of combineBlock
+	 */
+	private static final int BLOCK_ROWS = 16;
+
+	private enum Op { combine, combineRow, combineBlock }	// operations measured
+
+	private final Op op;
+	private Combiner<Object, Object, Object> combiner;
+	private DynamicArray<Object> operands1;		// POSITIONS first operands
+	private DynamicArray<Object> operands2;		// size second operands
+	private int next;
+
+	CombinerWorkload(String op)
+	{
+		this.op = Op.valueOf(op);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void setUp(String variant, int size)
+	{
+		Random random = new Random(BenchmarkWorkloads.SEED);
+		operands1 = new DynamicArray<Object>(BenchmarkWorkloads.POSITIONS);
+		operands2 = new DynamicArray<Object>(size);
+		switch (variant)
+		{
+			case "IntegerAdder":
+			case "IntegerTimer":
+			case "ColorRG":
+				combiner = (Combiner) (variant.equals("IntegerAdder") ? new IntegerAdder()
+					: variant.equals("IntegerTimer") ? new IntegerTimer() : new ColorRG());
+				for (int i=0; i<BenchmarkWorkloads.POSITIONS; i++)
+					operands1.add(random.nextInt(256));
+				for (int i=0; i<size; i++)
+					operands2.add(random.nextInt(256));
+				break;
+			case "StringAdder":
+				combiner = (Combiner) new StringAdder();
+				for (int i=0; i<BenchmarkWorkloads.POSITIONS; i++)
+					operands1.add(text(random, 8));
+				for (int i=0; i<size; i++)
+					operands2.add(text(random, 8));
+				break;
+			case "StringTimer":
+				combiner = (Combiner) new StringTimer();
+				for (int i=0; i<BenchmarkWorkloads.POSITIONS; i++)
+					operands1.add(text(random, 4));
+				for (int i=0; i<size; i++)
+					operands2.add(random.nextInt(16));
+				break;
+			case "SubstringCounter":
+			case "CachingCombiner":
+				combiner = (Combiner) (variant.equals("SubstringCounter") ? new SubstringCounter()
+					: new CachingCombiner<String, String, Integer>(new SubstringCounter(), 1 << 16));
+				for (int i=0; i<BenchmarkWorkloads.POSITIONS; i++)
+					operands1.add(text(random, 256));
+				for (int i=0; i<size; i++)
+					operands2.add(text(random, 3));
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown combiner: " + variant);
+		}
+	}
+
+	/**
+	 * Returns a random text of length letters among "abcd" (so patterns are found often).
+	 * @param random Generator of the letters.
+	 * @param length int value. Length of the text.
+	 * @return Random text.
+	 */
+	private static String text(Random random, int length)
+	{
+		StringBuilder sb = new StringBuilder(length);
+		for (int i=0; i<length; i++)
+			sb.append((char) ('a' + random.nextInt(4)));
+		return sb.toString();
+	}
+
+	public Object run()
+	{
+		int position = next++ & (BenchmarkWorkloads.POSITIONS - 1);
+		switch (op)
+		{
+			case combine:
+				return combiner.combine(operands1.get(position), operands2.get(position % operands2.size()));
+			case combineRow:
+			{
+				DynamicArray<Object> results = new DynamicArray<Object>(operands2.size());
+				combiner.combineRow(operands1.get(position), operands2, results);
+				return results;
+			}
+			case combineBlock:
+			{
+				int from = position & ~(BLOCK_ROWS - 1);
+				DynamicArray<Object> results = new DynamicArray<Object>(BLOCK_ROWS * operands2.size());
+				combiner.combineBlock(operands1, from, from + BLOCK_ROWS, operands2, 0, operands2.size(), results);
+				return results;
+			}
+			default:
+				throw new IllegalStateException("Unknown operation: " + op);
+		}
+	}
+}
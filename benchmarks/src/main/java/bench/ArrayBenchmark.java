@@ -0,0 +1,72 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of dynamic arrays: adding and removing elements at the head, middle and tail, get and set.
+ *
+ * @author Sergio Delgado
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayBenchmark
+{
+	/**
+	 * Variant measured.
+	 */
+	@Param({"DynamicArray", "CircularDynamicArray", "IntDynamicArray"})
+	public String array;
+
+	/**
+	 * Operation measured.
+	 */
+	@Param({"addRemoveHead", "addRemoveMiddle", "addRemoveTail", "get", "set"})
+	public String op;
+
+	/**
+	 * Number of elements of the array.
+	 */
+	@Param({"1000", "100000"})
+	public int size;
+
+	private Workload workload;
+
+
+	/**
+	 * Builds the workload of the trial.
+	 */
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		workload = Workloads.create("array", op);
+		workload.setUp(array, size);
+	}
+
+
+	/**
+	 * Runs the operation once.
+	 * @return Result of the operation (consumed by JMH).
+	 */
+	@Benchmark
+	public Object run()
+	{
+		return workload.run();
+	}
+}
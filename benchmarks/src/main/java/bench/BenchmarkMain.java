@@ -0,0 +1,35 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: runs the benchmarks selected by the usual JMH command line options,
+ * always with the GC profiler, which reports the bytes allocated per operation and the collections.
+ *
+ * @author Sergio Delgado
+ */
+public class BenchmarkMain
+{
+	/**
+	 * Runs the benchmarks.
+	 * @param args JMH command line options (-h lists them).
+	 * @throws Exception if the options are wrong or a benchmark fails.
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		CommandLineOptions options = new CommandLineOptions(args);
+		if (options.shouldHelp())
+			options.showHelp();
+		else
+		{
+			Runner runner = new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build());
+			if (options.shouldList())
+				runner.list();
+			else
+				runner.run();
+		}
+	}
+}
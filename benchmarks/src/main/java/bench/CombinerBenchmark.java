@@ -0,0 +1,72 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of every combiner shipped with the library: one combination, a row of them and a block of 16 rows.
+ *
+ * @author Sergio Delgado
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CombinerBenchmark
+{
+	/**
+	 * Variant measured.
+	 */
+	@Param({"IntegerAdder", "IntegerTimer", "StringAdder", "StringTimer", "SubstringCounter", "CachingCombiner", "ColorRG"})
+	public String combiner;
+
+	/**
+	 * Operation measured.
+	 */
+	@Param({"combine", "combineRow", "combineBlock"})
+	public String op;
+
+	/**
+	 * Number of operands of every row (second operands).
+	 */
+	@Param({"16", "1024"})
+	public int size;
+
+	private Workload workload;
+
+
+	/**
+	 * Builds the workload of the trial.
+	 */
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		workload = Workloads.create("combiner", op);
+		workload.setUp(combiner, size);
+	}
+
+
+	/**
+	 * Runs the operation once.
+	 * @return Result of the operation (consumed by JMH).
+	 */
+	@Benchmark
+	public Object run()
+	{
+		return workload.run();
+	}
+}
@@ -0,0 +1,24 @@
+package bench;
+
+/**
+ * Represents an operation of the library measured by a benchmark. The implementations live in the
+ * default package, next to the classes of the library (which cannot be used from a named package),
+ * and JMH benchmarks reach them through this interface (see Workloads).
+ *
+ * @author Sergio Delgado
+ */
+public interface Workload
+{
+	/**
+	 * Builds the structures the operation runs on. Called once per trial, before it is measured.
+	 * @param variant Name of the variant of the structure (array class, layout, combiner, ...).
+	 * @param size int value. Size of the structure.
+	 */
+	public void setUp(String variant, int size);
+
+	/**
+	 * Runs the operation once, leaving the structures as they were (or of the same size).
+	 * @return Result of the operation, to be consumed by the benchmark.
+	 */
+	public Object run();
+}
@@ -0,0 +1,41 @@
+package bench;
+
+/**
+ * Creates the workloads of the benchmarks. JMH does not accept benchmarks in the default package,
+ * and a named package cannot refer to the classes of the default package, so the workloads are
+ * created by name, through the static method create of the class BenchmarkWorkloads of the default
+ * package. Only the creation is reflective: the measured calls go through the Workload interface.
+ *
+ * @author Sergio Delgado
+ */
+final class Workloads
+{
+	/**
+	 * No instances: every method is static.
+	 */
+	private Workloads()
+	{
+	}
+
+
+	/**
+	 * Returns a new workload, not set up yet.
+	 * @param area Name of the group of workloads ("array", "grid", "table" or "combiner").
+	 * @param op Name of the operation measured.
+	 * @return New workload.
+	 * @throws IllegalArgumentException if there is no such workload.
+	 */
+	static Workload create(String area, String op)
+	{
+		try
+		{
+			return (Workload) Class.forName("BenchmarkWorkloads")
+				.getMethod("create", String.class, String.class)
+				.invoke(null, area, op);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new IllegalArgumentException("No workload " + area + "/" + op + ".", e);
+		}
+	}
+}